@@ -6,8 +6,21 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import hu.bme.cr.batch.BatchResult;
+import hu.bme.cr.batch.BatchRunner;
+import hu.bme.cr.batch.BatchRunner.FailurePolicy;
+import hu.bme.cr.batch.BatchRunner.Ordering;
+import hu.bme.cr.batch.IScenarioRunner;
+import hu.bme.cr.scenario.ScenarioConfig;
+import hu.bme.cr.scenario.ScenarioReader;
 
 /**
  * Hello world!
@@ -50,10 +63,23 @@ public class App {
 		}
     }
     
+    /**
+     * Plays the scenarios of a scenario file. With BATCH_PARALLELISM other 
+     * than 1 the scenarios are played at the same time on worker threads.
+     * Files with the .json extension are read by the ScenarioReader, other 
+     * files contain the answers to the init questions.
+     */
     private static void autoSimulation() {
     	System.out.print("Name of the file to read simulation init params from: ");
     	String fileName = scanner.nextLine();
     	
+    	if (fileName.endsWith(".json")) {
+    		jsonSimulation(fileName);
+    		return;
+    	}
+    	
+    	List<String> scenarios = new ArrayList<>();
+    	
     	try (BufferedReader br = new BufferedReader(new FileReader(new File(props.getProperty("SIMULATION_PARAM_DIR") + fileName)))) {
     		int n = Integer.valueOf(br.readLine());
     		String line = null;
@@ -66,31 +92,106 @@ public class App {
 					sb.append(br.readLine() + "\n");
 				}
 				
-				String params = sb.toString();
-				System.out.println(params);
-				CRSystem system = createSimulationWithParams(params);
-				
-				play(system);
+				scenarios.add(sb.toString());
 			}
-			
-			
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
+			return;
 		} catch (IOException e) {
 			e.printStackTrace();
+			return;
 		} 
+    	
+    	BatchRunner runner = createBatchRunner();
+    	
+    	IScenarioRunner scenarioRunner = (index, params) -> {
+    		if (runner.getParallelism() == 1) {
+    			System.out.println(params);
+    		}
+    		
+    		play(createSimulationWithParams(params));
+    	};
+    	
+    	runBatch(runner, scenarios, scenarioRunner);
     }
     
-    private static void play(CRSystem system) {
-    	system.init();
-    	system.playInitPhase();
-    	system.playSetPhase();
+    /**
+     * Plays the scenarios of a JSON scenario file.
+     * 
+     * @param fileName - name of the file in SIMULATION_PARAM_DIR
+     */
+    private static void jsonSimulation(String fileName) {
+    	List<ScenarioConfig> configs;
     	
-    	for (int i = 0; i < Integer.valueOf(props.getProperty("ROUNDS")); i++) {
-    		system.playDecidePhase(i);
+    	try {
+    		configs = ScenarioReader.read(Paths.get(props.getProperty("SIMULATION_PARAM_DIR") + fileName));
+    	} catch (IOException e) {
+    		e.printStackTrace();
+    		return;
     	}
     	
-    	system.endGame();  
+    	BatchRunner runner = createBatchRunner();
+    	
+    	IScenarioRunner scenarioRunner = (index, scenario) -> {
+    		if (runner.getParallelism() == 1) {
+    			System.out.println(scenario);
+    		}
+    		
+    		CRSystem system = createSimulation(configs.get(index));
+    		
+    		play(system, system.getRounds());
+    	};
+    	
+    	runBatch(runner, configs.stream().map(ScenarioConfig::toString).collect(Collectors.toList()), scenarioRunner);
+    }
+    
+    private static BatchRunner createBatchRunner() {
+    	return new BatchRunner(Integer.valueOf(props.getProperty("BATCH_PARALLELISM", "1")), 
+    			Ordering.valueOf(props.getProperty("BATCH_ORDERING", "COMPLETION")), 
+    			FailurePolicy.valueOf(props.getProperty("BATCH_ON_FAILURE", "CONTINUE")));
+    }
+    
+    private static void runBatch(BatchRunner runner, List<String> scenarios, IScenarioRunner scenarioRunner) {
+    	try {
+			List<BatchResult> results = runner.run(scenarios, scenarioRunner, App::printResult);
+			long failed = results.stream().filter(r -> !r.isSuccess()).count();
+			
+			System.out.println("Batch finished: " + (results.size() - failed) + " succeeded, " + failed + " failed, " 
+					+ (scenarios.size() - results.size()) + " not played");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+    }
+    
+    private static void printResult(BatchResult result) {
+    	if (result.isSuccess()) {
+    		System.out.println("Scenario " + result.getIndex() + " finished in " 
+    				+ TimeUnit.NANOSECONDS.toMillis(result.getDurationNanos()) + " ms");
+    	}
+    	else {
+    		System.out.println("Scenario " + result.getIndex() + " failed: " + result.getFailure());
+    	}
+    }
+    
+    private static void play(CRSystem system) {
+    	play(system, Integer.valueOf(props.getProperty("ROUNDS")));
+    }
+    
+    private static void play(CRSystem system, int rounds) {
+    	try {
+    		system.init();
+    		system.playInitPhase();
+    		system.playSetPhase();
+    		
+    		for (int i = 0; i < rounds; i++) {
+    			system.playDecidePhase(i);
+    		}
+    		
+    		system.endGame();
+    	} finally {
+    		// releases the sink, the pool and the files of a failed scenario before the next one
+    		system.close();
+    	}
     }
     
     private static CRSystem createSimulation() {
@@ -104,6 +205,24 @@ public class App {
     	return null;
     }
     
+    /**
+     * The SIMULATION_MODE property of the scenario overrides the one of the application.
+     * 
+     * @throws IllegalArgumentException - if the simulation mode is neither NORMAL nor CONTENTION
+     */
+    private static CRSystem createSimulation(ScenarioConfig scenario) {
+    	String mode = scenario.getProperties().getOrDefault("SIMULATION_MODE", props.getProperty("SIMULATION_MODE"));
+    	
+    	if (mode.equals("NORMAL")) {
+    		return new CRSystem(scenario);
+    	}
+    	else if (mode.equals("CONTENTION")) {
+    		return new CRContentionSimulation(scenario);
+    	}
+    	
+    	throw new IllegalArgumentException("Unknown simulation mode: " + mode + "!");
+    }
+    
     private static CRSystem createSimulationWithParams(String params) {
     	if (props.getProperty("SIMULATION_MODE").equals("NORMAL")) {
     		return new CRSystem(params);
@@ -1,19 +1,28 @@
 package hu.bme.cr;
 
 
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
 
 import org.bson.Document;
 
+import hu.bme.cr.dsl.IResultSink;
+import hu.bme.cr.engine.ChannelOccupancyIndex;
 import hu.bme.cr.entity.CognitiveRadio;
+import hu.bme.cr.scenario.ScenarioConfig;
+import hu.bme.cr.scenario.ScenarioConfig.LogTarget;
 import hu.bme.cr.utilities.ListUtility;
 
 public class CRContentionSimulation extends CRSystem {
 	
 	private String docName;
 	
-	private List<List<List<Integer>>> competingUsers;
+	/**
+	 * Number of radios on each channel in each strategy slot of the last play.
+	 */
+	private ChannelOccupancyIndex occupancy;
 	
 	private List<List<Integer>> accessDecisions;
 	
@@ -24,17 +33,25 @@ public class CRContentionSimulation extends CRSystem {
 	public CRContentionSimulation(String simulationParams) {
 		super(simulationParams);
 	}
+	
+	public CRContentionSimulation(String simulationParams, Properties overrides) {
+		super(simulationParams, overrides);
+	}
+	
+	public CRContentionSimulation(ScenarioConfig scenario) {
+		super(scenario);
+	}
+	
+	public CRContentionSimulation(ScenarioConfig scenario, IResultSink sink) {
+		super(scenario, sink);
+	}
 
 	/*
 	 * Getter and setter
 	 */
 	
-	public List<List<List<Integer>>> getCompetingUsers() {
-		return competingUsers;
-	}
-
-	public void setCompetingUsers(List<List<List<Integer>>> competingUsers) {
-		this.competingUsers = competingUsers;
+	public ChannelOccupancyIndex getOccupancy() {
+		return occupancy;
 	}
 
 	/**
@@ -47,23 +64,29 @@ public class CRContentionSimulation extends CRSystem {
 	
 	/**
 	 * Ends the game by persisting important 
-	 * data to MongoDB database ("thesis" database, 
-	 * "simulations" collection) and by closing output.
+	 * data to the result sink (by default MongoDB, "thesis" 
+	 * database, "simulations" collection) and by closing output.
+	 * 
+	 * @throws UncheckedIOException - if the result sink could not persist the documents
 	 */
 	@Override
 	public void endGame() {
 		//List<Document> collisionsList = collisions.entrySet().stream().map(c -> new Document().append("name", c.getKey()).append("number", c.getValue())).collect(Collectors.toList());
-		persist(NORMAL_PHASE + "_" + (Integer.valueOf(props.getProperty("ROUNDS")) - 1));
+		String lastPhase = NORMAL_PHASE + "_" + (Integer.valueOf(props.getProperty("ROUNDS")) - 1);
+		flush(lastPhase, () -> persist(lastPhase));
+		writeMetrics(docName);
 		
-		ds.getClient().close();
+		shutdown();
 		
-		System.out.println("End of Simulation");
+		if (scenario.getLogTarget() != LogTarget.NONE) {
+			System.out.println("End of Simulation");
+		}
 		
 		out.println();
 		out.println("***********************");
 		out.println("** End of Simulation **");
 		out.println("***********************");
-		out.close();	
+		closeLog();
 	}
 	
 	/**
@@ -98,71 +121,44 @@ public class CRContentionSimulation extends CRSystem {
 	protected void persist(String phase) {
 		Document doc = new Document();
 		List<Document> radioDocs = new ArrayList<>();
-		for (CognitiveRadio r : radios) {
+		for (int i = 0; i < radios.size(); i++) {
+			CognitiveRadio r = radios.get(i);
 			Document radioDoc = new Document();
 			radioDoc
-				.append("radio", radios.indexOf(r))
-				.append("accessDecisions", accessDecisions.get(radios.indexOf(r)))
-				.append("utilities", r.getUtilities())
-				.append("regrets", r.getRegrets())
-				.append("competingUsers", competingUsers.get(radios.indexOf(r)))
+				.append("radio", i)
+				.append("accessDecisions", accessDecisions.get(i))
+				.append("utilities", ListUtility.toList(r.getUtilities()))
+				.append("regrets", ListUtility.toList(r.getRegrets()))
+				.append("competingUsers", occupancy.getCompetingUsers(i))
 				.append("demand", r.getDemand())
-				.append("contentions", r.getContentions())
+				.append("contentions", state.getContentions(i))
 				.append("utilityFunction", r.getUtilityFunction().getType())
 				.append("rates", r.getUtilityFunction().getRates())
 				.append("strategy", r.getStrategy().toString());
 			
 			radioDocs.add(radioDoc);
 		}
+		
+		writeColumns(phase);
 
-		doc.append("subslots", Integer.valueOf(props.getProperty("SUBSLOTS")))
+		doc.append("subslots", subslots)
 			.append("radioNumber", radios.size())
 			.append("channels", channels.size())
 			.append("strategySpaceSize", strategySpaceSize)
+			.append("sampledStrategies", sampledStrategies)
+			.append("seed", seed)
 			.append("radios", radioDocs)
 			.append("phase", phase)
 			.append("name", docName);
 		
-		ds.getDocuments().insertOne(doc);
+		sink.write(doc);
 	}
 
+	/**
+	 * Counts the radios on each channel in each strategy slot, 
+	 * from which the competing users of every radio are given.
+	 */
 	public void setCompetingUserNumber() {
-		competingUsers = new ArrayList<>(radios.size());
-		
-		for (int i = 0; i < radios.size(); i++) {
-			List<List<Integer>> tmp = new ArrayList<>(strategySpaceSize);
-			
-			for (int j = 0; j < strategySpaceSize; j++) {
-				tmp.add(ListUtility.fillListWithNValues(Integer.valueOf(0), channels.size()));			
-			}
-			
-			competingUsers.add(tmp);
-		}
-		
-		for (int i = 0; i < radios.size(); i++) {
-			List<Integer> adi = radios.get(i).getAccessDecisions();
-			
-			for (int j = 0; j < adi.size(); j++) {
-				int aj = adi.get(j);
-				List<Integer> contentions = ListUtility.fillListWithNValues(Integer.valueOf(0), channels.size());
-				List<Boolean> ssi = CognitiveRadio.getStrategySpace().get(aj);
-				
-				for (int k = 0; k < radios.size(); k++) {
-					if (i != k) {
-						List<Boolean> ssk = CognitiveRadio.getStrategySpace().get(radios.get(k).getAccessDecisions().get(j));
-						
-						for (int l = 0; l < ssi.size(); l++) {
-							if (ssi.get(l) && ssk.get(l)) {
-								contentions.set(l, Math.incrementExact(contentions.get(l)));
-							}
-						}
-					}
-				}
-				
-				competingUsers.get(i).set(aj, contentions);
-			}
-		}
-		
+		occupancy = new ChannelOccupancyIndex(strategySpace, accessDecisions);
 	}
 }
-
@@ -2,37 +2,68 @@ package hu.bme.cr;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import org.bson.Document;
 
-import hu.bme.cr.dsl.DataStore;
+import hu.bme.cr.api.IRoundListener;
+import hu.bme.cr.dsl.ColumnarResultWriter;
+import hu.bme.cr.dsl.FileResultSink;
+import hu.bme.cr.dsl.IResultSink;
+import hu.bme.cr.dsl.MemoryResultSink;
+import hu.bme.cr.dsl.MongoResultSink;
+import hu.bme.cr.engine.CollisionResolver;
+import hu.bme.cr.engine.ContentionCache;
+import hu.bme.cr.engine.ContentionBuffer;
+import hu.bme.cr.engine.IBackoffSampler;
+import hu.bme.cr.engine.OrderStatisticsBackoffSampler;
+import hu.bme.cr.engine.PerRadioBackoffSampler;
+import hu.bme.cr.engine.SimulationState;
+import hu.bme.cr.engine.StrategySlotTask;
 import hu.bme.cr.entity.Channel;
 import hu.bme.cr.entity.CognitiveRadio;
 import hu.bme.cr.entity.CognitiveRadio.CognitiveRadioBuilder;
-import hu.bme.cr.strategies.MaxUtilityStrategy;
-import hu.bme.cr.strategies.RandomStrategy;
-import hu.bme.cr.strategies.RegretTrackingStrategy;
+import hu.bme.cr.jfr.PersistenceEvent;
+import hu.bme.cr.jfr.PhaseEvent;
+import hu.bme.cr.jfr.StrategySlotEvent;
+import hu.bme.cr.metrics.MetricsRegistry;
+import hu.bme.cr.metrics.MetricsSnapshot;
+import hu.bme.cr.metrics.Stage;
+import hu.bme.cr.random.IRandomSource;
+import hu.bme.cr.random.PhiloxRandomSource;
+import hu.bme.cr.random.SplitMixRandomSource;
+import hu.bme.cr.random.ThreadLocalRandomSource;
+import hu.bme.cr.scenario.RadioConfig;
+import hu.bme.cr.scenario.RadioConfig.RadioConfigBuilder;
+import hu.bme.cr.scenario.RadioConfig.StepSize;
+import hu.bme.cr.scenario.RadioConfig.StrategyType;
+import hu.bme.cr.scenario.RadioConfig.UtilityFunctionType;
+import hu.bme.cr.scenario.ScenarioConfig;
+import hu.bme.cr.scenario.ScenarioConfig.LogTarget;
+import hu.bme.cr.scenario.ScenarioConfig.ScenarioConfigBuilder;
 import hu.bme.cr.strategies.StrategySpace;
-import hu.bme.cr.uf.CompetitiveUtilityFunction;
-import hu.bme.cr.uf.MixedUtilityFunction;
-import hu.bme.cr.uf.UtilityFunctionParameters.UtilityFunctionParametersBuilder;
+import hu.bme.cr.trace.TraceLevel;
+import hu.bme.cr.trace.TraceWriter;
 import hu.bme.cr.utilities.ChannelUtility;
 import hu.bme.cr.utilities.CognitiveRadioUtility;
 import hu.bme.cr.utilities.ListUtility;
-import hu.bme.cr.utilities.UtilityConstants;
 
 public class CRSystem {
 	
@@ -40,11 +71,51 @@ public class CRSystem {
 	protected static final String SET_PHASE = "SET_PHASE";
 	protected static final String NORMAL_PHASE = "NORMAL_PHASE";
 	
-	protected DataStore ds;
+	protected static final String PARALLEL_PLAY = "PARALLEL";
+	
+	protected static final String ORDER_STATISTICS_SAMPLING = "ORDER_STATISTICS";
+	
+	protected static final String STREAMING_PERSISTENCE = "STREAMING";
+	
+	protected static final String SAMPLED_EVALUATION = "SAMPLED";
+	
+	protected static final String INCREMENTAL_EVALUATION = "INCREMENTAL";
+	
+	protected static final String NO_RESULT_SINK = "NONE";
+	
+	/**
+	 * Log of the simulations that do not log anything.
+	 */
+	private static final PrintStream NO_LOG = new PrintStream(new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	});
+	
+	/**
+	 * Destination of the persisted documents, opened on the first document,
+	 * null if nothing is persisted.
+	 */
+	protected IResultSink sink;
+	
+	/**
+	 * Columnar binary copy of the persisted phases, null if it is switched off.
+	 */
+	protected ColumnarResultWriter columns;
 	
 	private Document doc;
 	
 	private List<Document> phases;
+	
+	/**
+	 * True if every phase is persisted as a separate document once it is 
+	 * complete, false if the phases are collected into a single document.
+	 */
+	protected boolean streaming;
 
 	protected List<CognitiveRadio> radios;
 	
@@ -56,25 +127,169 @@ public class CRSystem {
 	
 	protected Scanner scanner;
 	
+	/**
+	 * Strategy space of the radios, shared with other simulations of the same size.
+	 */
+	protected StrategySpace strategySpace;
+	
 	protected int strategySpaceSize;
 	
+	protected int subslots;
+	
+	/**
+	 * Number of exploratory strategies evaluated by each radio per round
+	 * in sampled evaluation mode, 0 if every strategy is evaluated.
+	 */
+	protected int sampledStrategies;
+	
+	/**
+	 * Number of strategy slots played per round.
+	 */
+	protected int evaluationSlots;
+	
+	/**
+	 * Cached experiment results of the incremental evaluation mode, 
+	 * null in the other modes.
+	 */
+	protected ContentionCache cache;
+	
+	/**
+	 * Contention estimates of every radio for every strategy.
+	 */
+	protected SimulationState state;
+	
+	/**
+	 * Reused scratch storage of the contention experiments.
+	 */
+	protected ContentionBuffer buffer;
+	
+	/**
+	 * Scratch storage of the fork-join workers in parallel play mode.
+	 */
+	protected ThreadLocal<ContentionBuffer> workerBuffers;
+	
+	/**
+	 * Fork-join pool that plays the strategy slots in parallel play mode,
+	 * null in sequential play mode.
+	 */
+	protected ForkJoinPool pool;
+	
+	/**
+	 * True once the pool, the sink, the columnar results and the trace are released.
+	 */
+	private boolean shutDown;
+	
+	/**
+	 * Source of the back off times, keyed by the position of the draw.
+	 */
+	protected IRandomSource randomSource;
+	
+	protected long seed;
+	
+	/**
+	 * Samples the back off times and resolves the channel access of a subslot.
+	 */
+	protected IBackoffSampler sampler;
+	
+	/**
+	 * Index of the current round: 0 - init phase, 1 - set phase, r + 2 - normal phase r.
+	 */
+	protected long round;
+	
+	/**
+	 * Binary trace of the simulation events, disabled by default.
+	 */
+	protected TraceWriter trace;
+	
+	/**
+	 * Times the stages of the rounds, disabled unless the METRICS property is true.
+	 */
+	protected MetricsRegistry metrics;
+	
 	protected Properties props;
 	
+	/**
+	 * Receives every played round, null if nobody listens.
+	 */
+	protected IRoundListener roundListener;
+	
+	/**
+	 * Channels and radios of the simulation, read from the scanner by init if it is null.
+	 */
+	protected ScenarioConfig scenario;
+	
 	{
 		initProperties();
-		collisions = new HashMap<>(Integer.valueOf(props.getProperty("ROUNDS")) + 2);
-		ds = new DataStore();
-		doc = new Document();
-		phases = new ArrayList<>();
 	}
 	
 	public CRSystem() {
 		scanner = new Scanner(System.in);
+		initialize();
 	}
 	
 	public CRSystem(String simulationParams) {
 		scanner = new Scanner(simulationParams);
-		CognitiveRadio.getStrategySpace().clear();
+		initialize();
+	}
+	
+	/**
+	 * Creates a simulation that reads its init params from the given string
+	 * and uses the given properties instead of the ones in simulation.properties,
+	 * e.g. to set SUBSLOTS or SEED without editing the file.
+	 * 
+	 * @param simulationParams - answers to the init questions, one per line
+	 * @param overrides - properties to override
+	 */
+	public CRSystem(String simulationParams, Properties overrides) {
+		scanner = new Scanner(simulationParams);
+		props.putAll(overrides);
+		initialize();
+	}
+	
+	/**
+	 * Creates a simulation of the given scenario, which does not read anything
+	 * from the console. The properties of the scenario override the ones in 
+	 * simulation.properties.
+	 * 
+	 * @param scenario - channels, radios and properties of the simulation
+	 */
+	public CRSystem(ScenarioConfig scenario) {
+		props.putAll(scenario.getProperties());
+		this.scenario = scenario;
+		initialize();
+	}
+	
+	/**
+	 * Creates a simulation of the given scenario that persists its documents
+	 * to the given sink instead of the RESULT_SINK of the properties.
+	 * 
+	 * @param scenario - channels, radios and properties of the simulation
+	 * @param sink - destination of the documents, null to persist nothing
+	 */
+	public CRSystem(ScenarioConfig scenario, IResultSink sink) {
+		props.putAll(scenario.getProperties());
+		props.setProperty("RESULT_SINK", NO_RESULT_SINK);
+		this.scenario = scenario;
+		initialize();
+		this.sink = sink;
+	}
+	
+	/**
+	 * Sets up the parts of the simulation that only depend on the properties.
+	 */
+	private void initialize() {
+		collisions = new HashMap<>(Integer.valueOf(props.getProperty("ROUNDS")) + 2);
+		subslots = Integer.valueOf(props.getProperty("SUBSLOTS"));
+		initRandomSource();
+		metrics = Boolean.parseBoolean(props.getProperty("METRICS", "false")) 
+				? new MetricsRegistry() : MetricsRegistry.disabled();
+		sampler = ORDER_STATISTICS_SAMPLING.equals(props.getProperty("BACKOFF_SAMPLING")) 
+				? new OrderStatisticsBackoffSampler(metrics) : new PerRadioBackoffSampler(metrics);
+		trace = TraceWriter.disabled();
+		initResultSink();
+		streaming = STREAMING_PERSISTENCE.equals(props.getProperty("PERSISTENCE_MODE"));
+		doc = new Document();
+		phases = new ArrayList<>();
 	}
 
 	/*
@@ -97,6 +312,33 @@ public class CRSystem {
 		this.channels = channels;
 	}
 
+	public StrategySpace getStrategySpace() {
+		return strategySpace;
+	}
+
+	public IResultSink getSink() {
+		return sink;
+	}
+
+	public MetricsRegistry getMetrics() {
+		return metrics;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return number of normal phase rounds
+	 */
+	public int getRounds() {
+		return Integer.valueOf(props.getProperty("ROUNDS"));
+	}
+
+	public void setRoundListener(IRoundListener roundListener) {
+		this.roundListener = roundListener;
+	}
+
 	/**
 	 * Initialize the cognitive radio system.
 	 */
@@ -104,44 +346,117 @@ public class CRSystem {
 		String fileName = initSystem();
 		
 		initDoc(fileName);
+		
+		if (streaming && sink != null) {
+			sink.write(doc);
+		}
 	}
 	
+	/**
+	 * Builds the simulation from the scenario, which is read from
+	 * the scanner if the simulation was not created with one.
+	 * 
+	 * @return name of the simulation
+	 */
 	protected String initSystem() {
-		System.out.print("Where should I log? (1 - console, 2 - in text file): ");
-		String fileName = initLog(Integer.parseInt(scanner.nextLine()));
+		if (scenario == null) {
+			scenario = promptScenario();
+		}
+		
+		String fileName = scenario.getName() != null
+				? scenario.getName() : "simulation_" + new SimpleDateFormat("yyyy_MM_dd_HH_mm_ss").format(new Date());
+		
+		initLog(scenario.getLogTarget(), fileName);
+		initTrace(fileName);
+		initChannels(scenario.getTransmissionRates());
+		
+		// get the strategy space
+		strategySpace = StrategySpace.of(channels.size(), scenario.getMaxChannels());
+		strategySpaceSize = strategySpace.size();
+		
+		// fail before the arrays of the strategies are allocated, not with an OutOfMemoryError
+		long bytes = SimulationState.estimateBytes(scenario.getRadioNumber(), strategySpace);
+		if (bytes > Runtime.getRuntime().maxMemory()) {
+			throw new IllegalArgumentException("Simulation of " + scenario.getRadioNumber() + " radios and " 
+					+ strategySpaceSize + " strategies needs about " + (bytes >> 20) + " MB, more than the maximum heap size of " 
+					+ (Runtime.getRuntime().maxMemory() >> 20) + " MB!");
+		}
+		
+		initRadios(scenario.getRadios());
+		initEvaluation();
+		
+		int radioNumber = radios.size();
+		int channelNumber = channels.size();
+		
+		state = new SimulationState(radioNumber, strategySpace, sampledStrategies > 0);
+		buffer = new ContentionBuffer(radioNumber, channelNumber, subslots);
+		
+		if (PARALLEL_PLAY.equals(props.getProperty("PLAY_MODE"))) {
+			int parallelism = Integer.valueOf(props.getProperty("PARALLELISM", "0"));
+			
+			pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+			workerBuffers = ThreadLocal.withInitial(() -> new ContentionBuffer(radioNumber, channelNumber, subslots));
+		}
+		
+		initColumns(fileName);
+		
+		return fileName;
+	}
 	
+	/**
+	 * Reads the scenario from the scanner, prompting for every parameter.
+	 * 
+	 * @return the scenario
+	 */
+	private ScenarioConfig promptScenario() {
+		ScenarioConfigBuilder builder = new ScenarioConfigBuilder();
+		
+		System.out.print("Where should I log? (1 - console, 2 - in text file): ");
+		int n = Integer.parseInt(scanner.nextLine());
+		
+		System.out.print("Use automatic file naming? (y/n) ");
+		if (!"y".equals(scanner.nextLine())) {
+			System.out.print("Name of the file: ");
+			builder.setName(scanner.nextLine());
+		}
+		
+		if (n == 1) {
+			builder.setLogTarget(LogTarget.CONSOLE);
+		}
+		else if (n == 2) {
+			builder.setLogTarget(LogTarget.FILE);
+		}
+		else {
+			throw new IllegalArgumentException("Wrong logging output!");
+		}
+		
 		// read the number of channels and set params
 		System.out.print("Number of channels: ");
-		int channelNumber = Integer.valueOf(scanner.nextLine());
-		
-		initChannels(channelNumber);
+		promptChannels(builder, Integer.valueOf(scanner.nextLine()));
 		
 		// read the number of channels that the users can access
 		System.out.print("Maximum number of channels that users can use: ");
-		int maxChannels = Integer.valueOf(scanner.nextLine());
+		builder.setMaxChannels(Integer.valueOf(scanner.nextLine()));
 		System.out.println();
 		
-		CognitiveRadio.setMaxChannels(maxChannels);
-		
-		// calculate the strategy space
-		setStrategySpace(maxChannels, channelNumber);
-		strategySpaceSize = CognitiveRadio.getStrategySpace().size();
-		
 		// read the number of cognitive radio devices and set params
 		System.out.print("Number of cognitive radio devices: ");
-		int radioNumber = Integer.valueOf(scanner.nextLine());
-		
-		initRadios(radioNumber, channelNumber);	
+		promptRadios(builder, Integer.valueOf(scanner.nextLine()));
 		
-		return fileName;
+		return builder.build();
 	}
 	
 	protected void initDoc(String fileName) {
 		doc.append("name", fileName)
-			.append("subslots", Integer.valueOf(props.getProperty("SUBSLOTS")))
+			.append("subslots", subslots)
 			.append("radios", radios.size())
 			.append("channels", channels.size())
-			.append("strategySpaceSize", strategySpaceSize);
+			.append("strategySpaceSize", strategySpaceSize)
+			.append("randomSource", randomSource.toString())
+			.append("backoffSampling", sampler.toString())
+			.append("evaluationMode", props.getProperty("EVALUATION_MODE", "EXHAUSTIVE"))
+			.append("sampledStrategies", sampledStrategies)
+			.append("seed", seed);
 	}
 	
 	
@@ -154,14 +469,22 @@ public class CRSystem {
 	 * <ol>
 	 */
 	public void playInitPhase() {
+		PhaseEvent event = new PhaseEvent();
+		event.begin();
+		
+		long start = metrics.start();
 		out.println("****************");
 		out.println("** INIT PHASE **");
 		out.println("****************");
+		metrics.stop(Stage.LOGGING, start);
 		
 		// 1. Every radio choose a channel access (primary strategy) and a secondary strategy order
 		radios.stream().forEach(CognitiveRadio::playInitPhase);	
 
+		round = 0;
 		play(INIT_PHASE);
+		
+		commitPhase(event, INIT_PHASE);
 	}
 	
 	/**
@@ -172,18 +495,26 @@ public class CRSystem {
 	 * <ol>
 	 */
 	public void playSetPhase() {
+		PhaseEvent event = new PhaseEvent();
+		event.begin();
+		
 		radios.stream().forEach(CognitiveRadio::playSetPhase);
-		radios.stream().forEach(radio -> out.println("Regrets: " + ListUtility.formatDoubleList(radio.getRegrets(), reg -> String.format("%.3f", reg))));
-		persist(INIT_PHASE);
-		radios.stream().forEach(radio -> radio.getContentions().stream().forEach(List::clear));
+		traceRegrets();
+		flush(INIT_PHASE, () -> persist(INIT_PHASE));
+		clearContentions();
 		
+		long start = metrics.start();
 		out.println();
 		out.println();
 		out.println("****************");
 		out.println("** SET PHASE  **");
 		out.println("****************");
+		metrics.stop(Stage.LOGGING, start);
 		
+		round = 1;
 		play(SET_PHASE);
+		
+		commitPhase(event, SET_PHASE);
 	}
 	
 	/**
@@ -196,55 +527,173 @@ public class CRSystem {
 	 * @param number of the round
 	 */
 	public void playDecidePhase(int r) {
-		radios.stream().forEach(radio -> radio.playDecidePhase(r + 2));
-		radios.stream().forEach(radio -> out.println("Regrets: " + ListUtility.formatDoubleList(radio.getRegrets(), reg -> String.format("%.3f", reg))));
+		PhaseEvent event = new PhaseEvent();
+		event.begin();
 		
-		if (r == 0) {
-			persist(SET_PHASE);
-		}
-		else {
-			persist(NORMAL_PHASE + "_" + r);
-		}
+		radios.stream().forEach(radio -> {
+			long start = metrics.start();
+			radio.playDecidePhase(r + 2);
+			metrics.stop(Stage.DECISION, start);
+		});
+		traceRegrets();
 		
-		radios.stream().forEach(radio -> radio.getContentions().stream().forEach(List::clear));
+		String phase = r == 0 ? SET_PHASE : NORMAL_PHASE + "_" + r;
+		flush(phase, () -> persist(phase));
+		clearContentions();
 		
+		long start = metrics.start();
 		out.println();
 		out.println();
 		out.println("***************************");
 		out.println("** NORMAL PHASE, ROUND " + r + "**");
 		out.println("***************************");
+		metrics.stop(Stage.LOGGING, start);
+		
+		round = r + 2;
+		String key = NORMAL_PHASE + "_" + String.format("%03d", r);
+		play(key);
 		
-		play(NORMAL_PHASE + "_" + String.format("%03d", r));
+		commitPhase(event, key);
+	}
+	
+	/**
+	 * Resets the contention estimates at the end of a decision period, 
+	 * except in incremental evaluation mode, where the cached estimates
+	 * are reused in the next period.
+	 */
+	protected void clearContentions() {
+		if (cache == null) {
+			state.clearContentions();
+		}
 	}
 	
 	/**
 	 * Ends the game by persisting important 
-	 * data to MongoDB database ("thesis" database, 
-	 * "simulations" collection) and by closing output.
+	 * data to the result sink (by default MongoDB, "thesis" 
+	 * database, "simulations" collection) and by closing output.
+	 * 
+	 * In streaming persistence mode the simulation document is written 
+	 * by init and only the last phase document is left to write.
+	 * 
+	 * With metrics the snapshot of the stage timings is written 
+	 * to the log and to the result sink as a separate document.
+	 * 
+	 * @throws UncheckedIOException - if the result sink could not persist the documents
 	 */
 	public void endGame() {
-		List<Document> collisionsList = collisions.entrySet().stream().map(c -> new Document().append("name", c.getKey()).append("number", c.getValue())).collect(Collectors.toList());
-		persist(NORMAL_PHASE + "_" + (Integer.valueOf(props.getProperty("ROUNDS")) - 1));
-		doc.append("phases", phases)
-			.append("collisions", collisionsList);
-		ds.getDocuments().insertOne(doc);
-		ds.getClient().close();
+		String lastPhase = NORMAL_PHASE + "_" + (Integer.valueOf(props.getProperty("ROUNDS")) - 1);
 		
-		System.out.println("End of Simulation");
+		flush(lastPhase, () -> {
+			if (streaming) {
+				persist(lastPhase);
+			}
+			else {
+				List<Document> collisionsList = getCollisionDocuments();
+				persist(lastPhase);
+				doc.append("phases", phases)
+					.append("collisions", collisionsList);
+				sink.write(doc);
+			}
+		});
+		
+		writeMetrics(doc.getString("name"));
+		
+		shutdown();
+		
+		if (scenario.getLogTarget() != LogTarget.NONE) {
+			System.out.println("End of Simulation");
+		}
 		
 		out.println();
 		out.println("***********************");
 		out.println("** End of Simulation **");
 		out.println("***********************");
-		out.close();	
+		closeLog();
+	}
+	
+	/**
+	 * Plays every strategy slot, i.e. a contention experiment
+	 * where each radio plays the strategy of its given slot,
+	 * either one after another or spread across the fork-join pool
+	 * in parallel play mode (steps described in playStrategy method).
+	 * 
+	 * In sampled evaluation mode each radio only evaluates the strategy
+	 * to play and the sampled exploratory ones, and the strategies decide
+	 * on the running utility estimates of the SimulationState.
+	 * 
+	 * @param key - key to store the number of collisions
+	 */
+	protected void play(String key) {
+		double[] transmissionRates = channels.stream().mapToDouble(Channel::getTransmissionRate).toArray();
+		
+		trace.phase(round, key);
+		
+		if (sampledStrategies > 0) {
+			radios.stream().forEach(r -> r.sampleStrategies(sampledStrategies));
+		}
+		
+		if (pool == null) {
+			for (int s = 0; s < evaluationSlots; s++) {
+				collisions.put(key + "_" + s, playSlot(s, buffer, transmissionRates));
+			}
+		}
+		else {
+			int[] collisionNumbers = new int[evaluationSlots];
+			
+			pool.invoke(new StrategySlotTask(0, evaluationSlots, 
+					s -> collisionNumbers[s] = playSlot(s, workerBuffers.get(), transmissionRates)));
+			
+			for (int s = 0; s < evaluationSlots; s++) {
+				collisions.put(key + "_" + s, collisionNumbers[s]);
+			}
+		}
+		
+		if (sampledStrategies > 0) {
+			double probability = (double) sampledStrategies / (strategySpaceSize - 1);
+			
+			for (int k = 0; k < radios.size(); k++) {
+				CognitiveRadio r = radios.get(k);
+				state.estimateUtilities(k, r.getUtilities(), r.getAccessDecisions(), probability);
+			}
+		}
+		
+		if (trace.isEnabled(TraceLevel.SUMMARY)) {
+			long start = metrics.start();
+			for (int k = 0; k < radios.size(); k++) {
+				trace.utilities(round, k, radios.get(k).getUtilities());
+			}
+			metrics.stop(Stage.LOGGING, start);
+		}
+	}
+	
+	/**
+	 * Plays the strategy slot, recorded as a JFR event.
+	 */
+	private int playSlot(int s, ContentionBuffer buffer, double[] transmissionRates) {
+		StrategySlotEvent event = new StrategySlotEvent();
+		event.begin();
+		
+		int collisionNumber = playStrategy(s, buffer, transmissionRates);
+		
+		if (event.shouldCommit()) {
+			event.round = round;
+			event.slot = s;
+			event.radios = radios.size();
+			event.channels = channels.size();
+			event.subslots = subslots;
+			event.collisions = collisionNumber;
+			event.commit();
+		}
+		
+		return collisionNumber;
 	}
 	
 	/**
 	 * Steps: 
 	 * <ol>
 	 * <li>Channel access in each subslot by generating a random backoff time.</li>
-	 * <li>Calculate channel access probability by backoff time and add it to
-	 * CognitiveRadios captureProbabilities list.</li>
+	 * <li>Calculate channel access probability by backoff time and store it in
+	 * the ContentionBuffer.</li>
 	 * <li>Check if there was a collision on the channel at the given subslot 
 	 * according to the backoff times.</li>
 	 * <li>Calculate user estimate for each CognitiveRadio.</li>
@@ -253,110 +702,136 @@ public class CRSystem {
 	 * <li>Calculate utility for each CognitiveRadio.</li>
 	 * </ol>
 	 * 
-	 * @param key - key to store the number of collisions
+	 * The experiment only writes the utilities and contentions of the strategies 
+	 * played in slot s, so different slots can be played at the same time
+	 * as long as each of them uses its own buffer.
+	 * 
+	 * In incremental evaluation mode only the radios whose strategy has new
+	 * contender sets calculate their utilities again, and the slot is not 
+	 * played at all if every result of it is cached (see ContentionCache).
+	 * 
+	 * @param s - index of the strategy slot
+	 * @param buffer - scratch storage of the experiment
+	 * @param transmissionRates - transmission rates of the channels
+	 * @return number of collisions
 	 */
-	protected void play(String key) {
+	protected int playStrategy(int s, ContentionBuffer buffer, double[] transmissionRates) {
+		if (cache != null) {
+			int[] strategies = buffer.getStrategies();
+			for (int k = 0; k < radios.size(); k++) {
+				strategies[k] = radios.get(k).getAccessDecisions().get(s);
+			}
+			
+			if (!cache.update(s, strategies)) {
+				return cache.getCollisions(s);
+			}
+		}
+		
+		int[] outcomes = buffer.getOutcomes();
+		int collisionNumber = 0;
+		boolean traceSubslots = trace.isEnabled(TraceLevel.SUBSLOT);
+		
+		buffer.resetAccess();
+		for (int k = 0; k < radios.size(); k++) {
+			int strategy = radios.get(k).getAccessDecisions().get(s);
+			
+			if (channels.size() <= Long.SIZE) {
+				buffer.setAccess(k, strategySpace.getMask(strategy));
+			}
+			else {
+				buffer.setAccess(k, strategySpace.getBitSet(strategy));
+			}
+		}
 		
-		// play every strategy
 		// 1. Channel access in each subslot by generating a random backoff time.
-		// 2. Calculate channel access probability by backoff time and add it to CognitiveRadios captureProbabilities list.
-		// 3. Check if there was a collision on the channel at the given subslot according to the backoff times.
-		for (int s = 0; s < strategySpaceSize; s++) {
-			collisions.put(key + "_" + s, 0);
+		// 2. Calculate channel access probability by backoff time and store it in the ContentionBuffer.
+		// 3. Check if there was a collision on the channels at the given subslot according to the backoff times.
+		for (int j = 0; j < subslots; j++) {
+			sampler.sample(buffer, randomSource, round, s, j);
 			
 			for (int i = 0; i < channels.size(); i++) {
-				out.println();
-				out.println("Channel " + (i + 1) + ":");
-				
-				for (int j = 0; j < Integer.valueOf(props.getProperty("SUBSLOTS")); j++) {
-					List<Double> backoffTimes = new ArrayList<>(radios.size());
-					
-					for (CognitiveRadio r : radios) {
-						
-						// if r can access given channel than we generate a backoff time 
-						if (CognitiveRadio.getStrategySpace().get(r.getAccessDecisions().get(s)).get(i) == true) {
-							double backOff = CognitiveRadioUtility.generateBackOff(UtilityConstants.MAX_BACKOFF);
-							backoffTimes.add(backOff);
-							
-							r.getCaptureProbabilities().get(i).add(ChannelUtility.calculateChannelCaptureProbability(backOff));
-						}
-						// if not than we add NaN to the list
-						else {
-							backoffTimes.add(Double.NaN);
-							r.getCaptureProbabilities().get(i).add(0.0);
-						}
-					}	
-					
-					// check if there was a collision on the channel
-					int minIndex = findMinIndex(backoffTimes);
+				if (outcomes[i] == CollisionResolver.COLLISION) {
+					collisionNumber++;
 					
-					if (minIndex == -1) {
-						collisions.replace(key + "_" + s, Math.incrementExact(collisions.get(key + "_" + s)));
+					if (cache != null) {
+						cache.countCollision(s, i);
 					}
-					
-					for (int k = 0; k < radios.size(); k++) {
-						radios.get(k).getCaptured().get(i).add(k == minIndex);
-					}
-				}				
-			}
-			
-			// 4. Calculate user estimate (contentions) for each CognitiveRadio.
-			// 5. Calculate channel capture probability for each CognitiveRadio using user estimate.
-			// 6. Calculate channel collision probability for each CognitiveRadio using user estimate.
-			// 7. Calculate utility for each CognitiveRadio.
-			for (CognitiveRadio r : radios) {
-				List<Double> contentions = r.getContentions().get(r.getAccessDecisions().get(s));
-				List<Double> captures = new ArrayList<>(channels.size());
-				List<Double> collisionsProbabilities = new ArrayList<>(channels.size());
-				
-				for (int i = 0; i < r.getCaptured().size(); i++) {
-					double contention = ChannelUtility.calculateUserEstimate(r.getCaptured().get(i), r.getCaptureProbabilities().get(i));
-					contentions.add(contention);
-					captures.add(CognitiveRadioUtility.calculateCaptureProbability(contention));
-					Collections.replaceAll(captures, Double.NaN, 0.0);
-					collisionsProbabilities.add(CognitiveRadioUtility.calculateCollisionProbability(contention));
-					Collections.replaceAll(collisionsProbabilities, Double.NaN, 0.0);
+				}
+				else if (outcomes[i] != CollisionResolver.IDLE) {
+					buffer.setCaptured(outcomes[i], i, j);
 				}
 				
-				Collections.replaceAll(contentions, Double.NaN, 0.0);
-				
-				UtilityFunctionParametersBuilder builder = new UtilityFunctionParametersBuilder();
-				builder.setTransMissionRates(channels.stream().map(Channel::getTransmissionRate).collect(Collectors.toList()));
-				builder.setAccessDecisions(CognitiveRadio.getStrategySpace().get(r.getAccessDecisions().get(s)));
-				builder.setContentionLevel(contentions);
-				builder.setCaptureProbabilities(captures);
-				builder.setCollisionProbabilities(collisionsProbabilities);
-				builder.setDemand(r.getDemand());
+				if (traceSubslots) {
+					trace.subslot(round, s, j, i, outcomes[i], buffer.getFirstBackoffs()[i], buffer.getSecondBackoffs()[i]);
+				}
+			}
+		}
+		
+		// 4. Calculate user estimate (contentions) for each CognitiveRadio.
+		// 5. Calculate channel capture probability for each CognitiveRadio using user estimate.
+		// 6. Calculate channel collision probability for each CognitiveRadio using user estimate.
+		// 7. Calculate utility for each CognitiveRadio.
+		for (int k = 0; k < radios.size(); k++) {
+			// the radio keeps its cached utility and contentions
+			if (cache != null && !cache.isChanged(s, k)) {
+				continue;
+			}
+			
+			long start = metrics.start();
+			CognitiveRadio r = radios.get(k);
+			int strategyIndex = r.getAccessDecisions().get(s);
+			boolean[] access = buffer.getRadioAccess();
+			double[] contentions = buffer.getContentions();
+			double[] captures = buffer.getChannelCaptureProbabilities();
+			double[] collisionsProbabilities = buffer.getCollisionProbabilities();
+			
+			for (int i = 0; i < channels.size(); i++) {
+				double contention = ChannelUtility.calculateUserEstimate(buffer.getCaptured(), buffer.getCaptureProbabilities(), buffer.index(k, i, 0), subslots);
+				double capture = CognitiveRadioUtility.calculateCaptureProbability(contention);
+				double collision = CognitiveRadioUtility.calculateCollisionProbability(contention);
 				
-				// calculate utility							
-				r.getUtilities().set(r.getAccessDecisions().get(s), r.calculateUtility(builder.build()));
+				contention = Double.isNaN(contention) ? 0.0 : contention;
+				access[i] = buffer.getAccess()[i * radios.size() + k];
+				contentions[i] = contention;
+				captures[i] = Double.isNaN(capture) ? 0.0 : capture;
+				collisionsProbabilities[i] = Double.isNaN(collision) ? 0.0 : collision;
 			}
 			
-			// log
-			printCognitiveRadioData(s);
-			out.println("Number of collisions in " + key + "_" + s + " phase: " + collisions.get(key + "_" + s));
-
-			radios.stream().forEach(CRSystem::clearRadio);
+			state.setContentions(k, strategyIndex, contentions, access);
+			start = metrics.lap(Stage.USER_ESTIMATION, start);
+			
+			// calculate utility							
+			r.getUtilities()[strategyIndex] = r.calculateUtility(transmissionRates, access, 
+					contentions, captures, collisionsProbabilities);
+			metrics.stop(Stage.UTILITY, start);
 		}
 		
-		for (CognitiveRadio r : radios) {
-			out.println("Utilities: " + ListUtility.formatDoubleList(r.getUtilities(), u -> String.format("%.3f", u)));
+		if (trace.isEnabled(TraceLevel.STRATEGY)) {
+			long start = metrics.start();
+			traceCognitiveRadioData(s, buffer);
+			trace.strategy(round, s, collisionNumber);
+			metrics.stop(Stage.LOGGING, start);
 		}
+
+		buffer.clear();
+		
+		return collisionNumber;
 	}
 	
 	protected void persist(String phase) {
 		Document phaseDoc = new Document();
 		
 		List<Document> radioDocs = new ArrayList<>();
-		for (CognitiveRadio r : radios) {
+		for (int i = 0; i < radios.size(); i++) {
+			CognitiveRadio r = radios.get(i);
 			Document radioDoc = new Document();
 			radioDoc
-				.append("radio", radios.indexOf(r))
+				.append("radio", i)
 				.append("accessDecisions", r.getAccessDecisions())
-				.append("utilities", r.getUtilities())
-				.append("regrets", r.getRegrets())
+				.append("utilities", ListUtility.toList(r.getUtilities()))
+				.append("regrets", ListUtility.toList(r.getRegrets()))
 				.append("demand", r.getDemand())
-				.append("contentions", new ArrayList<List<Double>>(r.getContentions()))
+				.append("contentions", state.getContentions(i))
 				.append("utilityFunction", r.getUtilityFunction().getType())
 				.append("rates", r.getUtilityFunction().getRates())
 				.append("strategy", r.getStrategy().toString());
@@ -368,236 +843,496 @@ public class CRSystem {
 			.append("radios", radioDocs)
 			.append("phase", phase);
 		
-		phases.add(phaseDoc);
+		writeColumns(phase);
+		
+		if (streaming) {
+			// the collisions played since the previous phase document
+			phaseDoc
+				.append("name", doc.getString("name"))
+				.append("collisions", getCollisionDocuments());
+			collisions.clear();
+			
+			sink.write(phaseDoc);
+		}
+		else {
+			phases.add(phaseDoc);
+		}
 	}
 	
 	/**
-	 * Prints CognitiveRadio data to output.
+	 * Writes the utilities, regrets, contentions and access decisions
+	 * of the phase to the columnar result file if it is switched on.
+	 * 
+	 * @param phase - name of the phase
+	 * @throws UncheckedIOException - if the phase can not be written, 
+	 * 			the file is left incomplete
 	 */
-	private void printCognitiveRadioData(int strategyIndex) {
-		for (CognitiveRadio r : radios) {
-			out.println();
-			out.println("Radio " + radios.indexOf(r) + ": ");
-			
-			out.println("Channel access decision: ");
-			out.println(CognitiveRadio.getStrategySpace().get(r.getAccessDecisions().get(strategyIndex)));
-			out.println();
-			
-			out.println("Channel captures (Subslot, Channel)");
-			r.getCaptured().stream().forEach(out::println);
-			out.println();
-			
-			out.println("Channel capture probabilities (Subslot, Channel)");
-			r.getCaptureProbabilities().stream().forEach(cps -> out.println(ListUtility.formatDoubleList(cps, cp -> String.format("%.3f", cp))));
-			out.println();
-			
-			out.println("User estimate on strategy " + r.getAccessDecisions().get(strategyIndex));
-			out.println(ListUtility.formatDoubleList(r.getContentions().get(r.getAccessDecisions().get(strategyIndex)), c -> String.format("%.3f", c)));
-			out.println();
-			
-			out.println("Utility on strategy " + r.getAccessDecisions().get(strategyIndex) + ": " + r.getUtilities().get(r.getAccessDecisions().get(strategyIndex)));
+	protected void writeColumns(String phase) {
+		if (columns == null) {
+			return;
+		}
+		
+		List<double[]> utilities = radios.stream().map(CognitiveRadio::getUtilities).collect(Collectors.toList());
+		List<double[]> regrets = radios.stream().map(CognitiveRadio::getRegrets).collect(Collectors.toList());
+		List<List<Integer>> decisions = radios.stream().map(CognitiveRadio::getAccessDecisions).collect(Collectors.toList());
+		
+		try {
+			columns.writePhase(phase, utilities, regrets, decisions, state);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not write the columns of phase " + phase + "!", e);
 		}
 	}
 	
 	/**
-	 * Returns the index of the min element or
-	 * -1 if there was a collision on the channel or
-	 * -2 if the channel is unused.
+	 * Persists a phase, timed by the metrics and recorded as a JFR event.
+	 * Without a result sink only the columnar results are written.
 	 * 
-	 * @param backoffTimes
-	 * @return index of the min element
+	 * @param phase - name of the phase
+	 * @param persistence - writes the phase to the result sink
 	 */
-	private int findMinIndex(List<Double> backoffTimes) {
-		if (backoffTimes.size() == 1) {
-			out.println("NO COLLISION - 1 user");
-			return 0;
-		}
+	protected void flush(String phase, Runnable persistence) {
+		PersistenceEvent event = new PersistenceEvent();
+		event.begin();
 		
-		List<Double> sortedBackOffs = new ArrayList<>(backoffTimes);
-		Collections.sort(sortedBackOffs);
+		long start = metrics.start();
+		if (sink != null) {
+			persistence.run();
+		}
+		else {
+			writeColumns(phase);
+		}
+		metrics.stop(Stage.PERSISTENCE, start);
 		
-		if (sortedBackOffs.get(0).equals(Double.NaN)) {
-			out.println("NO COLLISION - No radios attempt to access the channel!");
-			return -2;
+		if (event.shouldCommit()) {
+			event.phase = phase;
+			event.radios = radios.size();
+			event.channels = channels.size();
+			event.commit();
 		}
-		else if (sortedBackOffs.get(1).equals(Double.NaN)) {
-			out.println("NO COLLISION - Only one radio attempts to access the channel!");
-			return backoffTimes.indexOf(sortedBackOffs.get(0));
+	}
+	
+	/**
+	 * Completes the JFR event of a phase with the collisions of its strategy slots
+	 * and passes the round to the round listener.
+	 * 
+	 * @param event - event of the phase, begun at the start of the phase
+	 * @param key - key of the collisions of the phase
+	 */
+	private void commitPhase(PhaseEvent event, String key) {
+		if (!event.shouldCommit() && roundListener == null) {
+			return;
 		}
 		
-		int minIndex = backoffTimes.indexOf(sortedBackOffs.get(0));
-		int min2Index = backoffTimes.indexOf(sortedBackOffs.get(1));
+		long collisionNumber = 0;
+		for (int s = 0; s < evaluationSlots; s++) {
+			collisionNumber += collisions.getOrDefault(key + "_" + s, 0);
+		}
 		
-		if (backoffTimes.get(minIndex) + UtilityConstants.MODE_SWITCH_TIME < backoffTimes.get(min2Index)) {
-			out.println("NO COLLISION - " + ListUtility.formatDoubleList(backoffTimes, b -> String.format("%.3f", b)));
-			return minIndex;
+		if (roundListener != null) {
+			roundListener.onRound(this, round, collisionNumber);
 		}
 		
-		out.println("COLLISION - 1st backoff: " + String.format("%.3f", backoffTimes.get(minIndex)) + 
-				", 2nd backoff: " + String.format("%.3f", backoffTimes.get(min2Index)));
-		return -1;
+		if (event.shouldCommit()) {
+			event.phase = key;
+			event.round = round;
+			event.radios = radios.size();
+			event.channels = channels.size();
+			event.strategySpaceSize = strategySpaceSize;
+			event.collisions = collisionNumber;
+			event.commit();
+		}
 	}
 	
 	/**
-	 * Setting initial parameters of n Cognitive Radios.
+	 * Writes the snapshot of the stage timings to the log and to 
+	 * the result sink if the metrics are switched on.
 	 * 
-	 * @param n - number of CognitiveRadio entities to initialize
-	 * @param channelNumber - number of Channels in the system
+	 * @param name - name of the simulation
 	 */
-	private void initRadios(int n, int channelNumber) {
-		radios = new ArrayList<>(n);
+	protected void writeMetrics(String name) {
+		if (!metrics.isEnabled()) {
+			return;
+		}
 		
-		System.out.print("Same parameters on every radio? (y/n) ");
-		if ("y".equals(scanner.nextLine())) {
-			CognitiveRadioBuilder crb = initRadioParameters(channelNumber);
+		MetricsSnapshot snapshot = metrics.snapshot();
+		
+		out.println();
+		out.println(snapshot);
+		
+		if (sink != null) {
+			sink.write(new Document("name", name)
+					.append("metrics", snapshot.toDocument()));
+		}
+	}
+	
+	private List<Document> getCollisionDocuments() {
+		return collisions.entrySet().stream().map(c -> new Document().append("name", c.getKey()).append("number", c.getValue())).collect(Collectors.toList());
+	}
+	
+	/**
+	 * Traces the CognitiveRadio data of the given strategy slot.
+	 */
+	private void traceCognitiveRadioData(int s, ContentionBuffer buffer) {
+		for (int k = 0; k < radios.size(); k++) {
+			CognitiveRadio r = radios.get(k);
+			int strategyIndex = r.getAccessDecisions().get(s);
 			
-			for (int i = 0; i < n; i++) {
-				// captureProbabilities
-				crb.setCaptureProbabilities(ListUtility.getInitial2DList(Double.class, channelNumber, Integer.valueOf(props.getProperty("SUBSLOTS"))));
-				
-				// captured
-				crb.setCaptured(ListUtility.getInitial2DList(Boolean.class, channelNumber, Integer.valueOf(props.getProperty("SUBSLOTS"))));
-				
-				// contentions
-				crb.setContentions(ListUtility.getInitial2DList(Double.class, strategySpaceSize, channelNumber));
-				
-				// utilities
-				crb.setUtilities(ListUtility.fillListWithNValues(0.0, strategySpaceSize));
-				
-				// regrets
-				crb.setRegrets(new ArrayList<>(strategySpaceSize));
-				
-				radios.add(crb.build());				
+			trace.radio(round, s, k, strategyIndex, r.getUtilities()[strategyIndex], buffer, state);
+		}
+	}
+	
+	/**
+	 * Traces the regrets of every CognitiveRadio.
+	 */
+	private void traceRegrets() {
+		if (trace.isEnabled(TraceLevel.SUMMARY)) {
+			long start = metrics.start();
+			for (int k = 0; k < radios.size(); k++) {
+				trace.regrets(round, k, radios.get(k).getRegrets());
 			}
+			metrics.stop(Stage.LOGGING, start);
+		}
+	}
+	
+	/**
+	 * Creates the CognitiveRadio entities of the scenario.
+	 * 
+	 * @param configs - parameters of every radio
+	 */
+	private void initRadios(List<RadioConfig> configs) {
+		radios = new ArrayList<>(configs.size());
+		
+		for (int i = 0; i < configs.size(); i++) {
+			RadioConfig config = configs.get(i);
+			CognitiveRadioBuilder crb = new CognitiveRadioBuilder();
+			crb.setStrategySpace(strategySpace);
+			crb.setDemand(config.getDemand());
+			crb.setStrategy(config.createStrategy());
+			crb.setUtilityFunction(config.createUtilityFunction());
+			
+			// utilities
+			crb.setUtilities(new double[strategySpaceSize]);
+			
+			// regrets
+			crb.setRegrets(new double[0]);
+			
+			crb.setRandom(new Random(SplitMixRandomSource.streamSeed(seed, i)));
+			
+			radios.add(crb.build());
+		}
+	}
+	
+	/**
+	 * Reads the parameters of n Cognitive Radios.
+	 * 
+	 * @param builder - builder of the scenario
+	 * @param n - number of CognitiveRadio entities
+	 */
+	private void promptRadios(ScenarioConfigBuilder builder, int n) {
+		System.out.print("Same parameters on every radio? (y/n) ");
+		if ("y".equals(scanner.nextLine())) {
+			builder.addRadios(n, promptRadio("users"));
 		}
 		else {
 			for (int i = 0; i < n; i++) {
-				CognitiveRadioBuilder crb = new CognitiveRadioBuilder();
-				
-				// get and set demand
-				System.out.print("Demand of user " + (i + 1) + " in bit/slot: ");
-				crb.setDemand(scanner.nextDouble());
-				
-				// get and set strategy
-				System.out.print("Strategy of user " + (i + 1) + " (1 - regret tracking, 2 - max utility, 3 - random): ");
-				setStrategy(crb, scanner.nextInt());
-				
-				// get and set utility function
-				System.out.print("Utility function of user " + (i + 1) + " (1 - competitive, 2 - mixed): ");
-				setUtilityFunction(crb, scanner.nextInt());
-				
-				System.out.println();
-				
-				// captureProbabilities
-				crb.setCaptureProbabilities(ListUtility.getInitial2DList(Double.class, channelNumber, Integer.valueOf(props.getProperty("SUBSLOTS"))));
-				
-				// captured
-				crb.setCaptured(ListUtility.getInitial2DList(Boolean.class, channelNumber, Integer.valueOf(props.getProperty("SUBSLOTS"))));
-				
-				// contentions
-				crb.setContentions(ListUtility.getInitial2DList(Double.class, strategySpaceSize, channelNumber));
-				
-				// utilities
-				crb.setUtilities(ListUtility.fillListWithNValues(0.0, strategySpaceSize));
-				
-				// regrets
-				crb.setRegrets(new ArrayList<>(strategySpaceSize));
-				
-				radios.add(crb.build());
-			}				
+				builder.addRadio(promptRadio("user " + (i + 1)));
+			}
 		}
-		
 	}
 
 	/**
-	 * Sets initial parameters of Channel entities.
+	 * Creates the Channel entities of the scenario.
 	 * 
-	 * @param n - number of channels to initialize
+	 * @param transmissionRates - transmission rate of every channel
 	 */
-	private void initChannels(int n) {
-		channels = new ArrayList<>(n);
+	private void initChannels(List<Double> transmissionRates) {
+		channels = new ArrayList<>(transmissionRates.size());
 		
+		for (double transmissionRate : transmissionRates) {
+			channels.add(new Channel(transmissionRate, 0.0, false));
+		}
+	}
+	
+	/**
+	 * Reads the parameters of n channels.
+	 * 
+	 * @param builder - builder of the scenario
+	 * @param n - number of channels
+	 */
+	private void promptChannels(ScenarioConfigBuilder builder, int n) {
 		System.out.print("Same parameters on every channel? (y/n) ");
 		if ("y".equals(scanner.nextLine())) {
 			// get transmission rate
 			System.out.print("Transmission rate of the channels: ");
-			double transmissionRate = Double.valueOf(scanner.nextLine());
-			
-			for (int i = 0; i < n; i++) {
-				channels.add(new Channel(transmissionRate, 0.0, false));
-			}
+			builder.addChannels(n, Double.valueOf(scanner.nextLine()));
 		}
 		else {
 			for (int i = 0; i < n; i++) {
 				// get transmission rate
 				System.out.print("Transmission rate of channel " + (i + 1) + ": ");
-				double transmissionRate = Double.valueOf(scanner.nextLine());
+				builder.addChannel(Double.valueOf(scanner.nextLine()));
 				
 				// get frequency 
 //			System.out.print("Frequency of channel " + (i + 1) + ": ");
 //			double frequency = scanner.nextDouble();
 				
 				System.out.println();
-				
-				// set Channel parameters and add it to channels list 
-				channels.add(new Channel(transmissionRate, 0.0, false));
-			}			
+			}
 		}
+	}
+	
+	/**
+	 * Releases everything the simulation holds, i.e. the fork-join pool,
+	 * the result sink, the columnar results, the trace and the log. 
+	 * endGame releases them at the end of the simulation, the embedding
+	 * code calls this method if the simulation is stopped before, e.g. 
+	 * because a phase failed. Does nothing if they are already released.
+	 * A failure of the result sink is only printed, as the simulation
+	 * already failed.
+	 */
+	public void close() {
+		IOException failure = release();
 		
+		if (failure != null) {
+			failure.printStackTrace();
+		}
+		
+		closeLog();
 	}
 	
 	/**
-	 * Sets where to print results.
+	 * Shuts down the fork-join pool of the parallel play mode, closes
+	 * the result sink and the columnar results and writes out the rest of the trace.
+	 * Does nothing if it was called before.
 	 * 
-	 * @param n
+	 * @throws UncheckedIOException - if the result sink could not persist the documents,
+	 * 			e.g. a bulk insert failed, everything else is released anyway
 	 */
-	private String initLog(int n) {
-		System.out.print("Use automatic file naming? (y/n) ");
+	protected void shutdown() {
+		IOException failure = release();
 		
-		String fileName = null;
+		if (failure != null) {
+			throw new UncheckedIOException("Could not persist the simulation!", failure);
+		}
+	}
+	
+	/**
+	 * Releases the pool, the sink, the columnar results and the trace.
+	 * 
+	 * @return failure of closing the result sink, null if there was none
+	 */
+	private IOException release() {
+		if (shutDown) {
+			return null;
+		}
 		
-		if ("y".equals(scanner.nextLine())) {
-			fileName = "simulation_" + new SimpleDateFormat("yyyy_MM_dd_HH_mm_ss").format(new Date());			
+		shutDown = true;
+		IOException failure = null;
+		
+		if (pool != null) {
+			pool.shutdown();
 		}
-		else {
-			System.out.print("Name of the file: ");
-			fileName = scanner.nextLine();
+		
+		if (sink != null) {
+			try {
+				sink.close();
+			} catch (IOException e) {
+				failure = e;
+			}
 		}
-
-		if (n == 1) {
+		
+		if (columns != null) {
+			try {
+				columns.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		try {
+			trace.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		
+		return failure;
+	}
+	
+	/**
+	 * Closes the log, unless it is the console, which
+	 * is shared by every simulation of the JVM.
+	 */
+	protected void closeLog() {
+		if (out == System.out || out == NO_LOG) {
+			out.flush();
+		}
+		else if (out != null) {
+			out.close();
+			out = NO_LOG;
+		}
+	}
+	
+	/**
+	 * Sets where to print results.
+	 * 
+	 * @param target - console or text file
+	 * @param fileName - name of the simulation
+	 */
+	private void initLog(LogTarget target, String fileName) {
+		if (target == LogTarget.NONE) {
+			out = NO_LOG;
+		}
+		else if (target == LogTarget.CONSOLE) {
 			out = System.out;
 		}
-		else if (n == 2) {
+		else {
 			try {
 				out = new PrintStream(new File(props.getProperty("SAVE_PATH") + fileName + ".txt"));	
 			} catch (FileNotFoundException e) {
 				e.printStackTrace();
 			}
 		}
-		else {
-			throw new IllegalArgumentException("Wrong logging output!");
+	}
+	
+	/**
+	 * Opens the binary trace next to the text log if 
+	 * the TRACE_LEVEL property is not OFF.
+	 * 
+	 * @param fileName - name of the simulation
+	 */
+	private void initTrace(String fileName) {
+		TraceLevel level = TraceLevel.valueOf(props.getProperty("TRACE_LEVEL", "OFF"));
+		
+		if (level != TraceLevel.OFF) {
+			try {
+				trace = new TraceWriter(level, new FileOutputStream(props.getProperty("SAVE_PATH") + fileName + ".trace"), 
+						Integer.valueOf(props.getProperty("TRACE_BUFFER_SIZE", "1048576")));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
 		}
-
-		return fileName;
 	}
 	
-	private CognitiveRadioBuilder initRadioParameters(int channelNumber) {
-		CognitiveRadioBuilder crb = new CognitiveRadioBuilder();
+	/**
+	 * Opens the columnar result file next to the text log if 
+	 * the COLUMNAR_RESULTS property is true.
+	 * 
+	 * @param fileName - name of the simulation
+	 */
+	private void initColumns(String fileName) {
+		if (Boolean.parseBoolean(props.getProperty("COLUMNAR_RESULTS", "false"))) {
+			try {
+				columns = new ColumnarResultWriter(Paths.get(props.getProperty("SAVE_PATH") + fileName + ".columns"), 
+						fileName, radios.size(), strategySpaceSize, channels.size());
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Reads the parameters of a radio or of every radio.
+	 * 
+	 * @param users - subject of the prompts, e.g. "users" or "user 1"
+	 * @return parameters of the radio
+	 */
+	private RadioConfig promptRadio(String users) {
+		RadioConfigBuilder builder = new RadioConfigBuilder();
 		// get and set demand
-		System.out.print("Demand of users in bit/slot: ");
-		crb.setDemand(scanner.nextDouble());
+		System.out.print("Demand of " + users + " in bit/slot: ");
+		builder.setDemand(scanner.nextDouble());
 		
 		// get and set strategy
-		System.out.print("Strategy of users (1 - regret tracking, 2 - max utility, 3 - random): ");
-		setStrategy(crb, scanner.nextInt());
+		System.out.print("Strategy of " + users + " (1 - regret tracking, 2 - max utility, 3 - random): ");
+		setStrategy(builder, scanner.nextInt());
 		
 		// get and set utility function
-		System.out.print("Utility function of users (1 - competitive, 2 - mixed): ");
-		setUtilityFunction(crb, scanner.nextInt());
+		System.out.print("Utility function of " + users + " (1 - competitive, 2 - mixed): ");
+		setUtilityFunction(builder, scanner.nextInt());
 		
 		System.out.println();
 		
-		return crb;
+		return builder.build();
+	}
+	
+	/**
+	 * Sets the destination of the persisted documents according to the 
+	 * RESULT_SINK property: MongoDB, a JSON lines file (RESULT_FILE in 
+	 * the SAVE_PATH directory), the memory or none.
+	 */
+	private void initResultSink() {
+		switch (props.getProperty("RESULT_SINK", "MONGO")) {
+		case "MONGO":
+			sink = new MongoResultSink();
+			break;
+		case "FILE":
+			sink = new FileResultSink(props.getProperty("SAVE_PATH") + props.getProperty("RESULT_FILE", "results.jsonl"));
+			break;
+		case "MEMORY":
+			sink = new MemoryResultSink();
+			break;
+		case NO_RESULT_SINK:
+			sink = null;
+			break;
+		default:
+			throw new IllegalArgumentException("Wrong result sink!");
+		}
+	}
+	
+	/**
+	 * Sets the number of strategies evaluated per round according to the
+	 * EVALUATION_MODE and SAMPLED_STRATEGIES properties. Sampling does 
+	 * not pay off if the radios would evaluate every strategy anyway, 
+	 * so then the strategies are evaluated exhaustively.
+	 */
+	private void initEvaluation() {
+		switch (props.getProperty("EVALUATION_MODE", "EXHAUSTIVE")) {
+		case "EXHAUSTIVE":
+			sampledStrategies = 0;
+			break;
+		case INCREMENTAL_EVALUATION:
+			sampledStrategies = 0;
+			cache = new ContentionCache(strategySpace, radios.size());
+			break;
+		case SAMPLED_EVALUATION:
+			sampledStrategies = Integer.valueOf(props.getProperty("SAMPLED_STRATEGIES"));
+			
+			if (sampledStrategies < 1) {
+				throw new IllegalArgumentException("Number of sampled strategies must be positive!");
+			}
+			if (sampledStrategies >= strategySpaceSize - 1) {
+				sampledStrategies = 0;
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Wrong evaluation mode!");
+		}
+		
+		evaluationSlots = sampledStrategies > 0 ? sampledStrategies + 1 : strategySpaceSize;
+	}
+	
+	/**
+	 * Sets the source of the back off times according to the
+	 * RANDOM_SOURCE and SEED properties. Without a seed a new one
+	 * is generated, which is persisted to reproduce the run.
+	 */
+	private void initRandomSource() {
+		String seedProperty = props.getProperty("SEED", "");
+		seed = seedProperty.isEmpty() ? System.nanoTime() : Long.valueOf(seedProperty);
+		
+		switch (props.getProperty("RANDOM_SOURCE", "PHILOX")) {
+		case "PHILOX":
+			randomSource = new PhiloxRandomSource(seed);
+			break;
+		case "SPLITMIX":
+			randomSource = new SplitMixRandomSource(seed);
+			break;
+		case "THREAD_LOCAL":
+			randomSource = new ThreadLocalRandomSource();
+			break;
+		default:
+			throw new IllegalArgumentException("Wrong random source!");
+		}
 	}
 	
 	private void initProperties() {
@@ -614,12 +1349,12 @@ public class CRSystem {
 	/**
 	 * Sets the utiliti function of the given user.
 	 * 
-	 * @param crb
+	 * @param builder
 	 * @param n
 	 */
-	private void setUtilityFunction(CognitiveRadioBuilder crb, int n) {
+	private void setUtilityFunction(RadioConfigBuilder builder, int n) {
 		if (n == 1) {
-			crb.setUtilityFunction(new CompetitiveUtilityFunction());
+			builder.setUtilityFunction(UtilityFunctionType.COMPETITIVE);
 		}
 		else if (n == 2) {
 			System.out.print("Rate for the competitive part of the utility function: ");
@@ -629,7 +1364,7 @@ public class CRSystem {
 			System.out.print("Rate for the collision penalty: ");
 			double rate3 = scanner.nextDouble();
 			
-			crb.setUtilityFunction(new MixedUtilityFunction(rate1, rate2, rate3));
+			builder.setMixedUtilityFunction(rate1, rate2, rate3);
 		}
 		else {
 			throw new IllegalArgumentException("Choose 1 - competitive, or 2 - mixed to set utility function!");
@@ -638,59 +1373,32 @@ public class CRSystem {
 	}
 	
 	/**
-	 * Sets the CognitiveRadio strategySpace.
-	 * 
-	 * @param maxChannels
-	 * @param channelNumber
-	 */
-	private void setStrategySpace(int maxChannels, int channelNumber) {
-		for (int i = 1; i <= maxChannels; i++) {
-			List<Boolean> strategies = new ArrayList<>(Collections.nCopies(i, true));
-			strategies.addAll(new ArrayList<>(Collections.nCopies(channelNumber - i, false)));
-			CognitiveRadio.getStrategySpace().addAll(StrategySpace.getStrategySpace(strategies));
-		}	
-	}
-	
-	/**
-	 * Set strategy for given CognitiveRadioBuilder.
-	 * @param crb
+	 * Set strategy for given RadioConfigBuilder.
+	 * @param builder
 	 * @param strategyNumber
 	 */
-	private void setStrategy(CognitiveRadioBuilder crb, int strategyNumber) {
+	private void setStrategy(RadioConfigBuilder builder, int strategyNumber) {
 		switch (strategyNumber) {
 		// regret tracking algorithm
 		case 1:
 			System.out.print("Stepsize (1 - fix, 2 - decreasing): ");
 			int stepSize = scanner.nextInt();
 			
-			if (stepSize == 1) {
-				crb.setStrategy(new RegretTrackingStrategy(0.1, false));				
-			}
-			else {
-				crb.setStrategy(new RegretTrackingStrategy(1, true));
-			}
+			builder.setStrategy(StrategyType.REGRET_TRACKING);
+			builder.setStepSize(stepSize == 1 ? StepSize.FIX : StepSize.DECREASING);
 			
 			break;
 		// max utility strategy
 		case 2:
-			crb.setStrategy(new MaxUtilityStrategy());
+			builder.setStrategy(StrategyType.MAX_UTILITY);
 			break;
 		// random strategy
 		case 3:
-			crb.setStrategy(new RandomStrategy());
+			builder.setStrategy(StrategyType.RANDOM);
 			break;
 		default:
 			throw new IllegalArgumentException("Wrong strategy!");		
 		}
 	}
-	
-	/**
-	 * Clears the 2-dimensional lists of the given radio.
-	 * @param radio
-	 */
-	private static void clearRadio(CognitiveRadio radio) {
-		radio.getCaptured().stream().forEach(List::clear);
-		radio.getCaptureProbabilities().stream().forEach(List::clear);
-	}	
 }
 
@@ -0,0 +1,17 @@
+package hu.bme.cr.api;
+
+import hu.bme.cr.CRSystem;
+
+/**
+ * Receives every played round of a simulation from the simulation 
+ * thread, once the strategy slots of the round are played.
+ */
+public interface IRoundListener {
+	
+	/**
+	 * @param system - the simulation
+	 * @param round - index of the round: 0 - init phase, 1 - set phase, r + 2 - normal phase r
+	 * @param collisions - number of collisions in the strategy slots of the round
+	 */
+	void onRound(CRSystem system, long round, long collisions);
+}
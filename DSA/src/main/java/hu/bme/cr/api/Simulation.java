@@ -0,0 +1,93 @@
+package hu.bme.cr.api;
+
+import hu.bme.cr.CRContentionSimulation;
+import hu.bme.cr.CRSystem;
+import hu.bme.cr.dsl.IResultSink;
+import hu.bme.cr.scenario.ScenarioConfig;
+
+/**
+ * <p>Entry point to embed the simulator: plays a whole simulation of
+ * a scenario in the calling thread and returns its results in memory.</p>
+ *
+ * <p>Nothing is read from the console and nothing is persisted unless
+ * a result sink is given. The log is written only if the log target of
+ * the scenario is not NONE (the default of the ScenarioConfigBuilder),
+ * and the files switched on by the properties of the scenario, e.g.
+ * TRACE_LEVEL or COLUMNAR_RESULTS, are written as usual.</p>
+ *
+ * <pre>
+ * SimulationResult result = Simulation.run(new ScenarioConfigBuilder()
+ *         .addChannels(4, 1.0)
+ *         .setMaxChannels(2)
+ *         .addRadios(10, new RadioConfigBuilder().setDemand(0.5).build())
+ *         .setProperty("SEED", "42")
+ *         .build());
+ * </pre>
+ */
+public final class Simulation {
+
+	private static final String NORMAL_MODE = "NORMAL";
+
+	private static final String CONTENTION_MODE = "CONTENTION";
+
+	private Simulation() {
+	}
+
+	/**
+	 * Plays the scenario without persisting anything.
+	 *
+	 * @param scenario - channels, radios and properties of the simulation
+	 * @return results of every round
+	 */
+	public static SimulationResult run(ScenarioConfig scenario) {
+		return run(scenario, null);
+	}
+
+	/**
+	 * Plays the scenario and persists its documents to the given sink,
+	 * which is closed at the end of the simulation, also if it fails.
+	 * The SIMULATION_MODE property of the scenario (NORMAL by default)
+	 * selects the documents.
+	 *
+	 * @param scenario - channels, radios and properties of the simulation
+	 * @param sink - destination of the documents, null to persist nothing
+	 * @return results of every round
+	 * @throws IllegalArgumentException - if the simulation mode is neither NORMAL nor CONTENTION
+	 */
+	public static SimulationResult run(ScenarioConfig scenario, IResultSink sink) {
+		String mode = scenario.getProperties().getOrDefault("SIMULATION_MODE", NORMAL_MODE);
+		CRSystem system;
+
+		if (NORMAL_MODE.equals(mode)) {
+			system = new CRSystem(scenario, sink);
+		}
+		else if (CONTENTION_MODE.equals(mode)) {
+			system = new CRContentionSimulation(scenario, sink);
+		}
+		else {
+			throw new IllegalArgumentException("Unknown simulation mode: " + mode + "!");
+		}
+
+		int rounds = system.getRounds();
+
+		try {
+			system.init();
+
+			SimulationResult result = new SimulationResult(system.getSeed(), rounds + 2, system.getRadios().size(),
+					system.getStrategySpace().size(), system.getChannels().size());
+			system.setRoundListener(result::record);
+
+			system.playInitPhase();
+			system.playSetPhase();
+			for (int r = 0; r < rounds; r++) {
+				system.playDecidePhase(r);
+			}
+			system.endGame();
+
+			return result;
+		} finally {
+			// releases the sink, the pool and the files if a phase failed
+			system.close();
+		}
+	}
+}
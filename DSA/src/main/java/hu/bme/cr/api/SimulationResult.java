@@ -0,0 +1,224 @@
+package hu.bme.cr.api;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import hu.bme.cr.CRSystem;
+import hu.bme.cr.entity.CognitiveRadio;
+import hu.bme.cr.strategies.StrategySpace;
+
+/**
+ * <p>Results of a simulation, recorded after every round: the init
+ * phase (round 0), the set phase (round 1) and the normal phases
+ * (round r + 2).</p>
+ *
+ * <p>Every value is kept in a flat primitive array in row-major order,
+ * e.g. the utility of strategy s of radio k in round r is at index
+ * (r * radios + k) * strategies + s. The getters of the arrays return
+ * the arrays themselves, not copies.</p>
+ */
+public class SimulationResult {
+
+	private final long seed;
+
+	private final int roundNumber;
+
+	private final int radioNumber;
+
+	private final int strategySpaceSize;
+
+	private final int channelNumber;
+
+	/**
+	 * Strategy played by every radio, (round, radio).
+	 */
+	private final int[] strategies;
+
+	/**
+	 * Utility estimates of every radio, (round, radio, strategy).
+	 */
+	private final double[] utilities;
+
+	/**
+	 * Regrets of every radio, (round, radio, strategy), NaN if the radio has none.
+	 */
+	private final double[] regrets;
+
+	/**
+	 * Collisions of the strategy slots, (round).
+	 */
+	private final long[] collisions;
+
+	/**
+	 * Other radios on the channels of the played strategy, (round, radio, channel).
+	 */
+	private final int[] competingUsers;
+
+	/**
+	 * Number of radios on every channel in the current round, reused.
+	 */
+	private final int[] counts;
+
+	/**
+	 * @throws IllegalArgumentException - if an array of the results does not fit in a Java array
+	 */
+	SimulationResult(long seed, int roundNumber, int radioNumber, int strategySpaceSize, int channelNumber) {
+		this.seed = seed;
+		this.roundNumber = roundNumber;
+		this.radioNumber = radioNumber;
+		this.strategySpaceSize = strategySpaceSize;
+		this.channelNumber = channelNumber;
+		this.strategies = new int[size("rounds * radios", roundNumber, radioNumber)];
+		this.utilities = new double[size("rounds * radios * strategies", roundNumber, radioNumber, strategySpaceSize)];
+		this.regrets = new double[utilities.length];
+		this.collisions = new long[roundNumber];
+		this.competingUsers = new int[size("rounds * radios * channels", roundNumber, radioNumber, channelNumber)];
+		this.counts = new int[channelNumber];
+	}
+
+	/**
+	 * Multiplies the dimensions of a result array in long arithmetic.
+	 *
+	 * @param dimensionNames - names of the dimensions in the error message
+	 * @param dimensions - sizes of the dimensions of the array
+	 * @return length of the array
+	 * @throws IllegalArgumentException - if the array does not fit in a Java array
+	 */
+	private static int size(String dimensionNames, int... dimensions) {
+		long size = 1;
+
+		for (int dimension : dimensions) {
+			size *= dimension;
+
+			if (size > Integer.MAX_VALUE - 8) {
+				throw new IllegalArgumentException("Too many results to record: " + dimensionNames + " = "
+						+ Arrays.stream(dimensions).mapToObj(String::valueOf).collect(Collectors.joining(" * "))
+						+ " does not fit in an array!");
+			}
+		}
+
+		return (int) size;
+	}
+
+	/**
+	 * Records the radios of the simulation after the given round.
+	 */
+	void record(CRSystem system, long round, long collisionNumber) {
+		int r = (int) round;
+		List<CognitiveRadio> radios = system.getRadios();
+		StrategySpace strategySpace = system.getStrategySpace();
+
+		Arrays.fill(counts, 0);
+
+		for (int k = 0; k < radioNumber; k++) {
+			CognitiveRadio radio = radios.get(k);
+			int row = r * radioNumber + k;
+			int strategy = radio.getAccessDecisions().get(0);
+			double[] regretsOfRadio = radio.getRegrets();
+			int length = Math.min(regretsOfRadio.length, strategySpaceSize);
+
+			strategies[row] = strategy;
+			System.arraycopy(radio.getUtilities(), 0, utilities, row * strategySpaceSize, strategySpaceSize);
+			System.arraycopy(regretsOfRadio, 0, regrets, row * strategySpaceSize, length);
+			Arrays.fill(regrets, row * strategySpaceSize + length, (row + 1) * strategySpaceSize, Double.NaN);
+
+			for (int c = 0; c < channelNumber; c++) {
+				if (strategySpace.uses(strategy, c)) {
+					counts[c]++;
+				}
+			}
+		}
+
+		for (int k = 0; k < radioNumber; k++) {
+			int row = r * radioNumber + k;
+
+			for (int c = 0; c < channelNumber; c++) {
+				competingUsers[row * channelNumber + c] = strategySpace.uses(strategies[row], c) ? counts[c] - 1 : 0;
+			}
+		}
+
+		collisions[r] = collisionNumber;
+	}
+
+	/**
+	 * @param round - index of the round
+	 * @param radio - index of the CognitiveRadio
+	 * @return index of the strategy played by the radio
+	 */
+	public int getStrategy(int round, int radio) {
+		return strategies[round * radioNumber + radio];
+	}
+
+	/**
+	 * @param round - index of the round
+	 * @param radio - index of the CognitiveRadio
+	 * @return utility of the strategy played by the radio
+	 */
+	public double getUtility(int round, int radio) {
+		return getUtility(round, radio, getStrategy(round, radio));
+	}
+
+	public double getUtility(int round, int radio, int strategy) {
+		return utilities[(round * radioNumber + radio) * strategySpaceSize + strategy];
+	}
+
+	public double getRegret(int round, int radio, int strategy) {
+		return regrets[(round * radioNumber + radio) * strategySpaceSize + strategy];
+	}
+
+	public long getCollisions(int round) {
+		return collisions[round];
+	}
+
+	public int getCompetingUsers(int round, int radio, int channel) {
+		return competingUsers[(round * radioNumber + radio) * channelNumber + channel];
+	}
+
+	/*
+	 * Getters
+	 */
+
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return number of recorded rounds, i.e. ROUNDS + 2
+	 */
+	public int getRoundNumber() {
+		return roundNumber;
+	}
+
+	public int getRadioNumber() {
+		return radioNumber;
+	}
+
+	public int getStrategySpaceSize() {
+		return strategySpaceSize;
+	}
+
+	public int getChannelNumber() {
+		return channelNumber;
+	}
+
+	public int[] getStrategies() {
+		return strategies;
+	}
+
+	public double[] getUtilities() {
+		return utilities;
+	}
+
+	public double[] getRegrets() {
+		return regrets;
+	}
+
+	public long[] getCollisions() {
+		return collisions;
+	}
+
+	public int[] getCompetingUsers() {
+		return competingUsers;
+	}
+}
@@ -0,0 +1,49 @@
+package hu.bme.cr.batch;
+
+/**
+ * Outcome of a single scenario of a batch.
+ */
+public class BatchResult {
+	
+	private final int index;
+	
+	private final String params;
+	
+	private final long durationNanos;
+	
+	/**
+	 * Cause of the failure, null if the scenario succeeded.
+	 */
+	private final Throwable failure;
+	
+	public BatchResult(int index, String params, long durationNanos, Throwable failure) {
+		this.index = index;
+		this.params = params;
+		this.durationNanos = durationNanos;
+		this.failure = failure;
+	}
+
+	/*
+	 * Getters
+	 */
+	
+	public int getIndex() {
+		return index;
+	}
+
+	public String getParams() {
+		return params;
+	}
+
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	public Throwable getFailure() {
+		return failure;
+	}
+	
+	public boolean isSuccess() {
+		return failure == null;
+	}
+}
@@ -0,0 +1,145 @@
+package hu.bme.cr.batch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Runs the independent scenarios of a scenario file on a fixed
+ * number of worker threads.</p>
+ *
+ * <p>Every scenario persists its own results when it ends, so results
+ * are stored as soon as each scenario finishes. The listener is notified
+ * of the results either in the order of completion or in the order of
+ * the scenario file. In the latter case results that finish early are
+ * held back until every scenario before them has finished.</p>
+ */
+public class BatchRunner {
+
+	/**
+	 * Order in which the results are passed to the listener.
+	 */
+	public enum Ordering {
+		COMPLETION, SUBMISSION
+	}
+
+	/**
+	 * What happens to the rest of the batch when a scenario fails.
+	 */
+	public enum FailurePolicy {
+		CONTINUE, ABORT
+	}
+
+	private final int parallelism;
+
+	private final Ordering ordering;
+
+	private final FailurePolicy failurePolicy;
+
+	/**
+	 * @param parallelism - number of scenarios played at the same time, 0 - number of available processors
+	 * @param ordering - order of the results
+	 * @param failurePolicy - handling of failed scenarios
+	 */
+	public BatchRunner(int parallelism, Ordering ordering, FailurePolicy failurePolicy) {
+		if (parallelism < 0) {
+			throw new IllegalArgumentException("Batch parallelism can not be negative!");
+		}
+
+		this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		this.ordering = ordering;
+		this.failurePolicy = failurePolicy;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Runs every scenario unless the batch is aborted.
+	 *
+	 * @param scenarios - simulation init params of the scenarios
+	 * @param runner - plays a single scenario
+	 * @param listener - receives the results
+	 * @return results in the order they were passed to the listener
+	 * @throws InterruptedException - if the thread running the batch is interrupted
+	 */
+	public List<BatchResult> run(List<String> scenarios, IScenarioRunner runner, IBatchListener listener) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(scenarios.size(), 1)));
+		CompletionService<BatchResult> completion = new ExecutorCompletionService<>(executor);
+		List<Future<BatchResult>> futures = new ArrayList<>(scenarios.size());
+		List<BatchResult> results = new ArrayList<>(scenarios.size());
+
+		// finished results waiting for an earlier scenario in submission order
+		Map<Integer, BatchResult> pending = new HashMap<>();
+		int next = 0;
+
+		try {
+			for (int i = 0; i < scenarios.size(); i++) {
+				int index = i;
+				String params = scenarios.get(i);
+
+				futures.add(completion.submit(() -> runScenario(index, params, runner)));
+			}
+
+			for (int i = 0; i < scenarios.size(); i++) {
+				BatchResult result = take(completion);
+
+				if (ordering == Ordering.COMPLETION) {
+					report(result, results, listener);
+				}
+				else {
+					pending.put(result.getIndex(), result);
+
+					while (pending.containsKey(next)) {
+						report(pending.remove(next++), results, listener);
+					}
+				}
+
+				if (!result.isSuccess() && failurePolicy == FailurePolicy.ABORT) {
+					// report the finished scenarios that were held back before stopping
+					pending.keySet().stream().sorted().forEach(k -> report(pending.get(k), results, listener));
+					futures.forEach(f -> f.cancel(true));
+					break;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return results;
+	}
+
+	private static BatchResult runScenario(int index, String params, IScenarioRunner runner) {
+		long start = System.nanoTime();
+
+		try {
+			runner.run(index, params);
+
+			return new BatchResult(index, params, System.nanoTime() - start, null);
+		} catch (Exception e) {
+			return new BatchResult(index, params, System.nanoTime() - start, e);
+		}
+	}
+
+	private static BatchResult take(CompletionService<BatchResult> completion) throws InterruptedException {
+		try {
+			return completion.take().get();
+		} catch (ExecutionException e) {
+			// runScenario catches every exception, only errors get here
+			throw new IllegalStateException("Scenario failed with an error!", e.getCause());
+		}
+	}
+
+	private static void report(BatchResult result, List<BatchResult> results, IBatchListener listener) {
+		results.add(result);
+		listener.onResult(result);
+	}
+}
@@ -0,0 +1,10 @@
+package hu.bme.cr.batch;
+
+/**
+ * Receives the result of every finished scenario of a batch,
+ * always from the thread that runs the batch.
+ */
+public interface IBatchListener {
+	
+	void onResult(BatchResult result);
+}
@@ -0,0 +1,14 @@
+package hu.bme.cr.batch;
+
+/**
+ * Runs a single simulation scenario of a batch to its end.
+ */
+public interface IScenarioRunner {
+	
+	/**
+	 * @param index - position of the scenario in the scenario file
+	 * @param params - simulation init params of the scenario
+	 * @throws Exception - if the simulation fails
+	 */
+	void run(int index, String params) throws Exception;
+}
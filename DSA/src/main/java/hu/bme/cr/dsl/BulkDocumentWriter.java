@@ -0,0 +1,173 @@
+package hu.bme.cr.dsl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.bson.Document;
+
+import hu.bme.cr.jfr.PersistenceEvent;
+
+/**
+ * <p>Writes documents in bulk on a background thread.</p>
+ *
+ * <p>The simulation queues its documents and goes on, the background
+ * thread passes them to the insert operation, e.g. an unordered 
+ * insertMany of a MongoDB collection (see DataStore), in batches of at
+ * most batchSize documents. A batch is written when it is full or when the
+ * flush interval elapsed since its first document arrived. The queue is
+ * bounded, so the simulation waits if the database can not keep up.</p>
+ *
+ * <p>Documents are written and the writer is closed by the simulation
+ * thread. After a failed insert the rest of the documents are dropped
+ * and the failure is reported by write and close.</p>
+ */
+public class BulkDocumentWriter implements Closeable {
+
+	/**
+	 * Marks the end of the queue.
+	 */
+	private static final Document END = new Document();
+
+	private final Consumer<List<Document>> insertion;
+
+	private final int batchSize;
+
+	private final long flushIntervalNanos;
+
+	private final BlockingQueue<Document> queue;
+
+	private final Thread consumer;
+
+	private volatile boolean closed;
+
+	private volatile RuntimeException failure;
+
+	/**
+	 * Starts the background thread.
+	 *
+	 * @param insertion - inserts a batch of documents
+	 * @param batchSize - maximal number of documents of an insertMany call
+	 * @param flushIntervalMillis - maximal time a document waits for its batch to fill up
+	 * @param queueCapacity - number of queued documents before write blocks
+	 */
+	public BulkDocumentWriter(Consumer<List<Document>> insertion, int batchSize, long flushIntervalMillis, int queueCapacity) {
+		if (batchSize < 1 || flushIntervalMillis < 0 || queueCapacity < 1) {
+			throw new IllegalArgumentException("Wrong bulk writer parameters!");
+		}
+
+		this.insertion = insertion;
+		this.batchSize = batchSize;
+		this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+		this.consumer = new Thread(this::drain, "bulk-document-writer");
+		this.consumer.setDaemon(true);
+		this.consumer.start();
+	}
+
+	/**
+	 * Queues the document, waits if the queue is full.
+	 *
+	 * @param document - document to insert
+	 */
+	public void write(Document document) {
+		if (closed || failure != null) {
+			throw new IllegalStateException("Bulk document writer is closed!", failure);
+		}
+
+		try {
+			queue.put(document);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while queueing a document!", e);
+		}
+	}
+
+	/**
+	 * Waits until every queued document is inserted.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+
+		try {
+			queue.put(END);
+			consumer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (failure != null) {
+			throw new IOException("Could not insert the documents!", failure);
+		}
+	}
+
+	/**
+	 * Body of the background thread: inserts the queued
+	 * documents in batches until the end mark.
+	 */
+	private void drain() {
+		List<Document> batch = new ArrayList<>(batchSize);
+		long deadline = 0;
+		boolean end = false;
+
+		try {
+			while (!end) {
+				Document document = batch.isEmpty()
+						? queue.take()
+						: queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+				if (document == END) {
+					end = true;
+				}
+				else if (document != null) {
+					if (batch.isEmpty()) {
+						deadline = System.nanoTime() + flushIntervalNanos;
+					}
+
+					batch.add(document);
+				}
+
+				if (!batch.isEmpty() && (end || batch.size() >= batchSize || System.nanoTime() - deadline >= 0)) {
+					insert(batch);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void insert(List<Document> batch) {
+		if (failure == null) {
+			PersistenceEvent event = new PersistenceEvent();
+			event.begin();
+
+			try {
+				insertion.accept(batch);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+
+			if (event.shouldCommit()) {
+				event.documents = batch.size();
+				event.commit();
+			}
+		}
+
+		batch.clear();
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+}
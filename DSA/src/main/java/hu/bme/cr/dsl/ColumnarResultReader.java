@@ -0,0 +1,231 @@
+package hu.bme.cr.dsl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Reads a file of the ColumnarResultWriter.</p>
+ *
+ * <p>Every phase block is memory-mapped on its first access, and the
+ * columns of a radio are returned as views of the mapping, so nothing
+ * is copied or decoded until a value is read.</p>
+ */
+public class ColumnarResultReader implements Closeable {
+
+	private final FileChannel channel;
+
+	private final String simulation;
+
+	private final int radioNumber;
+
+	private final int strategySpaceSize;
+
+	private final int channelNumber;
+
+	private final long phaseSize;
+
+	private final List<String> phases;
+
+	private final MappedByteBuffer[] blocks;
+
+	/**
+	 * Reads the header and the index of the file.
+	 *
+	 * @param path - path of the file
+	 * @throws IOException - if the file can not be read or it is not complete
+	 */
+	public ColumnarResultReader(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+		try {
+			ByteBuffer header = read(0, ColumnarResultWriter.HEADER_SIZE);
+
+			if (header.getInt() != ColumnarResultWriter.MAGIC) {
+				throw new IOException("Not a columnar result file!");
+			}
+			if (header.getInt() != ColumnarResultWriter.VERSION) {
+				throw new IOException("Unknown columnar result version!");
+			}
+
+			this.radioNumber = header.getInt();
+			this.strategySpaceSize = header.getInt();
+			this.channelNumber = header.getInt();
+			header.getInt();
+			int phaseNumber = (int) header.getLong();
+			long indexOffset = header.getLong();
+
+			if (indexOffset == 0) {
+				throw new IOException("Columnar result file is not complete!");
+			}
+
+			this.phaseSize = ColumnarResultWriter.phaseSize(radioNumber, strategySpaceSize, channelNumber);
+			this.phases = new ArrayList<>(phaseNumber);
+			this.blocks = new MappedByteBuffer[phaseNumber];
+
+			ByteBuffer index = read(indexOffset, (int) (channel.size() - indexOffset));
+			this.simulation = readString(index);
+			for (int p = 0; p < phaseNumber; p++) {
+				phases.add(readString(index));
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens the columnar results of a simulation.
+	 *
+	 * @param directory - directory of the results, e.g. SAVE_PATH
+	 * @param simulation - name of the simulation
+	 * @return reader of the results
+	 * @throws IOException - if the file can not be read
+	 */
+	public static ColumnarResultReader open(String directory, String simulation) throws IOException {
+		return new ColumnarResultReader(Paths.get(directory, simulation + ".columns"));
+	}
+
+	/**
+	 * @param phase - name of the phase
+	 * @return index of the phase, -1 if the file does not contain it
+	 */
+	public int indexOf(String phase) {
+		return phases.indexOf(phase);
+	}
+
+	/**
+	 * @param phase - index of the phase
+	 * @param radio - index of the CognitiveRadio
+	 * @return utility of every strategy
+	 */
+	public DoubleBuffer getUtilities(int phase, int radio) {
+		return doubles(phase, 8L * radio * strategySpaceSize, strategySpaceSize);
+	}
+
+	/**
+	 * @param phase - index of the phase
+	 * @param radio - index of the CognitiveRadio
+	 * @return regret of every strategy, NaN if the radio has none
+	 */
+	public DoubleBuffer getRegrets(int phase, int radio) {
+		return doubles(phase, 8L * (radioNumber + radio) * strategySpaceSize, strategySpaceSize);
+	}
+
+	/**
+	 * @param phase - index of the phase
+	 * @param radio - index of the CognitiveRadio
+	 * @return contention estimates, index: strategy * channels + channel
+	 */
+	public DoubleBuffer getContentions(int phase, int radio) {
+		return doubles(phase, 8L * (2L * radioNumber + (long) radio * channelNumber) * strategySpaceSize, strategySpaceSize * channelNumber);
+	}
+
+	/**
+	 * @param phase - index of the phase
+	 * @param radio - index of the CognitiveRadio
+	 * @return strategy played in every slot, -1 after the played slots
+	 */
+	public IntBuffer getAccessDecisions(int phase, int radio) {
+		long offset = 8L * (2L + channelNumber) * radioNumber * strategySpaceSize + 4L * radio * strategySpaceSize;
+
+		return slice(phase, offset, 4 * strategySpaceSize).asIntBuffer();
+	}
+
+	public double getUtility(int phase, int radio, int strategy) {
+		return getUtilities(phase, radio).get(strategy);
+	}
+
+	public double getRegret(int phase, int radio, int strategy) {
+		return getRegrets(phase, radio).get(strategy);
+	}
+
+	public double getContention(int phase, int radio, int strategy, int channel) {
+		return getContentions(phase, radio).get(strategy * channelNumber + channel);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/*
+	 * Getters
+	 */
+
+	public String getSimulation() {
+		return simulation;
+	}
+
+	public List<String> getPhases() {
+		return phases;
+	}
+
+	public int getRadioNumber() {
+		return radioNumber;
+	}
+
+	public int getStrategySpaceSize() {
+		return strategySpaceSize;
+	}
+
+	public int getChannelNumber() {
+		return channelNumber;
+	}
+
+	private DoubleBuffer doubles(int phase, long offset, int length) {
+		return slice(phase, offset, 8 * length).asDoubleBuffer();
+	}
+
+	private ByteBuffer slice(int phase, long offset, int length) {
+		ByteBuffer block = block(phase).duplicate();
+
+		block.position((int) offset);
+		block.limit((int) offset + length);
+
+		return block.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private synchronized MappedByteBuffer block(int phase) {
+		if (blocks[phase] == null) {
+			try {
+				blocks[phase] = channel.map(FileChannel.MapMode.READ_ONLY, ColumnarResultWriter.HEADER_SIZE + phase * phaseSize, phaseSize);
+			} catch (IOException e) {
+				throw new IllegalStateException("Could not map phase " + phases.get(phase) + "!", e);
+			}
+		}
+
+		return blocks[phase];
+	}
+
+	private ByteBuffer read(long position, int length) throws IOException {
+		ByteBuffer result = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+		while (result.hasRemaining()) {
+			if (channel.read(result, position + result.position()) < 0) {
+				throw new IOException("Columnar result file is truncated!");
+			}
+		}
+
+		result.flip();
+		return result;
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
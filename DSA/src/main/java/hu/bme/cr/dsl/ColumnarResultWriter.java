@@ -0,0 +1,261 @@
+package hu.bme.cr.dsl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import hu.bme.cr.engine.SimulationState;
+
+/**
+ * <p>Writes the persisted phases of a simulation in a columnar
+ * binary format, which the ColumnarResultReader memory-maps.</p>
+ *
+ * <p>Every value is a little-endian fixed-width primitive, so a
+ * column can be read without decoding, e.g. by numpy.memmap.
+ * Layout of the file:</p>
+ * <ul>
+ * <li>header (64 bytes): magic (int), version (int), radios (int),
+ * strategies (int), channels (int), reserved (int), phases (long),
+ * index offset (long), padding</li>
+ * <li>one block per phase, each of the same size, with the columns
+ * <ul>
+ * <li>utilities: double, (radio, strategy)</li>
+ * <li>regrets: double, (radio, strategy), NaN if the radio has none</li>
+ * <li>contentions: double, (radio, strategy, channel)</li>
+ * <li>access decisions: int, (radio, strategy slot), -1 after the played slots</li>
+ * </ul>
+ * padded to 8 bytes</li>
+ * <li>index: simulation name, then the name of every phase,
+ * each as length (int) and UTF-8 bytes</li>
+ * </ul>
+ *
+ * <p>The index and the number of phases are written by close, a
+ * file without an index offset is incomplete. After a phase failed
+ * to be written, close leaves the file incomplete, so that it can not
+ * be read as a complete file with phases missing.</p>
+ */
+public class ColumnarResultWriter implements Closeable {
+
+	static final int MAGIC = 0x43524346;
+
+	static final int VERSION = 1;
+
+	static final int HEADER_SIZE = 64;
+
+	private final FileChannel channel;
+
+	private final String simulation;
+
+	private final int radioNumber;
+
+	private final int strategySpaceSize;
+
+	private final int channelNumber;
+
+	private final long phaseSize;
+
+	private final List<String> phases;
+
+	/**
+	 * True if a phase could not be written.
+	 */
+	private boolean failed;
+
+	/**
+	 * Values of a radio in a column, reused.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Contention estimates of a strategy on every channel, reused.
+	 */
+	private final double[] channelContentions;
+
+	/**
+	 * Creates the file and writes the header.
+	 *
+	 * @param path - path of the file
+	 * @param simulation - name of the simulation
+	 * @param radioNumber - number of CognitiveRadios
+	 * @param strategySpaceSize - size of the strategy space
+	 * @param channelNumber - number of channels
+	 * @throws IOException - if the file can not be created
+	 */
+	public ColumnarResultWriter(Path path, String simulation, int radioNumber, int strategySpaceSize, int channelNumber) throws IOException {
+		this.phaseSize = phaseSize(radioNumber, strategySpaceSize, channelNumber);
+
+		if (phaseSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Phase is too large for the columnar format!");
+		}
+
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		this.simulation = simulation;
+		this.radioNumber = radioNumber;
+		this.strategySpaceSize = strategySpaceSize;
+		this.channelNumber = channelNumber;
+		this.phases = new ArrayList<>();
+		this.buffer = ByteBuffer.allocate(8 * strategySpaceSize * channelNumber).order(ByteOrder.LITTLE_ENDIAN);
+		this.channelContentions = new double[channelNumber];
+
+		writeHeader(0, 0);
+	}
+
+	/**
+	 * Writes the columns of every radio of a phase.
+	 *
+	 * @param phase - name of the phase
+	 * @param utilities - utilities of every radio
+	 * @param regrets - regrets of every radio, possibly empty
+	 * @param decisions - access decisions of every radio
+	 * @param state - contention estimates of the phase
+	 * @throws IOException - if the phase can not be written
+	 * @throws IllegalStateException - if a phase could not be written before
+	 */
+	public void writePhase(String phase, List<double[]> utilities, List<double[]> regrets,
+			List<List<Integer>> decisions, SimulationState state) throws IOException {
+		if (failed) {
+			throw new IllegalStateException("Columnar result file is incomplete!");
+		}
+
+		try {
+			writeBlock(HEADER_SIZE + phases.size() * phaseSize, utilities, regrets, decisions, state);
+		} catch (IOException e) {
+			failed = true;
+			throw e;
+		}
+
+		phases.add(phase);
+	}
+
+	private void writeBlock(long start, List<double[]> utilities, List<double[]> regrets,
+			List<List<Integer>> decisions, SimulationState state) throws IOException {
+
+		for (int k = 0; k < radioNumber; k++) {
+			buffer.clear();
+			putDoubles(utilities.get(k));
+			write(start + utilitiesOffset(k));
+
+			buffer.clear();
+			putDoubles(regrets.get(k));
+			write(start + regretsOffset(k));
+
+			buffer.clear();
+			for (int s = 0; s < strategySpaceSize; s++) {
+				state.getContentions(k, s, channelContentions);
+				for (double contention : channelContentions) {
+					buffer.putDouble(contention);
+				}
+			}
+			write(start + contentionsOffset(k));
+
+			buffer.clear();
+			List<Integer> decisionsOfRadio = decisions.get(k);
+			for (int s = 0; s < strategySpaceSize; s++) {
+				buffer.putInt(s < decisionsOfRadio.size() ? decisionsOfRadio.get(s) : -1);
+			}
+			write(start + decisionsOffset(k));
+		}
+	}
+
+	/**
+	 * Writes the index and completes the header,
+	 * unless a phase could not be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (failed) {
+			channel.close();
+			return;
+		}
+
+		try {
+			long indexOffset = HEADER_SIZE + phases.size() * phaseSize;
+			long position = indexOffset;
+
+			position += writeString(position, simulation);
+			for (String phase : phases) {
+				position += writeString(position, phase);
+			}
+
+			writeHeader(phases.size(), indexOffset);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/*
+	 * Layout of a phase block
+	 */
+
+	static long phaseSize(int radioNumber, int strategySpaceSize, int channelNumber) {
+		long values = (long) radioNumber * strategySpaceSize;
+		long size = 8 * values * (2 + channelNumber) + 4 * values;
+
+		return (size + 7) & ~7L;
+	}
+
+	private long utilitiesOffset(int radio) {
+		return 8L * radio * strategySpaceSize;
+	}
+
+	private long regretsOffset(int radio) {
+		return 8L * (radioNumber + radio) * strategySpaceSize;
+	}
+
+	private long contentionsOffset(int radio) {
+		return 8L * (2L * radioNumber + (long) radio * channelNumber) * strategySpaceSize;
+	}
+
+	private long decisionsOffset(int radio) {
+		return 8L * (2L + channelNumber) * radioNumber * strategySpaceSize + 4L * radio * strategySpaceSize;
+	}
+
+	private void putDoubles(double[] values) {
+		for (int s = 0; s < strategySpaceSize; s++) {
+			buffer.putDouble(s < values.length ? values[s] : Double.NaN);
+		}
+	}
+
+	private void write(long position) throws IOException {
+		buffer.flip();
+		write(buffer, position);
+	}
+
+	private void write(ByteBuffer values, long position) throws IOException {
+		while (values.hasRemaining()) {
+			position += channel.write(values, position);
+		}
+	}
+
+	private int writeString(long position, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer string = ByteBuffer.allocate(4 + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+
+		string.putInt(bytes.length).put(bytes).flip();
+		write(string, position);
+
+		return 4 + bytes.length;
+	}
+
+	private void writeHeader(long phaseNumber, long indexOffset) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC)
+			.putInt(VERSION)
+			.putInt(radioNumber)
+			.putInt(strategySpaceSize)
+			.putInt(channelNumber)
+			.putInt(0)
+			.putLong(phaseNumber)
+			.putLong(indexOffset);
+		header.clear();
+
+		write(header, 0);
+	}
+}
@@ -1,5 +1,6 @@
 package hu.bme.cr.dsl;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
@@ -9,12 +10,14 @@ import org.bson.Document;
 import com.mongodb.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.InsertManyOptions;
 
-public class DataStore {
+public class DataStore implements Closeable {
 	
 	private MongoClient client;
 	private MongoDatabase db;
 	private MongoCollection<Document> documents;
+	private BulkDocumentWriter writer;
 	
 	private Properties props;
 	
@@ -32,6 +35,22 @@ public class DataStore {
 		client = new MongoClient();
 		db = client.getDatabase(props.getProperty("THESIS_DB"));
 		documents = db.getCollection(props.getProperty("SIMULATIONS_COLLECTION"));
+		writer = new BulkDocumentWriter(batch -> documents.insertMany(batch, new InsertManyOptions().ordered(false)), 
+				Integer.valueOf(props.getProperty("BULK_BATCH_SIZE", "500")), 
+				Long.valueOf(props.getProperty("BULK_FLUSH_INTERVAL", "1000")), 
+				Integer.valueOf(props.getProperty("BULK_QUEUE_CAPACITY", "10000")));
+	}
+	
+	/**
+	 * Inserts the queued documents and closes the connection.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			writer.close();
+		} finally {
+			client.close();
+		}
 	}
 	
 	private void initProperties() {
@@ -72,4 +91,11 @@ public class DataStore {
 	public void setDocuments(MongoCollection<Document> documents) {
 		this.documents = documents;
 	}
+
+	/**
+	 * @return asynchronous bulk writer of the documents collection
+	 */
+	public BulkDocumentWriter getWriter() {
+		return writer;
+	}
 }
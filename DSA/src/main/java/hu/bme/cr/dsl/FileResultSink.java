@@ -0,0 +1,76 @@
+package hu.bme.cr.dsl;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+
+/**
+ * <p>Appends the documents to a local file as JSON lines.</p>
+ *
+ * <p>The file is opened in append mode on the first document. The
+ * simulations of a batch may share the file, so every line is written
+ * and flushed at once while the lock of the file is held.</p>
+ */
+public class FileResultSink implements IResultSink {
+
+	/**
+	 * Locks of the files, shared by the sinks of the same file.
+	 */
+	private static final ConcurrentHashMap<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+	private final String path;
+
+	private final Object lock;
+
+	private OutputStream output;
+
+	/**
+	 * @param path - path of the file
+	 */
+	public FileResultSink(String path) {
+		this.path = path;
+		this.lock = LOCKS.computeIfAbsent(path, p -> new Object());
+	}
+
+	@Override
+	public void write(Document document) {
+		byte[] line = (document.toJson() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+
+		synchronized (lock) {
+			try {
+				if (output == null) {
+					output = new FileOutputStream(path, true);
+				}
+
+				output.write(line);
+				output.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (lock) {
+			if (output != null) {
+				output.close();
+				output = null;
+			}
+		}
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	@Override
+	public String toString() {
+		return "File";
+	}
+}
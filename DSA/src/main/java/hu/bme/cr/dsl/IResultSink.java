@@ -0,0 +1,21 @@
+package hu.bme.cr.dsl;
+
+import java.io.Closeable;
+
+import org.bson.Document;
+
+/**
+ * <p>Destination of the documents persisted by a simulation.</p>
+ *
+ * <p>A sink is written by the simulation thread and opens its
+ * resources on the first document, so a simulation that does not
+ * persist anything does not connect anywhere. Closing the sink
+ * writes out every document written to it.</p>
+ */
+public interface IResultSink extends Closeable {
+
+	/**
+	 * @param document - document of the simulation, e.g. a phase
+	 */
+	public void write(Document document);
+}
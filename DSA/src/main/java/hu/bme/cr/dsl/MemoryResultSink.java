@@ -0,0 +1,37 @@
+package hu.bme.cr.dsl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.Document;
+
+/**
+ * Keeps the documents in memory, e.g. for tests and benchmarks.
+ */
+public class MemoryResultSink implements IResultSink {
+
+	private final List<Document> documents = Collections.synchronizedList(new ArrayList<>());
+
+	@Override
+	public void write(Document document) {
+		documents.add(document);
+	}
+
+	@Override
+	public void close() {
+
+	}
+
+	/**
+	 * @return the documents in the order of writing
+	 */
+	public List<Document> getDocuments() {
+		return documents;
+	}
+
+	@Override
+	public String toString() {
+		return "Memory";
+	}
+}
@@ -0,0 +1,35 @@
+package hu.bme.cr.dsl;
+
+import java.io.IOException;
+
+import org.bson.Document;
+
+/**
+ * Inserts the documents into the simulations collection of
+ * MongoDB in bulk. The DataStore connects on the first document.
+ */
+public class MongoResultSink implements IResultSink {
+
+	private DataStore ds;
+
+	@Override
+	public void write(Document document) {
+		if (ds == null) {
+			ds = new DataStore();
+		}
+
+		ds.getWriter().write(document);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (ds != null) {
+			ds.close();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "MongoDB";
+	}
+}
@@ -0,0 +1,141 @@
+package hu.bme.cr.engine;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import hu.bme.cr.strategies.StrategySpace;
+
+/**
+ * <p>Ground truth of the contention: the number of CognitiveRadios
+ * that access each channel in each strategy slot.</p>
+ *
+ * <p>The index is built in a single pass over the channels used by
+ * every radio in every slot, i.e. in O(R * S * C) with primitive
+ * counters. The number of users competing with a radio on a channel
+ * is the count of the channel minus the radio itself.</p>
+ */
+public class ChannelOccupancyIndex {
+
+	private final StrategySpace strategySpace;
+
+	private final int radioNumber;
+
+	private final int slots;
+
+	private final int channelNumber;
+
+	/**
+	 * Strategy played by every radio in every slot, index: radio * slots + slot.
+	 */
+	private final int[] decisions;
+
+	/**
+	 * Number of radios on every channel in every slot, index: slot * channelNumber + channel.
+	 */
+	private final int[] counts;
+
+	/**
+	 * @param strategySpace - strategy space of the radios
+	 * @param accessDecisions - strategy indexes played by each radio in each strategy slot
+	 * @throws IllegalArgumentException - if the counters do not fit in a Java array
+	 */
+	public ChannelOccupancyIndex(StrategySpace strategySpace, List<List<Integer>> accessDecisions) {
+		this.strategySpace = strategySpace;
+		this.radioNumber = accessDecisions.size();
+		this.slots = radioNumber > 0 ? accessDecisions.get(0).size() : 0;
+		this.channelNumber = strategySpace.getChannels();
+
+		if ((long) radioNumber * slots > Integer.MAX_VALUE - 8
+				|| (long) slots * channelNumber > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Channel occupancy of " + radioNumber + " radios, " + slots
+					+ " strategy slots and " + channelNumber + " channels is too large!");
+		}
+
+		this.decisions = new int[radioNumber * slots];
+		this.counts = new int[slots * channelNumber];
+
+		for (int k = 0; k < radioNumber; k++) {
+			List<Integer> decisionsOfRadio = accessDecisions.get(k);
+
+			for (int j = 0; j < slots; j++) {
+				int strategy = decisionsOfRadio.get(j);
+				decisions[k * slots + j] = strategy;
+
+				if (channelNumber <= Long.SIZE) {
+					for (long mask = strategySpace.getMask(strategy); mask != 0; mask &= mask - 1) {
+						counts[j * channelNumber + Long.numberOfTrailingZeros(mask)]++;
+					}
+				}
+				else {
+					BitSet set = strategySpace.getBitSet(strategy);
+
+					for (int c = set.nextSetBit(0); c >= 0; c = set.nextSetBit(c + 1)) {
+						counts[j * channelNumber + c]++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param slot - index of the strategy slot
+	 * @param channel - index of the channel
+	 * @return number of radios that access the channel in the slot
+	 */
+	public int getCount(int slot, int channel) {
+		return counts[slot * channelNumber + channel];
+	}
+
+	/**
+	 * @param radio - index of the CognitiveRadio
+	 * @param slot - index of the strategy slot
+	 * @param channel - index of the channel
+	 * @return number of other radios on the channel if the radio accesses it, 0 otherwise
+	 */
+	public int getCompetingUsers(int radio, int slot, int channel) {
+		return strategySpace.uses(decisions[radio * slots + slot], channel) ? getCount(slot, channel) - 1 : 0;
+	}
+
+	/**
+	 * Returns the competing users of the given radio for every
+	 * strategy of the strategy space. Strategies that the radio
+	 * did not play have no competing users.
+	 *
+	 * @param radio - index of the CognitiveRadio
+	 * @return competing users, (strategy, channel)
+	 */
+	public List<List<Integer>> getCompetingUsers(int radio) {
+		List<Integer> none = Collections.nCopies(channelNumber, 0);
+		List<List<Integer>> result = new ArrayList<>(Collections.nCopies(strategySpace.size(), none));
+
+		for (int j = 0; j < slots; j++) {
+			List<Integer> competing = new ArrayList<>(channelNumber);
+
+			for (int i = 0; i < channelNumber; i++) {
+				competing.add(getCompetingUsers(radio, j, i));
+			}
+
+			result.set(decisions[radio * slots + j], competing);
+		}
+
+		return result;
+	}
+
+	/*
+	 * Getters
+	 */
+
+	public int getRadioNumber() {
+		return radioNumber;
+	}
+
+	public int getSlots() {
+		return slots;
+	}
+
+	public int getChannelNumber() {
+		return channelNumber;
+	}
+}
@@ -0,0 +1,94 @@
+package hu.bme.cr.engine;
+
+import static hu.bme.cr.utilities.UtilityConstants.MODE_SWITCH_TIME;
+
+/**
+ * <p>A collection of static methods that decide the outcome of
+ * a CSMA channel access from the back off times of the radios.</p>
+ *
+ * <p>Radios that do not attempt to access the channel have a NaN
+ * back off time. The radio with the smallest back off time captures
+ * the channel if nobody else started to transmit before it could
+ * switch to transmission mode, otherwise there is a collision.</p>
+ *
+ * <p>The back off times are scanned once, tracking the smallest and
+ * second smallest value, so the resolution is O(R) and allocation free.</p>
+ */
+public class CollisionResolver {
+
+	/**
+	 * Outcome of a channel access where more than one radio transmitted.
+	 */
+	public static final int COLLISION = -1;
+
+	/**
+	 * Outcome of a channel access where no radio attempted to access the channel.
+	 */
+	public static final int IDLE = -2;
+
+	private CollisionResolver() {
+
+	}
+
+	/**
+	 * Resolves the channel access of a single channel.
+	 *
+	 * @param backoffs - back off times, NaN if the radio does not access the channel
+	 * @param offset - index of the first radio in backoffs
+	 * @param length - number of radios
+	 * @return index of the winner radio (relative to offset), COLLISION or IDLE
+	 */
+	public static int resolve(double[] backoffs, int offset, int length) {
+		return resolve(backoffs, offset, length, null, null, 0);
+	}
+
+	/**
+	 * Resolves the channel access of every channel of a subslot in one call.
+	 *
+	 * @param backoffs - back off times laid out as [channel * radioNumber + radio],
+	 * 			NaN if the radio does not access the channel
+	 * @param radioNumber - number of radios
+	 * @param channelNumber - number of channels
+	 * @param outcomes - output, index of the winner radio, COLLISION or IDLE for each channel
+	 * @param firstBackoffs - output (optional), smallest back off time for each channel
+	 * @param secondBackoffs - output (optional), second smallest back off time for each channel
+	 */
+	public static void resolveAll(double[] backoffs, int radioNumber, int channelNumber, int[] outcomes,
+								  double[] firstBackoffs, double[] secondBackoffs) {
+		for (int c = 0; c < channelNumber; c++) {
+			outcomes[c] = resolve(backoffs, c * radioNumber, radioNumber, firstBackoffs, secondBackoffs, c);
+		}
+	}
+
+	private static int resolve(double[] backoffs, int offset, int length,
+							   double[] firstBackoffs, double[] secondBackoffs, int channel) {
+		double first = Double.POSITIVE_INFINITY;
+		double second = Double.POSITIVE_INFINITY;
+		int winner = IDLE;
+
+		// NaN never compares less, so non-contenders are skipped
+		for (int i = 0; i < length; i++) {
+			double backoff = backoffs[offset + i];
+
+			if (backoff < first) {
+				second = first;
+				first = backoff;
+				winner = i;
+			}
+			else if (backoff < second) {
+				second = backoff;
+			}
+		}
+
+		if (firstBackoffs != null) {
+			firstBackoffs[channel] = first;
+			secondBackoffs[channel] = second;
+		}
+
+		if (winner == IDLE || first + MODE_SWITCH_TIME < second) {
+			return winner;
+		}
+
+		return COLLISION;
+	}
+}
@@ -0,0 +1,301 @@
+package hu.bme.cr.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * <p>Scratch storage of one contention experiment, i.e. the CSMA channel
+ * access of every CognitiveRadio in every subslot when a single
+ * strategy of the strategy space is played.</p>
+ *
+ * <p>Capture probabilities and channel captures are stored in flat
+ * primitive arrays indexed by (radio, channel, subslot). The buffer is
+ * allocated once and reused for every strategy and every round.</p>
+ */
+public class ContentionBuffer {
+
+	private final int radioNumber;
+
+	private final int channelNumber;
+
+	private final int subslots;
+
+	/**
+	 * Strategy index played by each radio in the current experiment.
+	 */
+	private final int[] strategies;
+
+	/**
+	 * Whether the radio accesses the channel in the current experiment,
+	 * laid out as [channel * radioNumber + radio].
+	 */
+	private final boolean[] access;
+
+	/**
+	 * Indexes of the radios that access the channel in the current
+	 * experiment, laid out as [channel * radioNumber + n] for the
+	 * first contenderCounts[channel] positions.
+	 */
+	private final int[] contenders;
+
+	/**
+	 * Number of radios that access the channel in the current experiment.
+	 */
+	private final int[] contenderCounts;
+
+	/**
+	 * Back off times of the radios in the current subslot, laid out as
+	 * [channel * radioNumber + radio], NaN if the radio does not access the channel.
+	 */
+	private final double[] backoffs;
+
+	/**
+	 * Outcome of the channel access on each channel in the current subslot.
+	 */
+	private final int[] outcomes;
+
+	/**
+	 * Smallest back off time on each channel in the current subslot.
+	 */
+	private final double[] firstBackoffs;
+
+	/**
+	 * Second smallest back off time on each channel in the current subslot.
+	 */
+	private final double[] secondBackoffs;
+
+	/**
+	 * Channel capture probabilities, size: radioNumber * channelNumber * subslots.
+	 */
+	private final double[] captureProbabilities;
+
+	/**
+	 * Bit set of successful channel captures, same indexing
+	 * as captureProbabilities.
+	 */
+	private final long[] captured;
+
+	/**
+	 * Per-channel scratch arrays of the utility calculation of a single
+	 * radio, i.e. its channel access, user estimates, channel capture
+	 * and collision probabilities. Overwritten for every radio.
+	 */
+	private final boolean[] radioAccess;
+
+	private final double[] contentions;
+
+	private final double[] channelCaptureProbabilities;
+
+	private final double[] collisionProbabilities;
+
+	public ContentionBuffer(int radioNumber, int channelNumber, int subslots) {
+		this.radioNumber = radioNumber;
+		this.channelNumber = channelNumber;
+		this.subslots = subslots;
+		this.strategies = new int[radioNumber];
+		this.access = new boolean[channelNumber * radioNumber];
+		this.contenders = new int[channelNumber * radioNumber];
+		this.contenderCounts = new int[channelNumber];
+		this.backoffs = new double[channelNumber * radioNumber];
+		this.outcomes = new int[channelNumber];
+		this.firstBackoffs = new double[channelNumber];
+		this.secondBackoffs = new double[channelNumber];
+		this.captureProbabilities = new double[radioNumber * channelNumber * subslots];
+		this.captured = new long[(captureProbabilities.length + 63) >>> 6];
+		this.radioAccess = new boolean[channelNumber];
+		this.contentions = new double[channelNumber];
+		this.channelCaptureProbabilities = new double[channelNumber];
+		this.collisionProbabilities = new double[channelNumber];
+	}
+
+	/**
+	 * Returns the position of the given subslot of the given
+	 * radio and channel in the captureProbabilities and captured arrays.
+	 *
+	 * @param radio - index of the CognitiveRadio
+	 * @param channel - index of the channel
+	 * @param subslot - index of the subslot
+	 * @return index in the flat arrays
+	 */
+	public int index(int radio, int channel, int subslot) {
+		return (radio * channelNumber + channel) * subslots + subslot;
+	}
+
+	public void setCaptureProbability(int radio, int channel, int subslot, double probability) {
+		captureProbabilities[index(radio, channel, subslot)] = probability;
+	}
+
+	public double getCaptureProbability(int radio, int channel, int subslot) {
+		return captureProbabilities[index(radio, channel, subslot)];
+	}
+
+	public void setCaptured(int radio, int channel, int subslot) {
+		int i = index(radio, channel, subslot);
+		captured[i >>> 6] |= 1L << i;
+	}
+
+	public boolean isCaptured(int radio, int channel, int subslot) {
+		int i = index(radio, channel, subslot);
+		return (captured[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * Sets which channels the given radio accesses in the current experiment.
+	 * The radios have to be set in increasing order after resetAccess.
+	 *
+	 * @param radio - index of the CognitiveRadio
+	 * @param mask - channels of the strategy of the radio, if there are at most 64 channels
+	 */
+	public void setAccess(int radio, long mask) {
+		for (; mask != 0; mask &= mask - 1) {
+			addContender(radio, Long.numberOfTrailingZeros(mask));
+		}
+	}
+
+	/**
+	 * Sets which channels the given radio accesses in the current experiment.
+	 * The radios have to be set in increasing order after resetAccess.
+	 *
+	 * @param radio - index of the CognitiveRadio
+	 * @param set - channels of the strategy of the radio
+	 */
+	public void setAccess(int radio, BitSet set) {
+		for (int c = set.nextSetBit(0); c >= 0; c = set.nextSetBit(c + 1)) {
+			addContender(radio, c);
+		}
+	}
+
+	private void addContender(int radio, int channel) {
+		access[channel * radioNumber + radio] = true;
+		contenders[channel * radioNumber + contenderCounts[channel]++] = radio;
+	}
+
+	/**
+	 * Resets the channel access and the contender lists
+	 * before the access of the radios is set.
+	 */
+	public void resetAccess() {
+		Arrays.fill(access, false);
+		Arrays.fill(contenderCounts, 0);
+	}
+
+	/**
+	 * Clears the channel captures and capture probabilities
+	 * before the next experiment. Radios that do not access a
+	 * channel keep a capture probability of 0.
+	 */
+	public void clear() {
+		Arrays.fill(captured, 0L);
+		Arrays.fill(captureProbabilities, 0.0);
+	}
+
+	/**
+	 * Copies the channel captures of the given radio on
+	 * the given channel to a list, e.g. to log them.
+	 *
+	 * @param radio - index of the CognitiveRadio
+	 * @param channel - index of the channel
+	 * @return channel captures in each subslot
+	 */
+	public List<Boolean> getCaptured(int radio, int channel) {
+		List<Boolean> result = new ArrayList<>(subslots);
+
+		for (int w = 0; w < subslots; w++) {
+			result.add(isCaptured(radio, channel, w));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Copies the capture probabilities of the given radio on
+	 * the given channel to a list, e.g. to log them.
+	 *
+	 * @param radio - index of the CognitiveRadio
+	 * @param channel - index of the channel
+	 * @return capture probabilities in each subslot
+	 */
+	public List<Double> getCaptureProbabilities(int radio, int channel) {
+		List<Double> result = new ArrayList<>(subslots);
+
+		for (int w = 0; w < subslots; w++) {
+			result.add(getCaptureProbability(radio, channel, w));
+		}
+
+		return result;
+	}
+
+	/*
+	 * Getters
+	 */
+
+	public int[] getStrategies() {
+		return strategies;
+	}
+
+	public boolean[] getAccess() {
+		return access;
+	}
+
+	public int[] getContenders() {
+		return contenders;
+	}
+
+	public int[] getContenderCounts() {
+		return contenderCounts;
+	}
+
+	public double[] getBackoffs() {
+		return backoffs;
+	}
+
+	public int[] getOutcomes() {
+		return outcomes;
+	}
+
+	public double[] getFirstBackoffs() {
+		return firstBackoffs;
+	}
+
+	public double[] getSecondBackoffs() {
+		return secondBackoffs;
+	}
+
+	public double[] getCaptureProbabilities() {
+		return captureProbabilities;
+	}
+
+	public long[] getCaptured() {
+		return captured;
+	}
+
+	public boolean[] getRadioAccess() {
+		return radioAccess;
+	}
+
+	public double[] getContentions() {
+		return contentions;
+	}
+
+	public double[] getChannelCaptureProbabilities() {
+		return channelCaptureProbabilities;
+	}
+
+	public double[] getCollisionProbabilities() {
+		return collisionProbabilities;
+	}
+
+	public int getRadioNumber() {
+		return radioNumber;
+	}
+
+	public int getChannelNumber() {
+		return channelNumber;
+	}
+
+	public int getSubslots() {
+		return subslots;
+	}
+}
@@ -0,0 +1,194 @@
+package hu.bme.cr.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import hu.bme.cr.random.SplitMixRandomSource;
+import hu.bme.cr.strategies.StrategySpace;
+
+/**
+ * <p>Cached results of the contention experiments of the
+ * incremental evaluation mode.</p>
+ *
+ * <p>The experiment of a radio on a channel only depends on the
+ * contender set of the channel, i.e. the radios that access the
+ * channel in the same strategy slot. The contender sets are hashed
+ * to fingerprints per (slot, channel). The utility and contentions
+ * of a strategy of a radio are reused while the fingerprints of the
+ * channels of the strategy are the same as when they were calculated,
+ * and a strategy slot is not played again if none of its radios has
+ * to recalculate and no channel with collisions changed its contenders.
+ * A channel with less than two contenders can not have collisions.</p>
+ *
+ * <p>A strategy of a radio is played in one slot per round and every
+ * other entry belongs to a single slot, so the slots can be played in parallel.</p>
+ */
+public class ContentionCache {
+
+	private final StrategySpace strategySpace;
+
+	private final int radioNumber;
+
+	private final int channelNumber;
+
+	/**
+	 * Contender set fingerprints when the utility of a strategy of a
+	 * radio was calculated, 0 if it was not, index: radio * slots + strategy.
+	 */
+	private final long[] keys;
+
+	/**
+	 * Radios that have to recalculate their utility in the slot, index: slot * radioNumber + radio.
+	 */
+	private final boolean[] changed;
+
+	/**
+	 * Contender set fingerprints, index: slot * channelNumber + channel.
+	 */
+	private final long[] fingerprints;
+
+	/**
+	 * Contender set fingerprints when the slot was last played, index: slot * channelNumber + channel.
+	 */
+	private final long[] playedFingerprints;
+
+	/**
+	 * Number of contenders, index: slot * channelNumber + channel.
+	 */
+	private final int[] contenders;
+
+	/**
+	 * Number of collisions when the slot was last played, index: slot * channelNumber + channel.
+	 */
+	private final int[] collisions;
+
+	/**
+	 * @param strategySpace - strategy space of the radios, i.e. number of slots
+	 * @param radioNumber - number of CognitiveRadios
+	 * @throws IllegalArgumentException - if the entries do not fit in a Java array
+	 */
+	public ContentionCache(StrategySpace strategySpace, int radioNumber) {
+		int slots = strategySpace.size();
+
+		if ((long) radioNumber * slots > Integer.MAX_VALUE - 8
+				|| (long) slots * strategySpace.getChannels() > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Contention cache of " + radioNumber + " radios, " + slots 
+					+ " strategies and " + strategySpace.getChannels() + " channels is too large!");
+		}
+
+		this.strategySpace = strategySpace;
+		this.radioNumber = radioNumber;
+		this.channelNumber = strategySpace.getChannels();
+		this.keys = new long[radioNumber * slots];
+		this.changed = new boolean[slots * radioNumber];
+		this.fingerprints = new long[slots * channelNumber];
+		this.playedFingerprints = new long[slots * channelNumber];
+		this.contenders = new int[slots * channelNumber];
+		this.collisions = new int[slots * channelNumber];
+	}
+
+	/**
+	 * Fingerprints the contender sets of the slot and decides which radios
+	 * have to recalculate their utility. If the slot has to be played, its
+	 * collision counts are reset for countCollision.
+	 *
+	 * @param slot - index of the strategy slot
+	 * @param strategies - strategy index played by each radio in the slot
+	 * @return true if the slot has to be played
+	 */
+	public boolean update(int slot, int[] strategies) {
+		int offset = slot * channelNumber;
+		boolean play = false;
+
+		Arrays.fill(fingerprints, offset, offset + channelNumber, 0L);
+		Arrays.fill(contenders, offset, offset + channelNumber, 0);
+
+		for (int k = 0; k < radioNumber; k++) {
+			long member = SplitMixRandomSource.mix64(k + 1);
+
+			if (channelNumber <= Long.SIZE) {
+				for (long mask = strategySpace.getMask(strategies[k]); mask != 0; mask &= mask - 1) {
+					int c = offset + Long.numberOfTrailingZeros(mask);
+					fingerprints[c] += member;
+					contenders[c]++;
+				}
+			}
+			else {
+				BitSet set = strategySpace.getBitSet(strategies[k]);
+
+				for (int c = set.nextSetBit(0); c >= 0; c = set.nextSetBit(c + 1)) {
+					fingerprints[offset + c] += member;
+					contenders[offset + c]++;
+				}
+			}
+		}
+
+		for (int k = 0; k < radioNumber; k++) {
+			int i = k * strategySpace.size() + strategies[k];
+			long key = 0L;
+
+			if (channelNumber <= Long.SIZE) {
+				for (long mask = strategySpace.getMask(strategies[k]); mask != 0; mask &= mask - 1) {
+					key = SplitMixRandomSource.mix64(key + fingerprints[offset + Long.numberOfTrailingZeros(mask)]);
+				}
+			}
+			else {
+				BitSet set = strategySpace.getBitSet(strategies[k]);
+
+				for (int c = set.nextSetBit(0); c >= 0; c = set.nextSetBit(c + 1)) {
+					key = SplitMixRandomSource.mix64(key + fingerprints[offset + c]);
+				}
+			}
+
+			changed[slot * radioNumber + k] = keys[i] != key;
+			play |= keys[i] != key;
+			keys[i] = key;
+		}
+
+		for (int c = offset; c < offset + channelNumber; c++) {
+			play |= contenders[c] > 1 && fingerprints[c] != playedFingerprints[c];
+		}
+
+		if (play) {
+			System.arraycopy(fingerprints, offset, playedFingerprints, offset, channelNumber);
+			Arrays.fill(collisions, offset, offset + channelNumber, 0);
+		}
+
+		return play;
+	}
+
+	/**
+	 * @param slot - index of the strategy slot
+	 * @param radio - index of the CognitiveRadio
+	 * @return true if the contender set of a channel of the strategy of the radio changed in the slot
+	 */
+	public boolean isChanged(int slot, int radio) {
+		return changed[slot * radioNumber + radio];
+	}
+
+	/**
+	 * Counts a collision of the played slot.
+	 *
+	 * @param slot - index of the strategy slot
+	 * @param channel - index of the channel
+	 */
+	public void countCollision(int slot, int channel) {
+		collisions[slot * channelNumber + channel]++;
+	}
+
+	/**
+	 * @param slot - index of the strategy slot
+	 * @return number of collisions in the slot with its current contender sets
+	 */
+	public int getCollisions(int slot) {
+		int result = 0;
+
+		for (int c = slot * channelNumber; c < (slot + 1) * channelNumber; c++) {
+			if (contenders[c] > 1) {
+				result += collisions[c];
+			}
+		}
+
+		return result;
+	}
+}
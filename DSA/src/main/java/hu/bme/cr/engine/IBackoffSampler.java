@@ -0,0 +1,26 @@
+package hu.bme.cr.engine;
+
+import hu.bme.cr.random.IRandomSource;
+
+/**
+ * <p>Represents the channel access of every channel in a single
+ * subslot of a contention experiment.</p>
+ *
+ * <p>An implementation reads which radios contend on which channel from
+ * the access and contender arrays of the ContentionBuffer and writes the
+ * outcome, the two smallest back off times of each channel and the capture
+ * probability of every contending radio in the given subslot.</p>
+ */
+public interface IBackoffSampler {
+
+	/**
+	 * Samples the back off times of the given subslot and resolves the channel access.
+	 *
+	 * @param buffer - scratch storage of the experiment
+	 * @param source - random source of the simulation
+	 * @param round - index of the round (phase) of the simulation
+	 * @param strategy - index of the strategy slot
+	 * @param subslot - index of the subslot
+	 */
+	void sample(ContentionBuffer buffer, IRandomSource source, long round, int strategy, int subslot);
+}
@@ -0,0 +1,132 @@
+package hu.bme.cr.engine;
+
+import static hu.bme.cr.utilities.UtilityConstants.MAX_BACKOFF;
+import static hu.bme.cr.utilities.UtilityConstants.MODE_SWITCH_TIME;
+
+import hu.bme.cr.metrics.MetricsRegistry;
+import hu.bme.cr.metrics.Stage;
+import hu.bme.cr.random.IRandomSource;
+import hu.bme.cr.utilities.ChannelUtility;
+
+/**
+ * <p>Samples only what the collision detection needs: the smallest and
+ * second smallest of k uniform back off times and the identity of the
+ * radios that drew them.</p>
+ *
+ * <ul>
+ * <li>The minimum of k uniforms on [0, 1) is 1 - (1 - U)^(1/k).</li>
+ * <li>Given the minimum m, the other k - 1 back off times are uniform on
+ * [m, 1), so the second smallest one is m + (1 - m)(1 - (1 - V)^(1/(k - 1))).</li>
+ * <li>The winner and the runner-up are uniform among the contenders.</li>
+ * <li>The other contenders drew a back off time uniform on [second, 1), so their
+ * capture probability is replaced by its expected value on that interval.</li>
+ * </ul>
+ *
+ * <p>A subslot costs a constant number of random draws per channel, plus
+ * a single store of the precomputed capture probability per contender.</p>
+ */
+public class OrderStatisticsBackoffSampler implements IBackoffSampler {
+
+	/*
+	 * Stream keys of the draws in place of the radio index.
+	 */
+	private static final int FIRST_DRAW = -1;
+
+	private static final int SECOND_DRAW = -2;
+
+	private static final int WINNER_DRAW = -3;
+
+	private static final int RUNNER_UP_DRAW = -4;
+
+	private final MetricsRegistry metrics;
+
+	public OrderStatisticsBackoffSampler() {
+		this(MetricsRegistry.disabled());
+	}
+
+	/**
+	 * @param metrics - times the draws of every subslot, which also resolve the channel access
+	 */
+	public OrderStatisticsBackoffSampler(MetricsRegistry metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void sample(ContentionBuffer buffer, IRandomSource source, long round, int strategy, int subslot) {
+		int radioNumber = buffer.getRadioNumber();
+		int channelNumber = buffer.getChannelNumber();
+		int[] contenders = buffer.getContenders();
+		int[] contenderCounts = buffer.getContenderCounts();
+		int[] outcomes = buffer.getOutcomes();
+		double[] firstBackoffs = buffer.getFirstBackoffs();
+		double[] secondBackoffs = buffer.getSecondBackoffs();
+		long start = metrics.start();
+
+		for (int i = 0; i < channelNumber; i++) {
+			int k = contenderCounts[i];
+			int offset = i * radioNumber;
+
+			firstBackoffs[i] = Double.POSITIVE_INFINITY;
+			secondBackoffs[i] = Double.POSITIVE_INFINITY;
+
+			if (k == 0) {
+				outcomes[i] = CollisionResolver.IDLE;
+				continue;
+			}
+
+			double first = MAX_BACKOFF * firstOrderStatistic(source.nextDouble(round, strategy, i, subslot, FIRST_DRAW), k);
+			int winnerPosition = (int) (source.nextDouble(round, strategy, i, subslot, WINNER_DRAW) * k);
+			int winner = contenders[offset + winnerPosition];
+
+			firstBackoffs[i] = first;
+			buffer.setCaptureProbability(winner, i, subslot, ChannelUtility.calculateChannelCaptureProbability(first));
+
+			if (k == 1) {
+				outcomes[i] = winner;
+				continue;
+			}
+
+			double second = first + (MAX_BACKOFF - first)
+					* firstOrderStatistic(source.nextDouble(round, strategy, i, subslot, SECOND_DRAW), k - 1);
+			int runnerUpPosition = (int) (source.nextDouble(round, strategy, i, subslot, RUNNER_UP_DRAW) * (k - 1));
+
+			if (runnerUpPosition >= winnerPosition) {
+				runnerUpPosition++;
+			}
+
+			secondBackoffs[i] = second;
+			buffer.setCaptureProbability(contenders[offset + runnerUpPosition], i, subslot,
+					ChannelUtility.calculateChannelCaptureProbability(second));
+
+			// every other contender drew a back off time on [second, MAX_BACKOFF)
+			double rest = ChannelUtility.calculateExpectedChannelCaptureProbability(second);
+
+			for (int p = 0; p < k; p++) {
+				if (p != winnerPosition && p != runnerUpPosition) {
+					buffer.setCaptureProbability(contenders[offset + p], i, subslot, rest);
+				}
+			}
+
+			outcomes[i] = first + MODE_SWITCH_TIME < second ? winner : CollisionResolver.COLLISION;
+		}
+
+		metrics.stop(Stage.BACKOFF, start);
+	}
+
+	/**
+	 * Transforms a uniform random number to the
+	 * minimum of k uniform random numbers on [0, 1).
+	 *
+	 * @param u - uniform random number on [0, 1)
+	 * @param k - number of uniform random numbers
+	 * @return the first order statistic
+	 */
+	static double firstOrderStatistic(double u, int k) {
+		return 1 - Math.pow(1 - u, 1.0 / k);
+	}
+
+	@Override
+	public String toString() {
+		return "OrderStatistics";
+	}
+}
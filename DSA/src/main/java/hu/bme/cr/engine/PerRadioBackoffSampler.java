@@ -0,0 +1,69 @@
+package hu.bme.cr.engine;
+
+import static hu.bme.cr.utilities.UtilityConstants.MAX_BACKOFF;
+
+import hu.bme.cr.metrics.MetricsRegistry;
+import hu.bme.cr.metrics.Stage;
+import hu.bme.cr.random.IRandomSource;
+import hu.bme.cr.utilities.ChannelUtility;
+import hu.bme.cr.utilities.CognitiveRadioUtility;
+
+/**
+ * <p>Draws a back off time for every contending radio on every
+ * channel and resolves the channel access with the CollisionResolver.</p>
+ *
+ * <p>The cost of a subslot is O(k) for k contenders on a channel.</p>
+ */
+public class PerRadioBackoffSampler implements IBackoffSampler {
+
+	private final MetricsRegistry metrics;
+
+	public PerRadioBackoffSampler() {
+		this(MetricsRegistry.disabled());
+	}
+
+	/**
+	 * @param metrics - times the draws and the resolution of every subslot
+	 */
+	public PerRadioBackoffSampler(MetricsRegistry metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void sample(ContentionBuffer buffer, IRandomSource source, long round, int strategy, int subslot) {
+		int radioNumber = buffer.getRadioNumber();
+		int channelNumber = buffer.getChannelNumber();
+		boolean[] access = buffer.getAccess();
+		double[] backoffs = buffer.getBackoffs();
+		long start = metrics.start();
+
+		for (int i = 0; i < channelNumber; i++) {
+			for (int k = 0; k < radioNumber; k++) {
+
+				// if the radio can access given channel than we generate a backoff time
+				if (access[i * radioNumber + k]) {
+					double backOff = CognitiveRadioUtility.generateBackOff(source, MAX_BACKOFF, round, strategy, i, subslot, k);
+					backoffs[i * radioNumber + k] = backOff;
+
+					buffer.setCaptureProbability(k, i, subslot, ChannelUtility.calculateChannelCaptureProbability(backOff));
+				}
+				// if not than we store NaN
+				else {
+					backoffs[i * radioNumber + k] = Double.NaN;
+				}
+			}
+		}
+
+		start = metrics.lap(Stage.BACKOFF, start);
+
+		CollisionResolver.resolveAll(backoffs, radioNumber, channelNumber, buffer.getOutcomes(),
+				buffer.getFirstBackoffs(), buffer.getSecondBackoffs());
+
+		metrics.stop(Stage.COLLISION_RESOLUTION, start);
+	}
+
+	@Override
+	public String toString() {
+		return "PerRadio";
+	}
+}
@@ -0,0 +1,267 @@
+package hu.bme.cr.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import hu.bme.cr.strategies.StrategySpace;
+import hu.bme.cr.utilities.ListUtility;
+
+/**
+ * <p>Flat primitive storage of the state that survives a whole
+ * decision period, i.e. the contention (user number) estimates
+ * of every CognitiveRadio for every strategy of the strategy space.</p>
+ *
+ * <p>The estimates are stored in a single array indexed by
+ * (radio, strategy, n), where n is the rank of the channel among the
+ * channels of the strategy, therefore the simulation does not box or
+ * allocate anything while it fills them. A radio has no contention on
+ * the channels it does not access, so the estimate of an unused channel
+ * is 0 and only maxChannels values are stored per strategy instead of
+ * one per channel.</p>
+ *
+ * <p>In the sampled evaluation mode the state also keeps the
+ * importance-weighted running utility estimates of every radio
+ * for every strategy, which survive the decision periods.</p>
+ */
+public class SimulationState {
+
+	private final StrategySpace strategySpace;
+
+	private final int radioNumber;
+
+	private final int strategySpaceSize;
+
+	private final int channelNumber;
+
+	private final int maxChannels;
+
+	/**
+	 * Contention estimates on the channels of the strategies, 
+	 * size: radioNumber * strategySpaceSize * maxChannels.
+	 */
+	private final double[] contentions;
+
+	/**
+	 * Running utility estimates, size: radioNumber * strategySpaceSize,
+	 * null if the strategies are evaluated exhaustively.
+	 */
+	private final double[] estimates;
+
+	/**
+	 * Number of rounds folded into the estimates of each radio.
+	 */
+	private final int[] estimatedRounds;
+
+	public SimulationState(int radioNumber, StrategySpace strategySpace) {
+		this(radioNumber, strategySpace, false);
+	}
+
+	/**
+	 * @param radioNumber - number of CognitiveRadios
+	 * @param strategySpace - strategy space of the radios
+	 * @param sampled - true to keep utility estimates for the sampled evaluation mode
+	 * @throws IllegalArgumentException - if the estimates do not fit in a Java array
+	 */
+	public SimulationState(int radioNumber, StrategySpace strategySpace, boolean sampled) {
+		long size = (long) radioNumber * strategySpace.size() * strategySpace.getMaxChannels();
+
+		if (size > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Contention estimates of " + radioNumber + " radios and "
+					+ strategySpace.size() + " strategies are too many!");
+		}
+
+		this.strategySpace = strategySpace;
+		this.radioNumber = radioNumber;
+		this.strategySpaceSize = strategySpace.size();
+		this.channelNumber = strategySpace.getChannels();
+		this.maxChannels = strategySpace.getMaxChannels();
+		this.contentions = new double[(int) size];
+		this.estimates = sampled ? new double[radioNumber * strategySpaceSize] : null;
+		this.estimatedRounds = sampled ? new int[radioNumber] : null;
+	}
+
+	/**
+	 * Estimates the memory the simulation of the given size needs for
+	 * the contention estimates of this class and for the utilities and
+	 * regrets of the radios, each of them a double per strategy.
+	 *
+	 * @param radioNumber - number of CognitiveRadios
+	 * @param strategySpace - strategy space of the radios
+	 * @return estimated size in bytes
+	 */
+	public static long estimateBytes(int radioNumber, StrategySpace strategySpace) {
+		return Double.BYTES * radioNumber * (long) strategySpace.size() * (strategySpace.getMaxChannels() + 2);
+	}
+
+	/**
+	 * Returns the position of the first contention estimate of
+	 * the given radio when it plays the given strategy.
+	 *
+	 * @param radio - index of the CognitiveRadio
+	 * @param strategy - index of the strategy in the strategy space
+	 * @return index in the contentions array
+	 */
+	public int index(int radio, int strategy) {
+		return (radio * strategySpaceSize + strategy) * maxChannels;
+	}
+
+	/**
+	 * @param radio - index of the CognitiveRadio
+	 * @param strategy - index of the strategy in the strategy space
+	 * @param channel - index of the channel
+	 * @return contention estimate of the radio on the channel, 0 if the strategy does not use the channel
+	 */
+	public double getContention(int radio, int strategy, int channel) {
+		if (!strategySpace.uses(strategy, channel)) {
+			return 0.0;
+		}
+
+		int rank;
+		if (channelNumber <= Long.SIZE) {
+			rank = Long.bitCount(strategySpace.getMask(strategy) & ((1L << channel) - 1));
+		}
+		else {
+			rank = strategySpace.getBitSet(strategy).get(0, channel).cardinality();
+		}
+
+		return contentions[index(radio, strategy) + rank];
+	}
+
+	/**
+	 * Stores the contention estimates of the radio on the
+	 * channels it accesses when it plays the given strategy.
+	 *
+	 * @param radio - index of the CognitiveRadio
+	 * @param strategy - index of the strategy in the strategy space
+	 * @param channelContentions - contention estimate on every channel
+	 * @param access - channels accessed by the strategy
+	 */
+	public void setContentions(int radio, int strategy, double[] channelContentions, boolean[] access) {
+		int i = index(radio, strategy);
+
+		for (int c = 0; c < channelNumber; c++) {
+			if (access[c]) {
+				contentions[i++] = channelContentions[c];
+			}
+		}
+	}
+
+	/**
+	 * Copies the contention estimates of the radio on the given
+	 * strategy to an array of a value per channel.
+	 *
+	 * @param radio - index of the CognitiveRadio
+	 * @param strategy - index of the strategy in the strategy space
+	 * @param channelContentions - destination, 0 on the channels not used by the strategy
+	 */
+	public void getContentions(int radio, int strategy, double[] channelContentions) {
+		Arrays.fill(channelContentions, 0, channelNumber, 0.0);
+		int i = index(radio, strategy);
+
+		if (channelNumber <= Long.SIZE) {
+			for (long mask = strategySpace.getMask(strategy); mask != 0; mask &= mask - 1) {
+				channelContentions[Long.numberOfTrailingZeros(mask)] = contentions[i++];
+			}
+		}
+		else {
+			BitSet set = strategySpace.getBitSet(strategy);
+
+			for (int c = set.nextSetBit(0); c >= 0; c = set.nextSetBit(c + 1)) {
+				channelContentions[c] = contentions[i++];
+			}
+		}
+	}
+
+	/**
+	 * Resets every contention estimate to 0 at the end of a decision period.
+	 */
+	public void clearContentions() {
+		Arrays.fill(contentions, 0.0);
+	}
+
+	/**
+	 * Folds the utilities observed by the radio in this round into its
+	 * running utility estimates, then writes the estimates back to the
+	 * utilities, so that the strategy of the radio decides on them.
+	 *
+	 * <p>The first evaluated strategy is the played one, which is observed
+	 * with probability 1, the others are observed with the given probability.
+	 * An observation is weighted by the inverse of its probability and an
+	 * unevaluated strategy is observed as 0, so every estimate is an unbiased
+	 * average of the utilities of the strategy over the rounds.</p>
+	 *
+	 * @param radio - index of the CognitiveRadio
+	 * @param utilities - utilities of the radio, valid for the evaluated strategies
+	 * @param evaluated - strategies evaluated by the radio in this round, the played one first
+	 * @param probability - probability of evaluating a strategy other than the played one
+	 */
+	public void estimateUtilities(int radio, double[] utilities, List<Integer> evaluated, double probability) {
+		if (estimates == null) {
+			throw new IllegalStateException("Utilities are not estimated in exhaustive evaluation mode!");
+		}
+
+		int offset = radio * strategySpaceSize;
+		double step = 1.0 / ++estimatedRounds[radio];
+
+		for (int s = offset; s < offset + strategySpaceSize; s++) {
+			estimates[s] -= step * estimates[s];
+		}
+
+		for (int j = 0; j < evaluated.size(); j++) {
+			int strategy = evaluated.get(j);
+			estimates[offset + strategy] += step * utilities[strategy] / (j == 0 ? 1.0 : probability);
+		}
+
+		System.arraycopy(estimates, offset, utilities, 0, strategySpaceSize);
+	}
+
+	/**
+	 * Copies the contention estimates of the given radio to a
+	 * 2-dimensional list (strategy, channel), e.g. to persist them.
+	 *
+	 * @param radio - index of the CognitiveRadio
+	 * @return contention estimates of the radio for every strategy
+	 */
+	public List<List<Double>> getContentions(int radio) {
+		List<List<Double>> result = new ArrayList<>(strategySpaceSize);
+
+		for (int s = 0; s < strategySpaceSize; s++) {
+			result.add(getContentions(radio, s));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Copies the contention estimates of the given radio
+	 * on the given strategy to a list.
+	 *
+	 * @param radio - index of the CognitiveRadio
+	 * @param strategy - index of the strategy in the strategy space
+	 * @return contention estimate on every channel
+	 */
+	public List<Double> getContentions(int radio, int strategy) {
+		double[] channelContentions = new double[channelNumber];
+		getContentions(radio, strategy, channelContentions);
+
+		return ListUtility.toList(channelContentions);
+	}
+
+	/*
+	 * Getters
+	 */
+
+	public int getRadioNumber() {
+		return radioNumber;
+	}
+
+	public int getStrategySpaceSize() {
+		return strategySpaceSize;
+	}
+
+	public int getChannelNumber() {
+		return channelNumber;
+	}
+}
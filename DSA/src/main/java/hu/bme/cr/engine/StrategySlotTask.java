@@ -0,0 +1,47 @@
+package hu.bme.cr.engine;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>Fork-join task that plays the strategy slots of the
+ * [from, to) range by splitting it in halves until every
+ * subtask holds a single slot.</p>
+ *
+ * <p>Each slot is an independent contention experiment,
+ * so the slots can be played in any order by any worker.</p>
+ */
+public class StrategySlotTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int from;
+
+	private final int to;
+
+	private final IntConsumer slot;
+
+	/**
+	 * @param from - index of the first strategy slot (inclusive)
+	 * @param to - index of the last strategy slot (exclusive)
+	 * @param slot - plays the given strategy slot
+	 */
+	public StrategySlotTask(int from, int to, IntConsumer slot) {
+		this.from = from;
+		this.to = to;
+		this.slot = slot;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from <= 1) {
+			for (int s = from; s < to; s++) {
+				slot.accept(s);
+			}
+		}
+		else {
+			int middle = (from + to) >>> 1;
+			invokeAll(new StrategySlotTask(from, middle, slot), new StrategySlotTask(middle, to, slot));
+		}
+	}
+}
@@ -1,10 +1,14 @@
 package hu.bme.cr.entity;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import hu.bme.cr.strategies.IStrategy;
 import hu.bme.cr.strategies.StrategyParameters;
+import hu.bme.cr.strategies.StrategySpace;
 import hu.bme.cr.uf.IUtilityFunction;
 import hu.bme.cr.uf.UtilityFunctionParameters;
 
@@ -31,11 +35,6 @@ public class CognitiveRadio {
 	 */
 	private double demand;
 	
-	/**
-	 * The number of channels that the ith player can access in a time slot.
-	 */
-	private static int maxChannels;
-	
 	/**
 	 * The strategy played by the ith player, which can be:
 	 * <ul>
@@ -62,25 +61,6 @@ public class CognitiveRadio {
 	 */
 	private List<Integer> accessDecisions;
 	
-	/**
-	 * List of probabilites that the CognitiveRadio
-	 * captures the channel at subslot w, where
-	 * w = 1, 2, ... W.
-	 */
-	private List<List<Double>> captureProbabilities;
-	
-	/**
-	 * List whether the CognitiveRadio captured
-	 * the channel at subslot w.
-	 */
-	private List<List<Boolean>> captured;
-	
-	/**
-	 * Contention estimate vector for the ith player.
-	 * It stores the user number estimates for each channel. 
-	 */
-	private List<List<Double>> contentions;
-	
 	/**
 	 * We have to know the utilities of every strategies
 	 * from the strategy space (those which the Cognitive Radio
@@ -89,20 +69,25 @@ public class CognitiveRadio {
 	 * 
 	 * Size: size of the strategy space
 	 */
-	private List<Double> utilities;
+	private double[] utilities;
 	
 	/**
 	 * The mean regret of each channel.
 	 */
-	private List<Double> regrets;
+	private double[] regrets;
 	
 	/**
-	 * Strategy space of the user, which is calculated
-	 * by the StrategySpace class. It is given by the
-	 * maximal number of channels that the user can access,
-	 * i.e. maxChannels.
+	 * Strategy space of the user, which is shared by the users
+	 * of the simulation. It is given by the maximal number of 
+	 * channels that the user can access, i.e. maxChannels.
 	 */
-	private static List<List<Boolean>> strategySpace = new ArrayList<>();
+	private StrategySpace strategySpace;
+	
+	/**
+	 * Random number generator of the user, which shuffles
+	 * the strategies and breaks the ties of their ranking.
+	 */
+	private Random random;
 	
 	/**
 	 * Constructor that uses the services of its Builder class.
@@ -114,11 +99,10 @@ public class CognitiveRadio {
 		this.strategy = builder.strategy;
 		this.utilityFunction = builder.utilityFunction;
 		this.accessDecisions = builder.accessDecisions;
-		this.captureProbabilities = builder.captureProbabilities;
-		this.captured = builder.captured;
-		this.contentions = builder.contentions;
 		this.utilities = builder.utilities;
 		this.regrets = builder.regrets;
+		this.strategySpace = builder.strategySpace;
+		this.random = builder.random != null ? builder.random : new Random();
 	}
 	
 	/**
@@ -126,27 +110,63 @@ public class CognitiveRadio {
 	 */
 	public void playInitPhase() {
 		// set the channel access decision
-		accessDecisions = strategy.decideInInitPhase(strategySpace.size());
+		accessDecisions = strategy.decideInInitPhase(strategySpace.size(), random);
 	}
 	
 	// TODO
 	public void playSetPhase() {
-		StrategyParameters output = strategy.decideInSetPhase(new StrategyParameters(utilities, regrets, strategySpace.size(), accessDecisions.get(0), 1));
+		StrategyParameters output = strategy.decideInSetPhase(new StrategyParameters(utilities, regrets, strategySpace.size(), accessDecisions.get(0), 1, random));
 		this.accessDecisions = output.getStrategyIndexes();
 		this.regrets = output.getRegrets();
 	}
 	
 	// TODO
 	public void playDecidePhase(int r) {
-		StrategyParameters output = strategy.decide(new StrategyParameters(utilities, regrets, strategySpace.size(), accessDecisions.get(0), r));
+		StrategyParameters output = strategy.decide(new StrategyParameters(utilities, regrets, strategySpace.size(), accessDecisions.get(0), r, random));
 		this.accessDecisions = output.getStrategyIndexes();
 		this.regrets = output.getRegrets();
 	}
 	
+	/**
+	 * Keeps the strategy to play and samples k of the other strategies
+	 * uniformly without replacement (Floyd's algorithm) to evaluate 
+	 * in the sampled evaluation mode, so each of them is evaluated with 
+	 * probability k / (size of the strategy space - 1).
+	 * 
+	 * @param k - number of exploratory strategies, less than the size of the strategy space
+	 */
+	public void sampleStrategies(int k) {
+		int current = accessDecisions.get(0);
+		int others = strategySpace.size() - 1;
+		List<Integer> sampled = new ArrayList<>(k + 1);
+		Set<Integer> chosen = new HashSet<>(2 * k);
+		
+		sampled.add(current);
+		for (int j = others - k; j < others; j++) {
+			int t = random.nextInt(j + 1);
+			
+			if (!chosen.add(t)) {
+				chosen.add(j);
+				t = j;
+			}
+			
+			// skip the strategy to play
+			sampled.add(t < current ? t : t + 1);
+		}
+		
+		accessDecisions = sampled;
+	}
+	
 	public double calculateUtility(UtilityFunctionParameters params) {
 		return utilityFunction.calculateUtility(params);
 	}
 	
+	public double calculateUtility(double[] transmissionRates, boolean[] channelAccess, 
+			double[] contentions, double[] captureProbabilities, double[] collisionProbabilities) {
+		return utilityFunction.calculateUtility(demand, transmissionRates, channelAccess, 
+				contentions, captureProbabilities, collisionProbabilities);
+	}
+	
 	/*
 	 * Getters and setters
 	 */
@@ -155,8 +175,8 @@ public class CognitiveRadio {
 		return demand;
 	}
 
-	public static int getMaxChannels() {
-		return maxChannels;
+	public int getMaxChannels() {
+		return strategySpace.getMaxChannels();
 	}
 
 	public IStrategy getStrategy() {
@@ -171,10 +191,6 @@ public class CognitiveRadio {
 		this.demand = demand;
 	}
 
-	public static void setMaxChannels(int maxChannels) {
-		CognitiveRadio.maxChannels = maxChannels;
-	}
-
 	public void setStrategy(IStrategy strategy) {
 		this.strategy = strategy;
 	}
@@ -183,43 +199,35 @@ public class CognitiveRadio {
 		this.accessDecisions = accessDecisions;
 	}
 
-	public List<List<Double>> getCaptureProbabilities() {
-		return captureProbabilities;
-	}
-
-	public void setCaptureProbabilities(List<List<Double>> captureProbabilities) {
-		this.captureProbabilities = captureProbabilities;
+	public double[] getUtilities() {
+		return utilities;
 	}
 
-	public List<List<Double>> getContentions() {
-		return contentions;
+	public void setUtilities(double[] utilities) {
+		this.utilities = utilities;
 	}
 
-	public void setContentions(List<List<Double>> contentions) {
-		this.contentions = contentions;
+	public StrategySpace getStrategySpace() {
+		return strategySpace;
 	}
 
-	public List<Double> getUtilities() {
-		return utilities;
+	public void setStrategySpace(StrategySpace strategySpace) {
+		this.strategySpace = strategySpace;
 	}
 
-	public void setUtilities(List<Double> utilities) {
-		this.utilities = utilities;
+	public Random getRandom() {
+		return random;
 	}
 
-	public static List<List<Boolean>> getStrategySpace() {
-		return strategySpace;
+	public void setRandom(Random random) {
+		this.random = random;
 	}
 
-	public static void setStrategySpace(List<List<Boolean>> strategySpace) {
-		CognitiveRadio.strategySpace = strategySpace;
-	}
-
-	public List<Double> getRegrets() {
+	public double[] getRegrets() {
 		return regrets;
 	}
 
-	public void setRegrets(List<Double> regrets) {
+	public void setRegrets(double[] regrets) {
 		this.regrets = regrets;
 	}
 
@@ -230,14 +238,6 @@ public class CognitiveRadio {
 	public void setUtilityFunction(IUtilityFunction utilityFunction) {
 		this.utilityFunction = utilityFunction;
 	}
-	
-	public List<List<Boolean>> getCaptured() {
-		return captured;
-	}
-
-	public void setCaptured(List<List<Boolean>> captured) {
-		this.captured = captured;
-	}
 
 	@Override
 	public String toString() {
@@ -260,11 +260,10 @@ public class CognitiveRadio {
 		private IStrategy strategy;
 		private IUtilityFunction utilityFunction;
 		private List<Integer> accessDecisions;
-		private List<List<Double>> captureProbabilities;
-		private List<List<Boolean>> captured;
-		private List<List<Double>> contentions;
-		private List<Double> utilities;
-		private List<Double> regrets;
+		private double[] utilities;
+		private double[] regrets;
+		private StrategySpace strategySpace;
+		private Random random;
 		
 		public CognitiveRadioBuilder() {
 			
@@ -275,11 +274,10 @@ public class CognitiveRadio {
 			this.strategy = builder.strategy;
 			this.utilityFunction = builder.utilityFunction;
 			this.accessDecisions = builder.accessDecisions;
-			this.captureProbabilities = builder.captureProbabilities;
-			this.captured = builder.captured;
-			this.contentions = builder.contentions;
 			this.utilities = builder.utilities;
 			this.regrets = builder.regrets;
+			this.strategySpace = builder.strategySpace;
+			this.random = builder.random;
 		}
 		
 		public CognitiveRadioBuilder setDemand(double demand) {
@@ -302,28 +300,23 @@ public class CognitiveRadio {
 			return this;
 		}
 
-		public CognitiveRadioBuilder setCaptureProbabilities(List<List<Double>> captureProbabilities) {
-			this.captureProbabilities = captureProbabilities;
-			return this;
-		}
-
-		public CognitiveRadioBuilder setContentions(List<List<Double>> contentions) {
-			this.contentions = contentions;
+		public CognitiveRadioBuilder setUtilities(double[] utilities) {
+			this.utilities = utilities;
 			return this;
 		}
 		
-		public CognitiveRadioBuilder setUtilities(List<Double> utilities) {
-			this.utilities = utilities;
+		public CognitiveRadioBuilder setRegrets(double[] regrets) {
+			this.regrets = regrets;
 			return this;
 		}
 		
-		public CognitiveRadioBuilder setRegrets(List<Double> regrets) {
-			this.regrets = regrets;
+		public CognitiveRadioBuilder setStrategySpace(StrategySpace strategySpace) {
+			this.strategySpace = strategySpace;
 			return this;
 		}
 		
-		public CognitiveRadioBuilder setCaptured(List<List<Boolean>> captured) {
-			this.captured = captured;
+		public CognitiveRadioBuilder setRandom(Random random) {
+			this.random = random;
 			return this;
 		}
 		
@@ -0,0 +1,32 @@
+package hu.bme.cr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Results written to the result sink: a phase persisted by 
+ * the simulation or a batch inserted by the BulkDocumentWriter.
+ */
+@Name("hu.bme.cr.Persistence")
+@Label("Persistence Flush")
+@Category({"Cognitive Radio", "Persistence"})
+@Description("Phase persisted by the simulation or batch of documents inserted in bulk")
+public class PersistenceEvent extends Event {
+
+	@Label("Phase")
+	@Description("Persisted phase, null for a bulk insert")
+	public String phase;
+
+	@Label("Documents")
+	@Description("Documents of a bulk insert, 0 for a phase")
+	public int documents;
+
+	@Label("Radios")
+	public int radios;
+
+	@Label("Channels")
+	public int channels;
+}
@@ -0,0 +1,38 @@
+package hu.bme.cr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A phase of the simulation: the init phase, the set phase or a normal
+ * phase, from the decisions of the radios to the end of its play.
+ */
+@Name("hu.bme.cr.Phase")
+@Label("Simulation Phase")
+@Category({"Cognitive Radio", "Simulation"})
+@Description("Init, set or normal phase of a cognitive radio simulation")
+public class PhaseEvent extends Event {
+
+	@Label("Phase")
+	public String phase;
+
+	@Label("Round")
+	@Description("0 - init phase, 1 - set phase, r + 2 - normal phase r")
+	public long round;
+
+	@Label("Radios")
+	public int radios;
+
+	@Label("Channels")
+	public int channels;
+
+	@Label("Strategy Space Size")
+	public int strategySpaceSize;
+
+	@Label("Collisions")
+	@Description("Collisions of every strategy slot of the phase")
+	public long collisions;
+}
@@ -0,0 +1,39 @@
+package hu.bme.cr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The contention experiment of a strategy slot, played by CRSystem.play.
+ * There are many of them in a round, so they are recorded without stack trace.
+ */
+@Name("hu.bme.cr.StrategySlot")
+@Label("Strategy Slot")
+@Category({"Cognitive Radio", "Simulation"})
+@Description("Contention experiment of a strategy slot")
+@StackTrace(false)
+public class StrategySlotEvent extends Event {
+
+	@Label("Round")
+	public long round;
+
+	@Label("Strategy Slot")
+	@Description("Index of the slot in the strategy orders of the radios")
+	public int slot;
+
+	@Label("Radios")
+	public int radios;
+
+	@Label("Channels")
+	public int channels;
+
+	@Label("Subslots")
+	public int subslots;
+
+	@Label("Collisions")
+	public int collisions;
+}
@@ -0,0 +1,121 @@
+package hu.bme.cr.metrics;
+
+/**
+ * <p>Times the stages of the simulation.</p>
+ *
+ * <p>A stage is timed by taking the start time before it and
+ * passing it to stop after it:</p>
+ *
+ * <pre>
+ * long start = metrics.start();
+ * ...
+ * metrics.stop(Stage.UTILITY, start);
+ * </pre>
+ *
+ * <p>The disabled registry neither reads the clock nor records 
+ * anything, so the timed code costs a branch when it is switched off.
+ * The registry can be shared by threads, see StageTimer.</p>
+ */
+public class MetricsRegistry {
+
+	private static final MetricsRegistry DISABLED = new MetricsRegistry(false);
+
+	private final boolean enabled;
+
+	private final StageTimer[] timers;
+
+	public MetricsRegistry() {
+		this(true);
+	}
+
+	private MetricsRegistry(boolean enabled) {
+		this.enabled = enabled;
+		this.timers = new StageTimer[Stage.values().length];
+
+		if (enabled) {
+			for (Stage stage : Stage.values()) {
+				timers[stage.ordinal()] = new StageTimer();
+			}
+		}
+	}
+
+	/**
+	 * Returns the registry that records nothing.
+	 *
+	 * @return disabled registry
+	 */
+	public static MetricsRegistry disabled() {
+		return DISABLED;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return start time of a stage, 0 if the registry is disabled
+	 */
+	public long start() {
+		return enabled ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * Records the stage that started at the given time.
+	 *
+	 * @param stage - the timed stage
+	 * @param start - return value of start
+	 */
+	public void stop(Stage stage, long start) {
+		if (enabled) {
+			timers[stage.ordinal()].record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Records the stage that started at the given time and
+	 * starts the next one, which follows it immediately.
+	 *
+	 * @param stage - the timed stage
+	 * @param start - return value of start or lap
+	 * @return start time of the next stage
+	 */
+	public long lap(Stage stage, long start) {
+		if (!enabled) {
+			return 0L;
+		}
+
+		long now = System.nanoTime();
+		timers[stage.ordinal()].record(now - start);
+
+		return now;
+	}
+
+	/**
+	 * Records a stage timed by the caller.
+	 *
+	 * @param stage - the timed stage
+	 * @param nanos - duration of the stage
+	 */
+	public void record(Stage stage, long nanos) {
+		if (enabled) {
+			timers[stage.ordinal()].record(nanos);
+		}
+	}
+
+	/**
+	 * Stages recorded at the same time may or may not be part of the snapshot.
+	 *
+	 * @return the statistics of every stage recorded so far
+	 */
+	public MetricsSnapshot snapshot() {
+		MetricsSnapshot.StageStatistics[] statistics = new MetricsSnapshot.StageStatistics[timers.length];
+
+		for (Stage stage : Stage.values()) {
+			statistics[stage.ordinal()] = enabled 
+					? timers[stage.ordinal()].snapshot(stage) 
+					: new MetricsSnapshot.StageStatistics(stage, 0, 0, 0, new long[StageTimer.BUCKETS]);
+		}
+
+		return new MetricsSnapshot(statistics);
+	}
+}
@@ -0,0 +1,142 @@
+package hu.bme.cr.metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.Document;
+
+/**
+ * Statistics of every stage at the time of MetricsRegistry.snapshot.
+ */
+public class MetricsSnapshot {
+
+	private final List<StageStatistics> stages;
+
+	MetricsSnapshot(StageStatistics[] stages) {
+		this.stages = Collections.unmodifiableList(Arrays.asList(stages));
+	}
+
+	public List<StageStatistics> getStages() {
+		return stages;
+	}
+
+	public StageStatistics get(Stage stage) {
+		return stages.get(stage.ordinal());
+	}
+
+	/**
+	 * @return document with a sub document per stage, e.g. to persist with the simulation
+	 */
+	public Document toDocument() {
+		Document doc = new Document();
+
+		for (StageStatistics s : stages) {
+			doc.append(s.getStage().name(), new Document("count", s.getCount())
+					.append("totalNanos", s.getTotalNanos())
+					.append("meanNanos", s.getMeanNanos())
+					.append("p50Nanos", s.getPercentileNanos(0.5))
+					.append("p90Nanos", s.getPercentileNanos(0.9))
+					.append("p99Nanos", s.getPercentileNanos(0.99))
+					.append("maxNanos", s.getMaxNanos()));
+		}
+
+		return doc;
+	}
+
+	/**
+	 * One line per stage, e.g. to print it to the log.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(String.format("%-22s%12s%14s%12s%12s%12s%12s%n", 
+				"stage", "count", "total ms", "mean ns", "p50 ns", "p99 ns", "max ns"));
+
+		for (StageStatistics s : stages) {
+			sb.append(String.format("%-22s%12d%14.3f%12.0f%12d%12d%12d%n", s.getStage(), s.getCount(), s.getTotalNanos() / 1e6,
+					s.getMeanNanos(), s.getPercentileNanos(0.5), s.getPercentileNanos(0.99), s.getMaxNanos()));
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Counter and latency histogram of a stage.
+	 */
+	public static class StageStatistics {
+
+		private final Stage stage;
+
+		private final long count;
+
+		private final long totalNanos;
+
+		private final long maxNanos;
+
+		private final long[] buckets;
+
+		StageStatistics(Stage stage, long count, long totalNanos, long maxNanos, long[] buckets) {
+			this.stage = stage;
+			this.count = count;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+			this.buckets = buckets;
+		}
+
+		public Stage getStage() {
+			return stage;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+
+		public double getMeanNanos() {
+			return count == 0 ? 0.0 : (double) totalNanos / count;
+		}
+
+		/**
+		 * Bucket b of the histogram counts the durations in [2^(b-1), 2^b) ns.
+		 *
+		 * @param bucket - index of the bucket
+		 * @return number of durations in the bucket
+		 */
+		public long getBucket(int bucket) {
+			return buckets[bucket];
+		}
+
+		/**
+		 * Percentiles are only known up to the bucket of the
+		 * histogram, so the upper bound of the bucket is returned.
+		 *
+		 * @param quantile - between 0 and 1, e.g. 0.99
+		 * @return upper bound of the percentile in ns, at most the maximum
+		 */
+		public long getPercentileNanos(double quantile) {
+			if (quantile < 0 || quantile > 1) {
+				throw new IllegalArgumentException("Quantile must be between 0 and 1!");
+			}
+
+			long rank = (long) Math.ceil(quantile * count);
+			long seen = 0;
+
+			for (int b = 0; b < buckets.length; b++) {
+				seen += buckets[b];
+
+				if (seen >= rank && seen > 0) {
+					return b == 0 ? 0 : Math.min((1L << b) - 1, maxNanos);
+				}
+			}
+
+			return maxNanos;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package hu.bme.cr.metrics;
+
+/**
+ * Stages of a round of the simulation timed by the MetricsRegistry.
+ */
+public enum Stage {
+
+	/**
+	 * Decision of a CognitiveRadio in a normal phase (CognitiveRadio.playDecidePhase).
+	 */
+	DECISION,
+
+	/**
+	 * Back off times of every channel in a subslot, drawn by the IBackoffSampler.
+	 * The order statistics sampler resolves the channel access with the same draws,
+	 * so its resolution is also timed here.
+	 */
+	BACKOFF,
+
+	/**
+	 * Resolution of the channel access of every channel in a subslot (CollisionResolver).
+	 */
+	COLLISION_RESOLUTION,
+
+	/**
+	 * Maximum likelihood estimate of the competing users on every channel 
+	 * of a radio in a strategy slot (ChannelUtility.calculateUserEstimate), 
+	 * with the capture and collision probabilities derived from it.
+	 */
+	USER_ESTIMATION,
+
+	/**
+	 * Utility of a radio in a strategy slot (IUtilityFunction.calculateUtility).
+	 */
+	UTILITY,
+
+	/**
+	 * Writing the text log and the trace records.
+	 */
+	LOGGING,
+
+	/**
+	 * Persisting a phase or the whole simulation to the result sink.
+	 */
+	PERSISTENCE
+}
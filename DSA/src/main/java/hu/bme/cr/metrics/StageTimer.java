@@ -0,0 +1,55 @@
+package hu.bme.cr.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Counter and latency histogram of a stage.</p>
+ *
+ * <p>Bucket b of the histogram counts the durations with b significant 
+ * bits, i.e. bucket 0 counts 0 ns and bucket b counts [2^(b-1), 2^b) ns.
+ * Every field is a LongAdder, so the fork-join workers of the parallel
+ * play mode can record at the same time without contention.</p>
+ */
+class StageTimer {
+
+	static final int BUCKETS = 64;
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder totalNanos = new LongAdder();
+
+	private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+	StageTimer() {
+		for (int b = 0; b < BUCKETS; b++) {
+			buckets[b] = new LongAdder();
+		}
+	}
+
+	void record(long nanos) {
+		// System.nanoTime is not strictly monotonic on every platform
+		long duration = Math.max(nanos, 0);
+
+		count.increment();
+		totalNanos.add(duration);
+		maxNanos.accumulate(duration);
+		buckets[Math.min(bucket(duration), BUCKETS - 1)].increment();
+	}
+
+	static int bucket(long nanos) {
+		return 64 - Long.numberOfLeadingZeros(nanos);
+	}
+
+	MetricsSnapshot.StageStatistics snapshot(Stage stage) {
+		long[] counts = new long[BUCKETS];
+
+		for (int b = 0; b < BUCKETS; b++) {
+			counts[b] = buckets[b].sum();
+		}
+
+		return new MetricsSnapshot.StageStatistics(stage, count.sum(), totalNanos.sum(), maxNanos.get(), counts);
+	}
+}
@@ -0,0 +1,37 @@
+package hu.bme.cr.random;
+
+/**
+ * <p>Represents a source of uniformly distributed random numbers
+ * that are addressed by the position of the draw in the simulation,
+ * i.e. by (round, strategy slot, channel, subslot, radio).</p>
+ *
+ * <p>Keyed implementations return the same number for the same
+ * position and seed, no matter which thread asks for it or in which
+ * order, therefore sequential and parallel runs are bit-identical.</p>
+ */
+public interface IRandomSource {
+
+	/**
+	 * Returns a uniformly distributed random number
+	 * between 0 (inclusive) and 1 (exclusive).
+	 *
+	 * @param round - index of the round (phase) of the simulation
+	 * @param strategy - index of the strategy slot
+	 * @param channel - index of the channel
+	 * @param subslot - index of the subslot
+	 * @param radio - index of the CognitiveRadio
+	 * @return random number on the interval of [0, 1)
+	 */
+	double nextDouble(long round, int strategy, int channel, int subslot, int radio);
+
+	/**
+	 * Converts the upper 53 bits of a 64 bit random value
+	 * to a double on the interval of [0, 1).
+	 *
+	 * @param bits - 64 random bits
+	 * @return random number on the interval of [0, 1)
+	 */
+	static double toDouble(long bits) {
+		return (bits >>> 11) * 0x1.0p-53;
+	}
+}
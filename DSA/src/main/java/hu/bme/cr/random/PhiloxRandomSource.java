@@ -0,0 +1,71 @@
+package hu.bme.cr.random;
+
+/**
+ * <p>Counter-based random source using the Philox4x32-10 block
+ * function of Salmon et al. ("Parallel random numbers: as easy as 1, 2, 3").</p>
+ *
+ * <p>The counter is (round, strategy, channel and subslot, radio) and
+ * the key is derived from the simulation seed alone, so every draw is a
+ * pure function of its position, different seeds give unrelated streams
+ * and nothing is shared or allocated between draws. The channel and the
+ * subslot share a counter word, 16 bits each.</p>
+ */
+public class PhiloxRandomSource implements IRandomSource {
+
+	private static final long M0 = 0xD2511F53L;
+
+	private static final long M1 = 0xCD9E8D57L;
+
+	private static final int W0 = 0x9E3779B9;
+
+	private static final int W1 = 0xBB67AE85;
+
+	private static final int ROUNDS = 10;
+
+	private final int key0;
+
+	private final int key1;
+
+	public PhiloxRandomSource(long seed) {
+		long key = SplitMixRandomSource.mix64(seed);
+		
+		this.key0 = (int) key;
+		this.key1 = (int) (key >>> 32);
+	}
+
+	@Override
+	public double nextDouble(long round, int strategy, int channel, int subslot, int radio) {
+		return IRandomSource.toDouble(block((int) round, strategy, (channel << 16) | (subslot & 0xFFFF), radio, key0, key1));
+	}
+
+	/**
+	 * Runs the Philox4x32-10 block function and returns
+	 * the first two 32 bit words of its output.
+	 *
+	 * @return the first two output words, the first one in the upper half
+	 */
+	static long block(int c0, int c1, int c2, int c3, int k0, int k1) {
+		for (int i = 0; i < ROUNDS; i++) {
+			long p0 = M0 * (c0 & 0xFFFFFFFFL);
+			long p1 = M1 * (c2 & 0xFFFFFFFFL);
+
+			int x0 = (int) (p1 >>> 32) ^ c1 ^ k0;
+			int x2 = (int) (p0 >>> 32) ^ c3 ^ k1;
+
+			c0 = x0;
+			c1 = (int) p1;
+			c2 = x2;
+			c3 = (int) p0;
+
+			k0 += W0;
+			k1 += W1;
+		}
+
+		return ((long) c0 << 32) | (c1 & 0xFFFFFFFFL);
+	}
+
+	@Override
+	public String toString() {
+		return "Philox";
+	}
+}
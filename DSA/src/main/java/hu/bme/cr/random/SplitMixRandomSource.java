@@ -0,0 +1,57 @@
+package hu.bme.cr.random;
+
+/**
+ * <p>Counter-based random source that hashes the position of the
+ * draw with the SplitMix64 finalizer (the output function of
+ * java.util.SplittableRandom).</p>
+ *
+ * <p>It is cheaper than Philox, but its streams are only as
+ * independent as the mixing function makes them.</p>
+ */
+public class SplitMixRandomSource implements IRandomSource {
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final long seed;
+
+	public SplitMixRandomSource(long seed) {
+		this.seed = seed;
+	}
+
+	@Override
+	public double nextDouble(long round, int strategy, int channel, int subslot, int radio) {
+		long z = mix64(seed + GOLDEN_GAMMA * (round + 1));
+		z = mix64(z + GOLDEN_GAMMA * (strategy + 1L));
+		z = mix64(z + GOLDEN_GAMMA * (channel + 1L));
+		z = mix64(z + GOLDEN_GAMMA * (subslot + 1L));
+		z = mix64(z + GOLDEN_GAMMA * (radio + 1L));
+
+		return IRandomSource.toDouble(z);
+	}
+
+	/**
+	 * Derives the seed of an independent stream, e.g. the 
+	 * random number generator of a radio, from the seed of the simulation.
+	 * 
+	 * @param seed - seed of the simulation
+	 * @param stream - index of the stream
+	 * @return seed of the stream
+	 */
+	public static long streamSeed(long seed, long stream) {
+		return mix64(mix64(seed + GOLDEN_GAMMA) + GOLDEN_GAMMA * (stream + 1));
+	}
+
+	/**
+	 * The finalizer of SplitMix64.
+	 */
+	public static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public String toString() {
+		return "SplitMix";
+	}
+}
@@ -0,0 +1,22 @@
+package hu.bme.cr.random;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>Random source that ignores the position of the draw and
+ * uses the random generator of the current thread.</p>
+ *
+ * <p>It is fast and allocation free, but the runs can not be reproduced.</p>
+ */
+public class ThreadLocalRandomSource implements IRandomSource {
+
+	@Override
+	public double nextDouble(long round, int strategy, int channel, int subslot, int radio) {
+		return ThreadLocalRandom.current().nextDouble();
+	}
+
+	@Override
+	public String toString() {
+		return "ThreadLocal";
+	}
+}
@@ -0,0 +1,175 @@
+package hu.bme.cr.scenario;
+
+import hu.bme.cr.strategies.IStrategy;
+import hu.bme.cr.strategies.MaxUtilityStrategy;
+import hu.bme.cr.strategies.RandomStrategy;
+import hu.bme.cr.strategies.RegretTrackingStrategy;
+import hu.bme.cr.uf.CompetitiveUtilityFunction;
+import hu.bme.cr.uf.IUtilityFunction;
+import hu.bme.cr.uf.MixedUtilityFunction;
+
+/**
+ * Parameters of a CognitiveRadio in a scenario: its demand,
+ * strategy and utility function.
+ */
+public class RadioConfig {
+
+	public enum StrategyType {
+		REGRET_TRACKING, MAX_UTILITY, RANDOM
+	}
+
+	public enum StepSize {
+		FIX, DECREASING
+	}
+
+	public enum UtilityFunctionType {
+		COMPETITIVE, MIXED
+	}
+
+	private final double demand;
+
+	private final StrategyType strategy;
+
+	private final StepSize stepSize;
+
+	private final UtilityFunctionType utilityFunction;
+
+	/*
+	 * Rates of the mixed utility function
+	 */
+
+	private final double rate1;
+
+	private final double rate2;
+
+	private final double rate3;
+
+	private RadioConfig(RadioConfigBuilder builder) {
+		this.demand = builder.demand;
+		this.strategy = builder.strategy;
+		this.stepSize = builder.stepSize;
+		this.utilityFunction = builder.utilityFunction;
+		this.rate1 = builder.rate1;
+		this.rate2 = builder.rate2;
+		this.rate3 = builder.rate3;
+	}
+
+	/**
+	 * Creates a new strategy for a radio, strategies are not shared.
+	 *
+	 * @return the strategy of the radio
+	 */
+	public IStrategy createStrategy() {
+		switch (strategy) {
+		case REGRET_TRACKING:
+			return stepSize == StepSize.FIX 
+					? new RegretTrackingStrategy(0.1, false) : new RegretTrackingStrategy(1, true);
+		case MAX_UTILITY:
+			return new MaxUtilityStrategy();
+		case RANDOM:
+			return new RandomStrategy();
+		default:
+			throw new IllegalArgumentException("Wrong strategy!");
+		}
+	}
+
+	/**
+	 * Creates a new utility function for a radio.
+	 *
+	 * @return the utility function of the radio
+	 */
+	public IUtilityFunction createUtilityFunction() {
+		return utilityFunction == UtilityFunctionType.COMPETITIVE 
+				? new CompetitiveUtilityFunction() : new MixedUtilityFunction(rate1, rate2, rate3);
+	}
+
+	/*
+	 * Getters
+	 */
+
+	public double getDemand() {
+		return demand;
+	}
+
+	public StrategyType getStrategy() {
+		return strategy;
+	}
+
+	public StepSize getStepSize() {
+		return stepSize;
+	}
+
+	public UtilityFunctionType getUtilityFunction() {
+		return utilityFunction;
+	}
+
+	public double getRate1() {
+		return rate1;
+	}
+
+	public double getRate2() {
+		return rate2;
+	}
+
+	public double getRate3() {
+		return rate3;
+	}
+
+	/**
+	 * Builder class for RadioConfig. By default the radio uses regret
+	 * tracking with fix step size and the competitive utility function.
+	 */
+	public static class RadioConfigBuilder {
+		private double demand;
+		private StrategyType strategy = StrategyType.REGRET_TRACKING;
+		private StepSize stepSize = StepSize.FIX;
+		private UtilityFunctionType utilityFunction = UtilityFunctionType.COMPETITIVE;
+		private double rate1 = 1.0;
+		private double rate2;
+		private double rate3;
+
+		public RadioConfigBuilder setDemand(double demand) {
+			this.demand = demand;
+			return this;
+		}
+
+		public RadioConfigBuilder setStrategy(StrategyType strategy) {
+			this.strategy = strategy;
+			return this;
+		}
+
+		public RadioConfigBuilder setStepSize(StepSize stepSize) {
+			this.stepSize = stepSize;
+			return this;
+		}
+
+		public RadioConfigBuilder setUtilityFunction(UtilityFunctionType utilityFunction) {
+			this.utilityFunction = utilityFunction;
+			return this;
+		}
+
+		/**
+		 * Sets the mixed utility function with the given rates.
+		 *
+		 * @param rate1 - rate of the competitive part
+		 * @param rate2 - rate of the overtransmission penalty
+		 * @param rate3 - rate of the collision penalty
+		 * @return this builder
+		 */
+		public RadioConfigBuilder setMixedUtilityFunction(double rate1, double rate2, double rate3) {
+			this.utilityFunction = UtilityFunctionType.MIXED;
+			this.rate1 = rate1;
+			this.rate2 = rate2;
+			this.rate3 = rate3;
+			return this;
+		}
+
+		public RadioConfig build() {
+			if (strategy == null || stepSize == null || utilityFunction == null) {
+				throw new IllegalArgumentException("Wrong radio parameters!");
+			}
+
+			return new RadioConfig(this);
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package hu.bme.cr.scenario;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Everything a simulation needs to start: the log, the channels, the 
+ * strategy space and the radios, each of them with its own parameters.</p>
+ *
+ * <p>CRSystem builds the simulation directly from it, it can be built 
+ * programmatically with the ScenarioConfigBuilder or read from a JSON 
+ * file with the ScenarioReader. The properties override the ones in 
+ * simulation.properties, e.g. SEED, SUBSLOTS or ROUNDS.</p>
+ */
+public class ScenarioConfig {
+
+	/**
+	 * Where the simulation prints its log, NONE for no output at all.
+	 */
+	public enum LogTarget {
+		CONSOLE, FILE, NONE
+	}
+
+	/**
+	 * Name of the simulation, null for automatic naming.
+	 */
+	private final String name;
+
+	private final LogTarget logTarget;
+
+	private final List<Double> transmissionRates;
+
+	private final int maxChannels;
+
+	private final List<RadioConfig> radios;
+
+	private final Map<String, String> properties;
+
+	private ScenarioConfig(ScenarioConfigBuilder builder) {
+		this.name = builder.name;
+		this.logTarget = builder.logTarget;
+		this.transmissionRates = Collections.unmodifiableList(new ArrayList<>(builder.transmissionRates));
+		this.maxChannels = builder.maxChannels;
+		this.radios = Collections.unmodifiableList(new ArrayList<>(builder.radios));
+		this.properties = Collections.unmodifiableMap(new LinkedHashMap<>(builder.properties));
+	}
+
+	/*
+	 * Getters
+	 */
+
+	public String getName() {
+		return name;
+	}
+
+	public LogTarget getLogTarget() {
+		return logTarget;
+	}
+
+	/**
+	 * @return transmission rate of every channel
+	 */
+	public List<Double> getTransmissionRates() {
+		return transmissionRates;
+	}
+
+	public int getChannelNumber() {
+		return transmissionRates.size();
+	}
+
+	public int getMaxChannels() {
+		return maxChannels;
+	}
+
+	/**
+	 * @return parameters of every radio
+	 */
+	public List<RadioConfig> getRadios() {
+		return radios;
+	}
+
+	public int getRadioNumber() {
+		return radios.size();
+	}
+
+	public Map<String, String> getProperties() {
+		return properties;
+	}
+
+	@Override
+	public String toString() {
+		return (name == null ? "scenario" : name) + " (channels: " + transmissionRates.size() 
+				+ ", max channels: " + maxChannels + ", radios: " + radios.size() + ")";
+	}
+
+	/**
+	 * Builder class for ScenarioConfig.
+	 */
+	public static class ScenarioConfigBuilder {
+		private String name;
+		private LogTarget logTarget = LogTarget.NONE;
+		private List<Double> transmissionRates = new ArrayList<>();
+		private int maxChannels;
+		private List<RadioConfig> radios = new ArrayList<>();
+		private Map<String, String> properties = new LinkedHashMap<>();
+
+		public ScenarioConfigBuilder setName(String name) {
+			this.name = name;
+			return this;
+		}
+
+		public ScenarioConfigBuilder setLogTarget(LogTarget logTarget) {
+			this.logTarget = logTarget;
+			return this;
+		}
+
+		public ScenarioConfigBuilder addChannel(double transmissionRate) {
+			transmissionRates.add(transmissionRate);
+			return this;
+		}
+
+		public ScenarioConfigBuilder addChannels(int n, double transmissionRate) {
+			for (int i = 0; i < n; i++) {
+				transmissionRates.add(transmissionRate);
+			}
+			return this;
+		}
+
+		public ScenarioConfigBuilder setMaxChannels(int maxChannels) {
+			this.maxChannels = maxChannels;
+			return this;
+		}
+
+		public ScenarioConfigBuilder addRadio(RadioConfig radio) {
+			radios.add(radio);
+			return this;
+		}
+
+		public ScenarioConfigBuilder addRadios(int n, RadioConfig radio) {
+			for (int i = 0; i < n; i++) {
+				radios.add(radio);
+			}
+			return this;
+		}
+
+		public ScenarioConfigBuilder setProperty(String key, String value) {
+			properties.put(key, value);
+			return this;
+		}
+
+		public ScenarioConfig build() {
+			if (transmissionRates.isEmpty()) {
+				throw new IllegalArgumentException("Wrong number of channels!");
+			}
+			if (maxChannels < 1 || maxChannels > transmissionRates.size()) {
+				throw new IllegalArgumentException("Maximum number of channels must be between 1 and the number of channels!");
+			}
+			if (radios.isEmpty()) {
+				throw new IllegalArgumentException("Wrong number of radios!");
+			}
+			if (logTarget == null) {
+				throw new IllegalArgumentException("Wrong logging output!");
+			}
+
+			return new ScenarioConfig(this);
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package hu.bme.cr.scenario;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+
+import hu.bme.cr.scenario.RadioConfig.RadioConfigBuilder;
+import hu.bme.cr.scenario.RadioConfig.StepSize;
+import hu.bme.cr.scenario.RadioConfig.StrategyType;
+import hu.bme.cr.scenario.RadioConfig.UtilityFunctionType;
+import hu.bme.cr.scenario.ScenarioConfig.LogTarget;
+import hu.bme.cr.scenario.ScenarioConfig.ScenarioConfigBuilder;
+
+/**
+ * <p>Reads scenarios from JSON. A file holds a single scenario or
+ * several of them in a "scenarios" array. Channels and radios have an
+ * optional count, so a group of identical ones is a single entry:</p>
+ *
+ * <pre>
+ * {
+ *   "name": "sweep_1",
+ *   "log": "FILE",
+ *   "channels": [{"count": 4, "transmissionRate": 1.0}, {"transmissionRate": 2.0}],
+ *   "maxChannels": 2,
+ *   "radios": [
+ *     {"count": 8, "demand": 0.5, "strategy": "REGRET_TRACKING", "stepSize": "FIX"},
+ *     {"demand": 0.8, "strategy": "MAX_UTILITY", "utilityFunction": "MIXED", "rates": [0.6, 0.2, 0.2]}
+ *   ],
+ *   "properties": {"SEED": "42", "ROUNDS": "50"}
+ * }
+ * </pre>
+ *
+ * <p>Missing fields get the defaults of the builders, see ScenarioConfigBuilder
+ * and RadioConfigBuilder. Names of the enums are case sensitive.</p>
+ */
+public final class ScenarioReader {
+
+	private ScenarioReader() {
+	}
+
+	/**
+	 * @param path - path of a JSON scenario file
+	 * @return scenarios of the file
+	 * @throws IOException - if the file can not be read
+	 */
+	public static List<ScenarioConfig> read(Path path) throws IOException {
+		return parse(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @param json - a scenario or several of them in a "scenarios" array
+	 * @return the scenarios
+	 */
+	public static List<ScenarioConfig> parse(String json) {
+		Document doc = Document.parse(json);
+
+		if (!doc.containsKey("scenarios")) {
+			return Collections.singletonList(fromDocument(doc));
+		}
+
+		List<ScenarioConfig> scenarios = new ArrayList<>();
+		for (Document scenario : documents(doc, "scenarios")) {
+			scenarios.add(fromDocument(scenario));
+		}
+
+		return scenarios;
+	}
+
+	/**
+	 * @param doc - a single scenario
+	 * @return the scenario
+	 */
+	public static ScenarioConfig fromDocument(Document doc) {
+		ScenarioConfigBuilder builder = new ScenarioConfigBuilder();
+
+		if (doc.containsKey("name")) {
+			builder.setName(doc.getString("name"));
+		}
+		if (doc.containsKey("log")) {
+			builder.setLogTarget(LogTarget.valueOf(doc.getString("log")));
+		}
+
+		for (Document channel : documents(doc, "channels")) {
+			builder.addChannels(count(channel), number(channel, "transmissionRate").doubleValue());
+		}
+
+		builder.setMaxChannels(number(doc, "maxChannels").intValue());
+
+		for (Document radio : documents(doc, "radios")) {
+			builder.addRadios(count(radio), radioOf(radio));
+		}
+
+		if (doc.containsKey("properties")) {
+			for (Map.Entry<String, Object> property : doc.get("properties", Document.class).entrySet()) {
+				builder.setProperty(property.getKey(), String.valueOf(property.getValue()));
+			}
+		}
+
+		return builder.build();
+	}
+
+	private static RadioConfig radioOf(Document doc) {
+		RadioConfigBuilder builder = new RadioConfigBuilder()
+				.setDemand(number(doc, "demand").doubleValue());
+
+		if (doc.containsKey("strategy")) {
+			builder.setStrategy(StrategyType.valueOf(doc.getString("strategy")));
+		}
+		if (doc.containsKey("stepSize")) {
+			builder.setStepSize(StepSize.valueOf(doc.getString("stepSize")));
+		}
+		if (doc.containsKey("utilityFunction")) {
+			builder.setUtilityFunction(UtilityFunctionType.valueOf(doc.getString("utilityFunction")));
+		}
+		if (doc.containsKey("rates")) {
+			List<?> rates = doc.get("rates", List.class);
+
+			if (rates.size() != 3) {
+				throw new IllegalArgumentException("Mixed utility function needs 3 rates!");
+			}
+
+			builder.setMixedUtilityFunction(((Number) rates.get(0)).doubleValue(), 
+					((Number) rates.get(1)).doubleValue(), ((Number) rates.get(2)).doubleValue());
+		}
+
+		return builder.build();
+	}
+
+	private static int count(Document doc) {
+		int count = doc.containsKey("count") ? number(doc, "count").intValue() : 1;
+
+		if (count < 1) {
+			throw new IllegalArgumentException("Count must be positive!");
+		}
+
+		return count;
+	}
+
+	private static Number number(Document doc, String key) {
+		Object value = doc.get(key);
+
+		if (!(value instanceof Number)) {
+			throw new IllegalArgumentException("Missing number: " + key + "!");
+		}
+
+		return (Number) value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Document> documents(Document doc, String key) {
+		Object value = doc.get(key);
+
+		if (!(value instanceof List)) {
+			throw new IllegalArgumentException("Missing list: " + key + "!");
+		}
+
+		return (List<Document>) value;
+	}
+}
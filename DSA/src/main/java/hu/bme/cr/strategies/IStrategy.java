@@ -2,6 +2,8 @@ package hu.bme.cr.strategies;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -26,8 +28,19 @@ public interface IStrategy {
 	 * @return index of the strategy to play in the next decision period
 	 */
 	default public List<Integer> decideInInitPhase(int max) {
+		return decideInInitPhase(max, ThreadLocalRandom.current());
+	}
+	
+	/**
+	 * Shuffles the strategies with the given random number generator.
+	 * 
+	 * @param max top boundary
+	 * @param random random number generator of the player
+	 * @return order of strategies to use
+	 */
+	default public List<Integer> decideInInitPhase(int max, Random random) {
 		List<Integer> result = IntStream.range(0, max).boxed().collect(Collectors.toList());
-		Collections.shuffle(result);
+		Collections.shuffle(result, random);
 		return result;
 	}
 	
@@ -1,8 +1,6 @@
 package hu.bme.cr.strategies;
 
-import java.util.Collections;
-import java.util.List;
-
+import hu.bme.cr.utilities.IndexSortUtility;
 import hu.bme.cr.utilities.ListUtility;
 
 /**
@@ -25,10 +23,11 @@ public class MaxUtilityStrategy implements IStrategy {
 	 */
 	@Override
 	public StrategyParameters decideInSetPhase(StrategyParameters params) {
-		List<Integer> indexesDescending = ListUtility.getIndexesDescending(params.getUtilities());
-		ListUtility.swapToMax(params.getUtilities(), indexesDescending, params.getStrategyIndex());
+		double[] utilities = params.getUtilities();
+		int[] indexesDescending = IndexSortUtility.getIndexesDescending(utilities, params.getRandom());
+		IndexSortUtility.swapToMax(utilities, indexesDescending, params.getStrategyIndex());
 		
-		return new StrategyParameters(Collections.emptyList(), indexesDescending);
+		return new StrategyParameters(new double[0], ListUtility.toList(indexesDescending));
 	}
 
 	@Override
@@ -1,7 +1,5 @@
 package hu.bme.cr.strategies;
 
-import java.util.Collections;
-
 /**
  * 
  * @author Zoltn Koleszr
@@ -13,12 +11,12 @@ public class RandomStrategy implements IStrategy {
 
 	@Override
 	public StrategyParameters decideInSetPhase(StrategyParameters params) {
-		return new StrategyParameters(Collections.emptyList(), decideInInitPhase(params.getSize()));
+		return new StrategyParameters(new double[0], decideInInitPhase(params.getSize(), params.getRandom()));
 	}
 
 	@Override
 	public StrategyParameters decide(StrategyParameters params) {
-		return new StrategyParameters(Collections.emptyList(), decideInInitPhase(params.getSize()));
+		return new StrategyParameters(new double[0], decideInInitPhase(params.getSize(), params.getRandom()));
 	}
 
 	@Override
@@ -1,10 +1,6 @@
 package hu.bme.cr.strategies;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
-
+import hu.bme.cr.utilities.IndexSortUtility;
 import hu.bme.cr.utilities.ListUtility;
 
 /**
@@ -13,6 +9,9 @@ import hu.bme.cr.utilities.ListUtility;
  *
  * Represents a strategy which implements the regret tracking algorithm.
  * 
+ * <p>The mean regrets are updated in place in the regret array of
+ * the player, in a single pass over the utilities that also collects
+ * the range of the utilities and the sum of the positive regrets.</p>
  */
 public class RegretTrackingStrategy implements IStrategy {
 	
@@ -26,22 +25,33 @@ public class RegretTrackingStrategy implements IStrategy {
 	}
 
 	/**
-	 * Creates an instantaneous regret list and then returns
+	 * Creates an instantaneous regret array and then returns
 	 * the index of the highest valued element and the mean
-	 * regret list which equals to the instantaneous regret 
-	 * list in this phase.
+	 * regret array which equals to the instantaneous regret 
+	 * array in this phase.
 	 * 
 	 * @return index of the strategy to play in the next decision period
 	 */
 	@Override
 	public StrategyParameters decideInSetPhase(StrategyParameters params) {
-		// 1. caclculate the instantaneous regret list
-		List<Double> instRegret = calcInstantaneousRegrets(params);	
-		List<Integer> indexesDescending = ListUtility.getIndexesDescending(instRegret);
+		double[] utilities = params.getUtilities();
+		double[] regrets = params.getRegrets();
+		
+		if (regrets == null || regrets.length != utilities.length) {
+			regrets = new double[utilities.length];
+		}
+		
+		// 1. caclculate the instantaneous regrets
+		double utility = utilities[params.getStrategyIndex()];
+		
+		for (int i = 0; i < utilities.length; i++) {
+			regrets[i] = utilities[i] - utility;
+		}
 		
-		ListUtility.swapToMax(instRegret, indexesDescending, params.getStrategyIndex());
+		int[] indexesDescending = IndexSortUtility.getIndexesDescending(regrets, params.getRandom());
+		IndexSortUtility.swapToMax(regrets, indexesDescending, params.getStrategyIndex());
 		
-		return new StrategyParameters(instRegret, indexesDescending);
+		return new StrategyParameters(regrets, ListUtility.toList(indexesDescending));
 	}
 
 	/**
@@ -51,104 +61,51 @@ public class RegretTrackingStrategy implements IStrategy {
 	 */
 	@Override
 	public StrategyParameters decide(StrategyParameters params) {
-		// 1. calculate channel access probabilities
-		double utilityMax = Collections.max(params.getUtilities());
-		double utilityMin = Collections.min(params.getUtilities());
-		double m = (params.getSize() - 1) * (utilityMax - utilityMin);
-		
-		List<Double> updatedRegrets = updateRegret(params);
-		List<Double> probabilities = new ArrayList<>(updatedRegrets.size());
-		
-		for (int i = 0; i < updatedRegrets.size(); i++) {
-			if (i == params.getStrategyIndex()) {
-				probabilities.add(1 - (calcSameStPr(updatedRegrets, params.getStrategyIndex()) / m));
-			}
-			else {
-				probabilities.add(calcDiffStPr(updatedRegrets, i) / m);
-			}
-		}
-		
-		List<Integer> indexesDescending = ListUtility.getIndexesDescending(probabilities);
-		ListUtility.swapToMax(probabilities, indexesDescending, params.getStrategyIndex());
-		
-		return new StrategyParameters(updatedRegrets, indexesDescending);
-	}
-	
-	/**
-	 * Calculates the instantaneous regret list.
-	 * 
-	 * @return instantaneous regret list
-	 */
-	private List<Double> calcInstantaneousRegrets(StrategyParameters params) {
-		int size = params.getUtilities().size();
-		double utility = params.getUtilities().get(params.getStrategyIndex());
-		
-		List<Double> instRegret = new ArrayList<>(size);
-		
-		for (int i = 0; i < size; i++) {
-			instRegret.add(params.getUtilities().get(i) - utility);
-		}
-		return instRegret;
-	}
-	
-	/**
-	 * Calculate the probability that the Cognitive Radio
-	 * will play the same strategy in the next period.
-	 * 
-	 * @return
-	 */
-	private double calcSameStPr(List<Double> oldRegrets, int strategyIndex) {
-		List<Double> regrets = new ArrayList<>(oldRegrets);
-		regrets.remove(strategyIndex);
-		regrets = regrets
-					.stream()
-					.filter(p -> p > 0.0)
-					.collect(Collectors.toCollection(ArrayList::new));
-		
-		double result = 0.0;
+		double[] utilities = params.getUtilities();
+		double[] regrets = params.getRegrets();
+		int strategyIndex = params.getStrategyIndex();
 		
-		for (int i = 0; i < regrets.size(); i++) {
-			result += regrets.get(i);
+		if (regrets.length != utilities.length) {
+			throw new IllegalArgumentException("Not equal list sizes!");
 		}
 		
-		return result;
-	}
-	
-	/**
-	 * Calculate the probability that the Cognitive Radio
-	 * will play the the ith strategy in the next period.
-	 * 
-	 * @return
-	 */
-	private double calcDiffStPr(List<Double> regrets, int i) {
-		return Math.max(0, regrets.get(i));
-	}
-	
-	/**
-	 * Updates the mean regret list.
-	 * 
-	 * @return updated mean regret list
-	 */
-	private List<Double> updateRegret(StrategyParameters params) {
-		List<Double> updatedRegrets = new ArrayList<>(params.getRegrets().size());
-		
-		List<Double> instRegrets = calcInstantaneousRegrets(params);
-		
 		if (decreasing) {
 			stepSize = 1 / (1 + params.getRound());
 		}
 		
-		if (params.getRegrets().size() != instRegrets.size()) {
-			throw new IllegalArgumentException("Not equal list sizes!");
+		// 1. update the mean regrets with the instantaneous ones, find the 
+		// range of the utilities and sum the positive regrets of the other strategies
+		double utility = utilities[strategyIndex];
+		double utilityMax = Double.NEGATIVE_INFINITY;
+		double utilityMin = Double.POSITIVE_INFINITY;
+		double positiveRegrets = 0.0;
+		
+		for (int i = 0; i < utilities.length; i++) {
+			double u = utilities[i];
+			
+			utilityMax = Math.max(utilityMax, u);
+			utilityMin = Math.min(utilityMin, u);
+			
+			regrets[i] += stepSize * ((u - utility) - regrets[i]);
+			
+			if (i != strategyIndex && regrets[i] > 0.0) {
+				positiveRegrets += regrets[i];
+			}
 		}
 		
-		for (int i = 0; i < instRegrets.size(); i++) {
-			double oldRegret = params.getRegrets().get(i);
-			double regret = oldRegret + stepSize * (instRegrets.get(i) - oldRegret); 
-			updatedRegrets.add(regret);
+		// 2. calculate channel access probabilities
+		double m = (params.getSize() - 1) * (utilityMax - utilityMin);
+		double[] probabilities = new double[regrets.length];
+		
+		for (int i = 0; i < regrets.length; i++) {
+			probabilities[i] = Math.max(0, regrets[i]) / m;
 		}
+		probabilities[strategyIndex] = 1 - (positiveRegrets / m);
+		
+		int[] indexesDescending = IndexSortUtility.getIndexesDescending(probabilities, params.getRandom());
+		IndexSortUtility.swapToMax(probabilities, indexesDescending, strategyIndex);
 		
-		return updatedRegrets;
+		return new StrategyParameters(regrets, ListUtility.toList(indexesDescending));
 	}
 
 	@Override
@@ -1,6 +1,8 @@
 package hu.bme.cr.strategies;
 
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 
@@ -10,9 +12,9 @@ import java.util.List;
  */
 public class StrategyParameters {
 	
-	private List<Double> utilities;
+	private double[] utilities;
 	
-	private List<Double> regrets;
+	private double[] regrets;
 	
 	private List<Integer> strategyIndexes;
 	
@@ -23,6 +25,11 @@ public class StrategyParameters {
 	
 	private int round;
 	
+	/**
+	 * Random number generator of the player that breaks ties and shuffles strategies.
+	 */
+	private Random random;
+	
 	public StrategyParameters() {
 		
 	}
@@ -31,7 +38,7 @@ public class StrategyParameters {
 	 * Used as input: 
 	 * <ul>
 	 * <li>utilities: payoff of each strategy at period t - 1</li>
-	 * <li>regrets: mean regret of each strategy at period t - 1</li>
+	 * <li>regrets: mean regret of each strategy at period t - 1, which the strategy may update in place</li>
 	 * <li>strategyIndex: the index of the strategy that was used at t - 1</li>
 	 * <li>size: size of the strategy space</li>
 	 * </ul>
@@ -41,7 +48,7 @@ public class StrategyParameters {
 	 * @param strategyIndex
 	 * @param size
 	 */
-	public StrategyParameters(List<Double> utilities, List<Double> regrets, int size, int strategyIndex, int round) {
+	public StrategyParameters(double[] utilities, double[] regrets, int size, int strategyIndex, int round) {
 		this.utilities = utilities;
 		this.regrets = regrets;
 		this.strategyIndex = strategyIndex;
@@ -49,6 +56,21 @@ public class StrategyParameters {
 		this.round = round;
 	}
 	
+	/**
+	 * Used as input, with the random number generator of the player.
+	 * 
+	 * @param utilities
+	 * @param regrets
+	 * @param size
+	 * @param strategyIndex
+	 * @param round
+	 * @param random
+	 */
+	public StrategyParameters(double[] utilities, double[] regrets, int size, int strategyIndex, int round, Random random) {
+		this(utilities, regrets, size, strategyIndex, round);
+		this.random = random;
+	}
+	
 	/**
 	 * Used as output:
 	 * <ul>
@@ -59,7 +81,7 @@ public class StrategyParameters {
 	 * @param regrets
 	 * @param strategyIndexes
 	 */
-	public StrategyParameters(List<Double> regrets, List<Integer> strategyIndexes) {
+	public StrategyParameters(double[] regrets, List<Integer> strategyIndexes) {
 		this.regrets = regrets;
 		this.strategyIndexes = strategyIndexes;
 	}
@@ -67,19 +89,19 @@ public class StrategyParameters {
 	 * Getters and setters
 	 */
 	
-	public List<Double> getUtilities() {
+	public double[] getUtilities() {
 		return utilities;
 	}
 
-	public void setUtilities(List<Double> utilities) {
+	public void setUtilities(double[] utilities) {
 		this.utilities = utilities;
 	}
 
-	public List<Double> getRegrets() {
+	public double[] getRegrets() {
 		return regrets;
 	}
 
-	public void setRegrets(List<Double> regrets) {
+	public void setRegrets(double[] regrets) {
 		this.regrets = regrets;
 	}
 
@@ -114,4 +136,15 @@ public class StrategyParameters {
 	public void setRound(int round) {
 		this.round = round;
 	}
+
+	/**
+	 * @return random number generator of the player, or the one of the current thread if it is not set
+	 */
+	public Random getRandom() {
+		return random != null ? random : ThreadLocalRandom.current();
+	}
+
+	public void setRandom(Random random) {
+		this.random = random;
+	}
 }
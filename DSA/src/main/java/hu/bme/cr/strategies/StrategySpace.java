@@ -1,37 +1,499 @@
 package hu.bme.cr.strategies;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.BitSet;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.apache.commons.collections4.iterators.PermutationIterator;
-
+/**
+ * <p>Immutable strategy space of the CognitiveRadios of a simulation:
+ * every channel access decision that uses at least one and at most
+ * maxChannels channels, ordered by the number of used channels.</p>
+ *
+ * <p>A strategy is identified by its index and described by the bitmask
+ * of the used channels, a long for at most 64 channels and a BitSet above
+ * that. Strategies of k channels follow each other in colexicographic
+ * order, i.e. in increasing order of their masks, so the combinatorial
+ * number system maps between index and mask in O(k log n) without storing
+ * the space. Only small spaces keep a table of their masks, generated by
+ * Gosper's hack. Code that expects List&lt;Boolean&gt; decisions gets
+ * read-only views of the bitmasks.</p>
+ *
+ * <p>Strategy spaces are interned by (channels, maxChannels), so
+ * simulations of the same size share a single instance.</p>
+ */
 public class StrategySpace {
 
-	private StrategySpace() {
-		
+	/**
+	 * Spaces up to this size keep a table of their masks.
+	 */
+	static final int TABLE_LIMIT = 1 << 16;
+
+	private static final ConcurrentMap<Long, StrategySpace> SPACES = new ConcurrentHashMap<>();
+
+	/**
+	 * Number of channels in the system.
+	 */
+	private final int channels;
+
+	/**
+	 * The number of channels that a player can access in a time slot.
+	 */
+	private final int maxChannels;
+
+	private final int size;
+
+	/**
+	 * offsets[k]: index of the first strategy of k channels, k = 1..maxChannels + 1.
+	 */
+	private final int[] offsets;
+
+	/**
+	 * binomials[c][i] = C(c, i) for c = 0..channels and i = 0..maxChannels, saturated at Long.MAX_VALUE.
+	 */
+	private final long[][] binomials;
+
+	/**
+	 * Channel masks of the strategies of small spaces of at most 64 channels, null otherwise.
+	 */
+	private final long[] masks;
+
+	private StrategySpace(int channels, int maxChannels) {
+		this.channels = channels;
+		this.maxChannels = maxChannels;
+
+		binomials = new long[channels + 1][maxChannels + 1];
+		for (int c = 0; c <= channels; c++) {
+			binomials[c][0] = 1;
+
+			for (int i = 1; i <= Math.min(c, maxChannels); i++) {
+				long sum = binomials[c - 1][i - 1] + binomials[c - 1][i];
+				binomials[c][i] = sum < 0 ? Long.MAX_VALUE : sum;
+			}
+		}
+
+		offsets = new int[maxChannels + 2];
+		long total = 0;
+		for (int k = 1; k <= maxChannels; k++) {
+			offsets[k] = (int) total;
+			total += binomials[channels][k];
+
+			if (total > Integer.MAX_VALUE - 8) {
+				throw new IllegalArgumentException("Strategy space of " + channels + " channels and "
+						+ maxChannels + " maximum channels is too large!");
+			}
+		}
+
+		size = (int) total;
+		offsets[maxChannels + 1] = size;
+
+		if (channels <= Long.SIZE && size <= TABLE_LIMIT) {
+			masks = new long[size];
+
+			for (int k = 1; k <= maxChannels; k++) {
+				addMasks(channels, k, masks, offsets[k]);
+			}
+		}
+		else {
+			masks = null;
+		}
+	}
+
+	/**
+	 * Returns the shared strategy space of the given size.
+	 *
+	 * @param channels - number of channels
+	 * @param maxChannels - maximum number of channels that a player can use
+	 * @return the strategy space
+	 */
+	public static StrategySpace of(int channels, int maxChannels) {
+		if (channels < 1 || maxChannels < 1 || maxChannels > channels) {
+			throw new IllegalArgumentException("Maximum number of channels must be between 1 and the number of channels!");
+		}
+
+		return SPACES.computeIfAbsent(((long) channels << 32) | maxChannels, k -> new StrategySpace(channels, maxChannels));
 	}
-	
+
 	/**
-	 * Defines the strategies of a strategy space.
-	 * 
+	 * Defines the strategies of a strategy space, i.e. every
+	 * distinct permutation of the given channel access decisions.
+	 *
 	 * @param strategy
 	 * @return every strategy of the strategy space
 	 */
 	public static List<List<Boolean>> getStrategySpace(List<Boolean> strategy) {
-		
-		List<List<Boolean>> result = new ArrayList<List<Boolean>>();
-		
-		Iterator<List<Boolean>> it = new PermutationIterator<Boolean>(strategy);
-		
-		while(it.hasNext()) {
-			List<Boolean> str = it.next();
-			
-			if (!result.contains(str)) {
-				result.add(str);				
-			}
-		}
-		
+		int n = strategy.size();
+		int k = (int) strategy.stream().filter(Boolean::booleanValue).count();
+
+		BitSet[] subsets = new BitSet[(int) binomial(n, k)];
+		addBitSets(n, k, subsets, 0);
+
+		List<List<Boolean>> result = new ArrayList<>(subsets.length);
+		for (BitSet subset : subsets) {
+			List<Boolean> str = new ArrayList<>(n);
+
+			for (int c = 0; c < n; c++) {
+				str.add(subset.get(c));
+			}
+
+			result.add(str);
+		}
+
+		return result;
+	}
+
+	/**
+	 * @param index - index of the strategy
+	 * @return read-only channel access decisions of the strategy
+	 */
+	public List<Boolean> get(int index) {
+		return channels <= Long.SIZE ? new MaskView(getMask(index)) : new BitSetView(getBitSet(index));
+	}
+
+	/**
+	 * @param index - index of the strategy
+	 * @param channel - index of the channel
+	 * @return true if the strategy accesses the channel
+	 */
+	public boolean uses(int index, int channel) {
+		if (channel < 0 || channel >= channels) {
+			throw new IndexOutOfBoundsException("Channel: " + channel + ", channels: " + channels);
+		}
+
+		return channels <= Long.SIZE ? (getMask(index) >>> channel & 1L) != 0 : getBitSet(index).get(channel);
+	}
+
+	/**
+	 * @param index - index of the strategy
+	 * @return channel mask of the strategy, bit c is set if channel c is used
+	 */
+	public long getMask(int index) {
+		if (channels > Long.SIZE) {
+			throw new UnsupportedOperationException("Strategies of more than 64 channels are not stored as long masks!");
+		}
+
+		return masks != null ? masks[checkIndex(index)] : unrankMask(index);
+	}
+
+	/**
+	 * @param index - index of the strategy
+	 * @return channel set of the strategy
+	 */
+	public BitSet getBitSet(int index) {
+		if (channels <= Long.SIZE) {
+			return BitSet.valueOf(new long[] {getMask(index)});
+		}
+
+		int[] combination = new int[maxChannels];
+		int k = unrank(index, combination);
+
+		BitSet set = new BitSet(channels);
+		for (int i = 0; i < k; i++) {
+			set.set(combination[i]);
+		}
+
+		return set;
+	}
+
+	/**
+	 * @param index - index of the strategy
+	 * @return number of channels used by the strategy
+	 */
+	public int getUsedChannels(int index) {
+		checkIndex(index);
+
+		int k = 1;
+		while (offsets[k + 1] <= index) {
+			k++;
+		}
+
+		return k;
+	}
+
+	/**
+	 * Ranks a channel mask.
+	 *
+	 * @param mask - channel mask, bit c is set if channel c is used
+	 * @return index of the strategy, -1 if it is not in the strategy space
+	 */
+	public int indexOf(long mask) {
+		int k = Long.bitCount(mask);
+
+		if (k < 1 || k > maxChannels || (channels < Long.SIZE && mask >>> channels != 0)) {
+			return -1;
+		}
+
+		long rank = offsets[k];
+		for (int i = 1; mask != 0; i++) {
+			rank += binomials[Long.numberOfTrailingZeros(mask)][i];
+			mask &= mask - 1;
+		}
+
+		return (int) rank;
+	}
+
+	/**
+	 * Ranks a channel set.
+	 *
+	 * @param set - channel set
+	 * @return index of the strategy, -1 if it is not in the strategy space
+	 */
+	public int indexOf(BitSet set) {
+		int k = set.cardinality();
+
+		if (k < 1 || k > maxChannels || set.length() > channels) {
+			return -1;
+		}
+
+		long rank = offsets[k];
+		int i = 1;
+		for (int c = set.nextSetBit(0); c >= 0; c = set.nextSetBit(c + 1)) {
+			rank += binomials[c][i++];
+		}
+
+		return (int) rank;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/*
+	 * Getters
+	 */
+
+	public int getChannels() {
+		return channels;
+	}
+
+	public int getMaxChannels() {
+		return maxChannels;
+	}
+
+	/**
+	 * @return read-only view of every strategy, the strategies are unranked on access
+	 */
+	public List<List<Boolean>> getStrategies() {
+		return new StrategiesView();
+	}
+
+	@Override
+	public String toString() {
+		return "StrategySpace[channels: " + channels + ", maxChannels: " + maxChannels + ", size: " + size + "]";
+	}
+
+	/**
+	 * Unranks a strategy of at most 64 channels without the mask table.
+	 */
+	long unrankMask(int index) {
+		int[] combination = new int[maxChannels];
+		int k = unrank(index, combination);
+
+		long mask = 0;
+		for (int i = 0; i < k; i++) {
+			mask |= 1L << combination[i];
+		}
+
+		return mask;
+	}
+
+	/**
+	 * Unranks a strategy by the combinatorial number system: the rank
+	 * of channels c_k > ... > c_1 among the k-subsets is the sum of C(c_i, i).
+	 *
+	 * @param index - index of the strategy
+	 * @param combination - output of the used channels in decreasing order
+	 * @return number of used channels
+	 */
+	private int unrank(int index, int[] combination) {
+		int k = getUsedChannels(index);
+		long rank = index - offsets[k];
+		int bound = channels;
+
+		for (int i = k; i >= 1; i--) {
+			// the largest c < bound with C(c, i) <= rank
+			int low = i - 1;
+			int high = bound - 1;
+
+			while (low < high) {
+				int middle = (low + high + 1) >>> 1;
+
+				if (binomials[middle][i] <= rank) {
+					low = middle;
+				}
+				else {
+					high = middle - 1;
+				}
+			}
+
+			combination[k - i] = low;
+			rank -= binomials[low][i];
+			bound = low;
+		}
+
+		return k;
+	}
+
+	private int checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Strategy: " + index + ", size: " + size);
+		}
+
+		return index;
+	}
+
+	/**
+	 * C(n, k), saturated at Long.MAX_VALUE.
+	 */
+	static long binomial(int n, int k) {
+		k = Math.min(k, n - k);
+		long result = 1;
+
+		for (int i = 1; i <= k; i++) {
+			// result * (n - k + i) / i is exact, as result * (n - k + i) is divisible by i
+			long gcd = gcd(result, i);
+			long factor = (n - k + i) / (i / gcd);
+
+			if (result / gcd > Long.MAX_VALUE / factor) {
+				return Long.MAX_VALUE;
+			}
+
+			result = result / gcd * factor;
+		}
+
 		return result;
 	}
+
+	private static long gcd(long a, long b) {
+		return b == 0 ? a : gcd(b, a % b);
+	}
+
+	/**
+	 * Adds every k-subset of n channels as a long mask, in increasing order (Gosper's hack).
+	 *
+	 * @return index after the last added mask
+	 */
+	private static int addMasks(int n, int k, long[] masks, int index) {
+		long mask = k == Long.SIZE ? -1L : (1L << k) - 1;
+		long last = mask << (n - k);
+
+		masks[index++] = mask;
+
+		while (mask != last) {
+			long lowest = mask & -mask;
+			long ripple = mask + lowest;
+
+			mask = (((ripple ^ mask) >>> 2) / lowest) | ripple;
+			masks[index++] = mask;
+		}
+
+		return index;
+	}
+
+	/**
+	 * Adds every k-subset of n channels as a BitSet, in colexicographic order.
+	 *
+	 * @return index after the last added set
+	 */
+	private static int addBitSets(int n, int k, BitSet[] sets, int index) {
+		int[] combination = new int[k];
+		for (int i = 0; i < k; i++) {
+			combination[i] = i;
+		}
+
+		while (true) {
+			BitSet set = new BitSet(n);
+			for (int c : combination) {
+				set.set(c);
+			}
+
+			sets[index++] = set;
+
+			// increase the first element that is not followed directly by the next one
+			int i = 0;
+			while (i < k && combination[i] + 1 == (i + 1 < k ? combination[i + 1] : n)) {
+				i++;
+			}
+
+			if (i == k) {
+				return index;
+			}
+
+			combination[i]++;
+			for (int j = 0; j < i; j++) {
+				combination[j] = j;
+			}
+		}
+	}
+
+	/**
+	 * Read-only List&lt;Boolean&gt; view of a strategy mask.
+	 */
+	private class MaskView extends AbstractList<Boolean> implements RandomAccess {
+
+		private final long mask;
+
+		private MaskView(long mask) {
+			this.mask = mask;
+		}
+
+		@Override
+		public Boolean get(int channel) {
+			if (channel < 0 || channel >= channels) {
+				throw new IndexOutOfBoundsException("Channel: " + channel + ", channels: " + channels);
+			}
+
+			return (mask >>> channel & 1L) != 0;
+		}
+
+		@Override
+		public int size() {
+			return channels;
+		}
+	}
+
+	/**
+	 * Read-only List&lt;Boolean&gt; view of a strategy set.
+	 */
+	private class BitSetView extends AbstractList<Boolean> implements RandomAccess {
+
+		private final BitSet set;
+
+		private BitSetView(BitSet set) {
+			this.set = set;
+		}
+
+		@Override
+		public Boolean get(int channel) {
+			if (channel < 0 || channel >= channels) {
+				throw new IndexOutOfBoundsException("Channel: " + channel + ", channels: " + channels);
+			}
+
+			return set.get(channel);
+		}
+
+		@Override
+		public int size() {
+			return channels;
+		}
+	}
+
+	/**
+	 * Read-only view of the whole strategy space.
+	 */
+	private class StrategiesView extends AbstractList<List<Boolean>> implements RandomAccess {
+
+		@Override
+		public List<Boolean> get(int index) {
+			return StrategySpace.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
 }
@@ -0,0 +1,28 @@
+package hu.bme.cr.trace;
+
+/**
+ * <p>Verbosity levels of the simulation trace.
+ * Every level contains the events of the levels before it.</p>
+ */
+public enum TraceLevel {
+
+	/**
+	 * Nothing is traced.
+	 */
+	OFF,
+
+	/**
+	 * Phases, utilities and regrets of every round.
+	 */
+	SUMMARY,
+
+	/**
+	 * Collisions and radio data of every strategy slot.
+	 */
+	STRATEGY,
+
+	/**
+	 * Outcome of the channel access in every subslot.
+	 */
+	SUBSLOT
+}
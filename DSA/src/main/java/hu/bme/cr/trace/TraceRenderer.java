@@ -0,0 +1,281 @@
+package hu.bme.cr.trace;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import hu.bme.cr.engine.CollisionResolver;
+import hu.bme.cr.utilities.ListUtility;
+
+/**
+ * <p>Offline tool that renders a binary trace written by the
+ * TraceWriter to the human-readable simulation log.</p>
+ *
+ * <p>Usage: TraceRenderer traceFile [textFile], the text is
+ * printed to the console if no text file is given.</p>
+ *
+ * <p>The records of a strategy slot are rendered into a buffer of
+ * the slot, and the buffers are printed in slot order before the next
+ * phase or round-level record, so the records of slots played at the
+ * same time in parallel play mode come out as in a sequential log.</p>
+ */
+public class TraceRenderer {
+
+	/**
+	 * Names of the phases by round.
+	 */
+	private final Map<Long, String> phases = new HashMap<>();
+
+	private final PrintStream out;
+
+	/**
+	 * Rendered records of the strategy slots not printed yet, by round and slot.
+	 */
+	private final TreeMap<Long, SlotText> slots = new TreeMap<>();
+
+	public TraceRenderer(PrintStream out) {
+		this.out = out;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("Usage: TraceRenderer traceFile [textFile]");
+			return;
+		}
+
+		PrintStream out = args.length > 1 ? new PrintStream(new File(args[1])) : System.out;
+
+		try (InputStream in = new BufferedInputStream(new FileInputStream(args[0]))) {
+			new TraceRenderer(out).render(in);
+		} finally {
+			out.flush();
+
+			if (out != System.out) {
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * Renders every record of the given trace.
+	 *
+	 * @param stream - binary trace
+	 * @throws IOException - if the trace can not be read or it is not a trace
+	 */
+	public void render(InputStream stream) throws IOException {
+		DataInputStream in = new DataInputStream(stream);
+
+		if (in.readInt() != TraceWriter.MAGIC) {
+			throw new IOException("Not a simulation trace!");
+		}
+
+		int version = in.readInt();
+		if (version != TraceWriter.VERSION) {
+			throw new IOException("Unsupported trace version: " + version);
+		}
+
+		int type;
+		while ((type = in.read()) != -1) {
+			switch (type) {
+			case TraceWriter.PHASE:
+				renderPhase(in);
+				break;
+			case TraceWriter.UTILITIES:
+				renderValues("Utilities: ", in);
+				break;
+			case TraceWriter.REGRETS:
+				renderValues("Regrets: ", in);
+				break;
+			case TraceWriter.STRATEGY:
+				renderStrategy(in);
+				break;
+			case TraceWriter.RADIO:
+				renderRadio(in);
+				break;
+			case TraceWriter.SUBSLOT:
+				renderSubslot(in);
+				break;
+			default:
+				throw new IOException("Unknown trace record type: " + type);
+			}
+		}
+
+		flushSlots();
+	}
+
+	/**
+	 * Prints the rendered strategy slots in round and slot order.
+	 */
+	private void flushSlots() {
+		for (SlotText slot : slots.values()) {
+			slot.out.flush();
+			out.write(slot.bytes.toByteArray(), 0, slot.bytes.size());
+		}
+
+		slots.clear();
+	}
+
+	private SlotText slot(long round, int strategy) {
+		return slots.computeIfAbsent((round << 32) | (strategy & 0xFFFFFFFFL), key -> new SlotText());
+	}
+
+	private void renderPhase(DataInputStream in) throws IOException {
+		flushSlots();
+
+		long round = in.readLong();
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+
+		String name = new String(bytes, StandardCharsets.UTF_8);
+		phases.put(round, name);
+
+		String stars = new String(new char[name.length() + 6]).replace('\0', '*');
+		out.println();
+		out.println(stars);
+		out.println("** " + name + " **");
+		out.println(stars);
+	}
+
+	private void renderValues(String label, DataInputStream in) throws IOException {
+		in.readLong();
+		in.readInt();
+		List<Double> values = readDoubles(in, in.readInt());
+
+		flushSlots();
+		out.println(label + ListUtility.formatDoubleList(values, v -> String.format("%.3f", v)));
+	}
+
+	private void renderStrategy(DataInputStream in) throws IOException {
+		long round = in.readLong();
+		int strategy = in.readInt();
+		int collisions = in.readInt();
+
+		slot(round, strategy).out.println("Number of collisions in " + phaseName(round) + "_" + strategy + " phase: " + collisions);
+	}
+
+	private void renderRadio(DataInputStream in) throws IOException {
+		long round = in.readLong();
+		int strategy = in.readInt();
+		int radio = in.readInt();
+		int strategyIndex = in.readInt();
+		int channels = in.readInt();
+		int subslots = in.readInt();
+
+		List<Boolean> access = new ArrayList<>(channels);
+		for (int c = 0; c < channels; c++) {
+			access.add(in.readByte() != 0);
+		}
+
+		List<List<Boolean>> captures = new ArrayList<>(channels);
+		for (int c = 0; c < channels; c++) {
+			List<Boolean> captured = new ArrayList<>(subslots);
+			for (int w = 0; w < subslots; w++) {
+				captured.add(in.readByte() != 0);
+			}
+			captures.add(captured);
+		}
+
+		List<List<Double>> probabilities = new ArrayList<>(channels);
+		for (int c = 0; c < channels; c++) {
+			probabilities.add(readDoubles(in, subslots));
+		}
+
+		List<Double> contentions = readDoubles(in, channels);
+		double utility = in.readDouble();
+
+		PrintStream out = slot(round, strategy).out;
+		out.println();
+		out.println("Radio " + radio + ": ");
+
+		out.println("Channel access decision: ");
+		out.println(access);
+		out.println();
+
+		out.println("Channel captures (Subslot, Channel)");
+		captures.forEach(out::println);
+		out.println();
+
+		out.println("Channel capture probabilities (Subslot, Channel)");
+		probabilities.forEach(p -> out.println(ListUtility.formatDoubleList(p, cp -> String.format("%.3f", cp))));
+		out.println();
+
+		out.println("User estimate on strategy " + strategyIndex);
+		out.println(ListUtility.formatDoubleList(contentions, c -> String.format("%.3f", c)));
+		out.println();
+
+		out.println("Utility on strategy " + strategyIndex + ": " + utility);
+	}
+
+	private void renderSubslot(DataInputStream in) throws IOException {
+		long round = in.readLong();
+		int strategy = in.readInt();
+		int subslot = in.readInt();
+		int channel = in.readInt();
+		int outcome = in.readInt();
+		double first = in.readDouble();
+		double second = in.readDouble();
+
+		SlotText slot = slot(round, strategy);
+		PrintStream out = slot.out;
+
+		if (subslot != slot.lastSubslot) {
+			slot.lastSubslot = subslot;
+			out.println();
+			out.println("Subslot " + (subslot + 1) + ":");
+		}
+
+		out.print("Channel " + (channel + 1) + ": ");
+
+		if (outcome == CollisionResolver.IDLE) {
+			out.println("NO COLLISION - No radios attempt to access the channel!");
+		}
+		else if (Double.isInfinite(second)) {
+			out.println("NO COLLISION - Only one radio attempts to access the channel!");
+		}
+		else {
+			out.println((outcome == CollisionResolver.COLLISION ? "COLLISION" : "NO COLLISION")
+					+ " - 1st backoff: " + String.format("%.3f", first)
+					+ ", 2nd backoff: " + String.format("%.3f", second));
+		}
+	}
+
+	private String phaseName(long round) {
+		return phases.getOrDefault(round, "ROUND_" + round);
+	}
+
+	private static List<Double> readDoubles(DataInputStream in, int n) throws IOException {
+		List<Double> values = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			values.add(in.readDouble());
+		}
+
+		return values;
+	}
+
+	/**
+	 * Rendered records of a strategy slot.
+	 */
+	private static class SlotText {
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		private final PrintStream out = new PrintStream(bytes);
+
+		/**
+		 * Subslot of the last subslot record, the subslot
+		 * header is printed again whenever it changes.
+		 */
+		private int lastSubslot = -1;
+	}
+}
@@ -0,0 +1,444 @@
+package hu.bme.cr.trace;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import hu.bme.cr.engine.ContentionBuffer;
+import hu.bme.cr.engine.SimulationState;
+
+/**
+ * <p>Writes the events of the simulation as compact binary records.</p>
+ *
+ * <p>The simulation threads encode the records into a ring buffer and
+ * a background thread copies them to the output, so the simulation
+ * never waits on I/O unless the ring buffer is full. Events above the
+ * level of the writer are dropped before anything is encoded, and the
+ * disabled writer does nothing at all. The records can be rendered
+ * to text by the TraceRenderer.</p>
+ *
+ * <p>Record layout: a type byte followed by big-endian primitive fields,
+ * see the event methods for the fields of each type. Records larger than
+ * the ring buffer, e.g. the utilities of a huge strategy space, are copied
+ * through it in pieces while the other producers wait.</p>
+ */
+public class TraceWriter implements Closeable {
+
+	static final int MAGIC = 0x43525452;
+
+	static final int VERSION = 1;
+
+	/*
+	 * Record types
+	 */
+
+	static final byte PHASE = 1;
+
+	static final byte UTILITIES = 2;
+
+	static final byte REGRETS = 3;
+
+	static final byte STRATEGY = 4;
+
+	static final byte RADIO = 5;
+
+	static final byte SUBSLOT = 6;
+
+	private static final TraceWriter DISABLED = new TraceWriter();
+
+	private final TraceLevel level;
+
+	private final byte[] ring;
+
+	private final int mask;
+
+	/**
+	 * Position of the next byte to write, guarded by lock.
+	 */
+	private long head;
+
+	/**
+	 * Position of the next byte to copy to the output, guarded by lock.
+	 */
+	private long tail;
+
+	private boolean closed;
+
+	/**
+	 * Producer of the record that is larger than the ring buffer, guarded by lock.
+	 * It releases the lock while it waits for space, and the other producers
+	 * must not start a record until it is done.
+	 */
+	private Thread owner;
+
+	private final ReentrantLock lock;
+
+	private final Condition notEmpty;
+
+	private final Condition notFull;
+
+	private final OutputStream output;
+
+	private final Thread consumer;
+
+	private volatile IOException failure;
+
+	private TraceWriter() {
+		this.level = TraceLevel.OFF;
+		this.ring = null;
+		this.mask = 0;
+		this.lock = null;
+		this.notEmpty = null;
+		this.notFull = null;
+		this.output = null;
+		this.consumer = null;
+	}
+
+	/**
+	 * Writes the file header and starts the background thread.
+	 *
+	 * @param level - the most detailed level to trace
+	 * @param output - output of the records
+	 * @param capacity - size of the ring buffer in bytes, rounded up to a power of two
+	 * @throws IOException - if the header can not be written
+	 */
+	public TraceWriter(TraceLevel level, OutputStream output, int capacity) throws IOException {
+		if (level == TraceLevel.OFF) {
+			throw new IllegalArgumentException("Use TraceWriter.disabled() to switch off tracing!");
+		}
+
+		this.level = level;
+		this.ring = new byte[Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1];
+		this.mask = ring.length - 1;
+		this.lock = new ReentrantLock();
+		this.notEmpty = lock.newCondition();
+		this.notFull = lock.newCondition();
+		this.output = output;
+
+		DataOutputStream header = new DataOutputStream(output);
+		header.writeInt(MAGIC);
+		header.writeInt(VERSION);
+		header.flush();
+
+		this.consumer = new Thread(this::drain, "trace-writer");
+		this.consumer.setDaemon(true);
+		this.consumer.start();
+	}
+
+	/**
+	 * Returns the writer that drops every event.
+	 *
+	 * @return disabled writer
+	 */
+	public static TraceWriter disabled() {
+		return DISABLED;
+	}
+
+	/**
+	 * Callers should check the level before collecting the data of an event.
+	 *
+	 * @param eventLevel - level of the event
+	 * @return true if events of the given level are written
+	 */
+	public boolean isEnabled(TraceLevel eventLevel) {
+		return eventLevel.ordinal() <= level.ordinal() && level != TraceLevel.OFF;
+	}
+
+	public TraceLevel getLevel() {
+		return level;
+	}
+
+	/**
+	 * SUMMARY: round (long), name (int length, UTF-8 bytes).
+	 *
+	 * @param round - index of the round (phase) of the simulation
+	 * @param name - name of the phase
+	 */
+	public void phase(long round, String name) {
+		if (!isEnabled(TraceLevel.SUMMARY)) {
+			return;
+		}
+
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+
+		begin(PHASE, 8 + 4 + bytes.length);
+		putLong(round);
+		putInt(bytes.length);
+		for (byte b : bytes) {
+			putByte(b);
+		}
+		end();
+	}
+
+	/**
+	 * SUMMARY: round (long), radio (int), size (int), utilities (double...).
+	 */
+	public void utilities(long round, int radio, double[] utilities) {
+		values(UTILITIES, round, radio, utilities);
+	}
+
+	/**
+	 * SUMMARY: round (long), radio (int), size (int), regrets (double...).
+	 */
+	public void regrets(long round, int radio, double[] regrets) {
+		values(REGRETS, round, radio, regrets);
+	}
+
+	private void values(byte type, long round, int radio, double[] values) {
+		if (!isEnabled(TraceLevel.SUMMARY)) {
+			return;
+		}
+
+		begin(type, 8 + 4 + 4 + 8 * values.length);
+		putLong(round);
+		putInt(radio);
+		putInt(values.length);
+		for (double value : values) {
+			putDouble(value);
+		}
+		end();
+	}
+
+	/**
+	 * STRATEGY: round (long), strategy slot (int), collisions (int).
+	 */
+	public void strategy(long round, int strategy, int collisions) {
+		if (!isEnabled(TraceLevel.STRATEGY)) {
+			return;
+		}
+
+		begin(STRATEGY, 8 + 4 + 4);
+		putLong(round);
+		putInt(strategy);
+		putInt(collisions);
+		end();
+	}
+
+	/**
+	 * STRATEGY: round (long), strategy slot (int), radio (int), strategy index (int),
+	 * channels (int), subslots (int), access (byte per channel), captures (byte per
+	 * channel and subslot), capture probabilities (double per channel and subslot),
+	 * user estimates (double per channel), utility (double).
+	 */
+	public void radio(long round, int strategy, int radio, int strategyIndex, double utility,
+					  ContentionBuffer buffer, SimulationState state) {
+		if (!isEnabled(TraceLevel.STRATEGY)) {
+			return;
+		}
+
+		int channels = buffer.getChannelNumber();
+		int subslots = buffer.getSubslots();
+
+		begin(RADIO, 8 + 4 * 5 + channels + channels * subslots * 9 + channels * 8 + 8);
+		putLong(round);
+		putInt(strategy);
+		putInt(radio);
+		putInt(strategyIndex);
+		putInt(channels);
+		putInt(subslots);
+		for (int c = 0; c < channels; c++) {
+			putByte(buffer.getAccess()[c * buffer.getRadioNumber() + radio] ? (byte) 1 : (byte) 0);
+		}
+		for (int c = 0; c < channels; c++) {
+			for (int w = 0; w < subslots; w++) {
+				putByte(buffer.isCaptured(radio, c, w) ? (byte) 1 : (byte) 0);
+			}
+		}
+		for (int c = 0; c < channels; c++) {
+			for (int w = 0; w < subslots; w++) {
+				putDouble(buffer.getCaptureProbability(radio, c, w));
+			}
+		}
+		for (int c = 0; c < channels; c++) {
+			putDouble(state.getContention(radio, strategyIndex, c));
+		}
+		putDouble(utility);
+		end();
+	}
+
+	/**
+	 * SUBSLOT: round (long), strategy slot (int), subslot (int), channel (int),
+	 * outcome (int), 1st back off (double), 2nd back off (double).
+	 */
+	public void subslot(long round, int strategy, int subslot, int channel, int outcome, double first, double second) {
+		if (!isEnabled(TraceLevel.SUBSLOT)) {
+			return;
+		}
+
+		begin(SUBSLOT, 8 + 4 * 4 + 8 * 2);
+		putLong(round);
+		putInt(strategy);
+		putInt(subslot);
+		putInt(channel);
+		putInt(outcome);
+		putDouble(first);
+		putDouble(second);
+		end();
+	}
+
+	/**
+	 * Waits until every record is written to the output and closes it.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this == DISABLED) {
+			return;
+		}
+
+		lock.lock();
+		try {
+			closed = true;
+			notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+
+		try {
+			consumer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		output.close();
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Locks the ring buffer until end() and waits for enough space,
+	 * or for an empty ring buffer if the record is larger than it.
+	 *
+	 * @param type - record type
+	 * @param length - length of the record without the type byte
+	 */
+	private void begin(byte type, int length) {
+		long space = Math.min(length + 1L, ring.length);
+
+		lock.lock();
+		while ((owner != null || head + space - tail > ring.length) && !closed) {
+			notFull.awaitUninterruptibly();
+		}
+
+		if (closed) {
+			lock.unlock();
+			throw new IllegalStateException("Trace writer is closed!", failure);
+		}
+
+		if (length + 1 > ring.length) {
+			owner = Thread.currentThread();
+		}
+
+		putByte(type);
+	}
+
+	private void end() {
+		if (owner != null) {
+			owner = null;
+			notFull.signalAll();
+		}
+
+		notEmpty.signal();
+		lock.unlock();
+	}
+
+	private void putByte(byte b) {
+		if (owner != null && head - tail == ring.length) {
+			awaitSpace();
+		}
+
+		ring[(int) (head++ & mask)] = b;
+	}
+
+	/**
+	 * Lets the background thread drain the full ring buffer
+	 * in the middle of a record that is larger than it.
+	 */
+	private void awaitSpace() {
+		notEmpty.signal();
+		while (head - tail == ring.length && !closed) {
+			notFull.awaitUninterruptibly();
+		}
+
+		if (closed) {
+			owner = null;
+			notFull.signalAll();
+			lock.unlock();
+			throw new IllegalStateException("Trace writer is closed!", failure);
+		}
+	}
+
+	private void putInt(int i) {
+		putByte((byte) (i >>> 24));
+		putByte((byte) (i >>> 16));
+		putByte((byte) (i >>> 8));
+		putByte((byte) i);
+	}
+
+	private void putLong(long l) {
+		putInt((int) (l >>> 32));
+		putInt((int) l);
+	}
+
+	private void putDouble(double d) {
+		putLong(Double.doubleToRawLongBits(d));
+	}
+
+	/**
+	 * Body of the background thread: copies the records from
+	 * the ring buffer to the output until the writer is closed.
+	 */
+	private void drain() {
+		byte[] chunk = new byte[Math.min(ring.length, 1 << 16)];
+
+		try {
+			while (true) {
+				int n;
+
+				lock.lock();
+				try {
+					while (head == tail && !closed) {
+						notEmpty.awaitUninterruptibly();
+					}
+
+					if (head == tail) {
+						break;
+					}
+
+					n = (int) Math.min(head - tail, chunk.length);
+					int from = (int) (tail & mask);
+					int first = Math.min(n, ring.length - from);
+
+					System.arraycopy(ring, from, chunk, 0, first);
+					System.arraycopy(ring, 0, chunk, first, n - first);
+
+					tail += n;
+					notFull.signalAll();
+				} finally {
+					lock.unlock();
+				}
+
+				output.write(chunk, 0, n);
+			}
+
+			output.flush();
+		} catch (IOException e) {
+			failure = e;
+
+			// release the waiting producers, they will fail on the closed writer
+			lock.lock();
+			try {
+				closed = true;
+				tail = head;
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
@@ -5,6 +5,8 @@ import java.util.List;
 
 import static hu.bme.cr.utilities.UtilityConstants.*;
 
+import hu.bme.cr.utilities.ListUtility;
+
 /**
  * 
  * @author Zoltn Koleszr
@@ -30,14 +32,21 @@ public class CompetitiveUtilityFunction implements IUtilityFunction {
 			throw new IllegalArgumentException("Size of access decisions and contentions is not equal!");
 		}
 		
-		int size = transmissionRates.size();
+		return calculateUtility(params.getDemand(), ListUtility.toArray(transmissionRates), 
+				ListUtility.toBooleanArray(accessDecisions), ListUtility.toArray(contentions), null, null);
+	}
+	
+	@Override
+	public double calculateUtility(double demand, double[] transmissionRates, boolean[] accessDecisions, 
+			double[] contentions, double[] captureProbabilities, double[] collisionProbabilities) {
+		int size = transmissionRates.length;
 		double competitiveElement = 0.0;
 		double constantElement = (1 - MODE_SWITCH_TIME / MAX_BACKOFF);
 		
 		for (int i = 0; i < size; i++) {
-			if (accessDecisions.get(i)) {
-				double element1 = transmissionRates.get(i) / ( params.getDemand() * (1 + contentions.get(i)) );
-				competitiveElement += element1 * Math.pow(constantElement, contentions.get(i));
+			if (accessDecisions[i]) {
+				double element1 = transmissionRates[i] / ( demand * (1 + contentions[i]) );
+				competitiveElement += element1 * Math.pow(constantElement, contentions[i]);
 			}
 		}
 		
@@ -13,6 +13,22 @@ public interface IUtilityFunction {
 	
 	double calculateUtility(UtilityFunctionParameters params);
 	
+	/**
+	 * Primitive variant of calculateUtility(UtilityFunctionParameters)
+	 * for the simulation loop, every array holds a value per channel
+	 * and kappa is 0.
+	 * 
+	 * @param demand - demand of the user
+	 * @param transmissionRates - transmission rates of the channels
+	 * @param accessDecisions - channels accessed by the strategy
+	 * @param contentions - user estimates
+	 * @param captureProbabilities - channel capture probabilities
+	 * @param collisionProbabilities - channel collision probabilities
+	 * @return payoff of the user
+	 */
+	double calculateUtility(double demand, double[] transmissionRates, boolean[] accessDecisions, 
+			double[] contentions, double[] captureProbabilities, double[] collisionProbabilities);
+	
 	String getType();
 	
 	List<Double> getRates();
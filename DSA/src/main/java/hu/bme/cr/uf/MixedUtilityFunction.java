@@ -6,6 +6,8 @@ import static hu.bme.cr.utilities.UtilityConstants.MODE_SWITCH_TIME;
 import java.util.Arrays;
 import java.util.List;
 
+import hu.bme.cr.utilities.ListUtility;
+
 /**
  * 
  * @author Zoltn Koleszr
@@ -40,39 +42,64 @@ public class MixedUtilityFunction implements IUtilityFunction {
 	 * it is competitive and cooperative
 	 * at the same time.
 	 * 
+	 * @throws IllegalArgumentException - sizes of the lists from params are not equal
 	 * @return payoff of the ith user
 	 */
 	public double calculateUtility(UtilityFunctionParameters params) {
+		List<Boolean> accessDecisions = params.getAccessDecisions();
+		List<Double> contentions = params.getContentions();
+		List<Double> transmissionRates = params.getTransMissionRates();
+		List<Double> captureProbabilities = params.getCaptureProbabilities();
+		List<Double> collisionProbabilities = params.getCollisionProbabilities();
 		
-		return Math.max(rate1 * calculateSelfishInterest(params)
-				+ rate2 * calculateTransmissionPenalty(params)
-				+ rate3 * calculateCollisionPenalty(params), 
+		if (accessDecisions.size() != contentions.size() || accessDecisions.size() != transmissionRates.size()) {
+			throw new IllegalArgumentException("List sizes are not equal in selfish payoff calculation!");
+		}
+		
+		if (transmissionRates.size() != captureProbabilities.size()) {
+			throw new IllegalArgumentException("List sizes are not equal in transmission penalty calculation!");
+		}
+		
+		if (contentions.size() != collisionProbabilities.size()) {
+			throw new IllegalArgumentException("List sizes are not equal in collision penalty calculation!");
+		}
+		
+		return calculateUtility(params.getDemand(), params.getKappa(), ListUtility.toArray(transmissionRates), 
+				ListUtility.toBooleanArray(accessDecisions), ListUtility.toArray(contentions), 
+				ListUtility.toArray(captureProbabilities), ListUtility.toArray(collisionProbabilities));
+	}
+	
+	@Override
+	public double calculateUtility(double demand, double[] transmissionRates, boolean[] accessDecisions, 
+			double[] contentions, double[] captureProbabilities, double[] collisionProbabilities) {
+		return calculateUtility(demand, 0.0, transmissionRates, accessDecisions, 
+				contentions, captureProbabilities, collisionProbabilities);
+	}
+	
+	private double calculateUtility(double demand, double kappa, double[] transmissionRates, boolean[] accessDecisions, 
+			double[] contentions, double[] captureProbabilities, double[] collisionProbabilities) {
+		
+		return Math.max(rate1 * calculateSelfishInterest(demand, transmissionRates, accessDecisions, contentions)
+				+ rate2 * calculateTransmissionPenalty(demand, kappa, transmissionRates, captureProbabilities)
+				+ rate3 * calculateCollisionPenalty(transmissionRates, contentions, collisionProbabilities), 
 				0);
 	}
 	
 	/**
 	 * Calculates the selfish payoff of the utility function.
 	 * 
-	 * @throws IllegalArgumentException - sizes of the lists from params are not equal
 	 * @return payoff of the ith user
 	 */
-	private double calculateSelfishInterest(UtilityFunctionParameters params) {
-		List<Boolean> accessDecisions = params.getAccessDecisions();
-		List<Double> contentions = params.getContentions();
-		List<Double> transmissionRates = params.getTransMissionRates();
-		
-		if (accessDecisions.size() != contentions.size() || accessDecisions.size() != transmissionRates.size()) {
-			throw new IllegalArgumentException("List sizes are not equal in selfish payoff calculation!");
-		}
-		
-		int size = transmissionRates.size();
+	private double calculateSelfishInterest(double demand, double[] transmissionRates, 
+			boolean[] accessDecisions, double[] contentions) {
+		int size = transmissionRates.length;
 		double competitiveElement = 0.0;
 		double constantElement = (1 - MODE_SWITCH_TIME / MAX_BACKOFF);
 		
 		for (int i = 0; i < size; i++) {
-			if (accessDecisions.get(i)) {
-				double element1 = transmissionRates.get(i) / ( params.getDemand() * (1 + contentions.get(i)) );
-				competitiveElement += element1 * Math.pow(constantElement, contentions.get(i));
+			if (accessDecisions[i]) {
+				double element1 = transmissionRates[i] / ( demand * (1 + contentions[i]) );
+				competitiveElement += element1 * Math.pow(constantElement, contentions[i]);
 			}
 		}
 		
@@ -84,27 +111,18 @@ public class MixedUtilityFunction implements IUtilityFunction {
 	 * which is a penalty if the users transmission rate exceeds
 	 * its demand.
 	 *  
-	 * @throws IllegalArgumentException - sizes of the lists from params are not equal
 	 * @return payoff
 	 */
-	private double calculateTransmissionPenalty(UtilityFunctionParameters params) throws IllegalArgumentException {
-		double demand = params.getDemand();
-		
-		List<Double> transmissionRates = params.getTransMissionRates();
-		List<Double> captureProbabilities = params.getCaptureProbabilities();
-		
-		if (transmissionRates.size() != captureProbabilities.size()) {
-			throw new IllegalArgumentException("List sizes are not equal in transmission penalty calculation!");
-		}
-		
-		int size = transmissionRates.size();
+	private double calculateTransmissionPenalty(double demand, double kappa, 
+			double[] transmissionRates, double[] captureProbabilities) {
+		int size = transmissionRates.length;
 		double penalty = 0.0;
 		
 		for (int i = 0; i < size; i++) {
-			penalty += transmissionRates.get(i) * captureProbabilities.get(i);
+			penalty += transmissionRates[i] * captureProbabilities[i];
 		}
 		
-		return (-1 / demand) * Math.max(0, penalty - demand + params.getKappa());
+		return (-1 / demand) * Math.max(0, penalty - demand + kappa);
 	}
 	
 	/**
@@ -112,27 +130,19 @@ public class MixedUtilityFunction implements IUtilityFunction {
 	 * which is a penalty if the user causes collision on the 
 	 * given channel.
 	 * 
-	 * @throws IllegalArgumentException - sizes of the lists from params are not equal
 	 * @return payoff
 	 */
-	private double calculateCollisionPenalty(UtilityFunctionParameters params) {
-		List<Double> contentions = params.getContentions();
-		List<Double> transmissionRates = params.getTransMissionRates();
-		List<Double> collisionProbabilities = params.getCollisionProbabilities();
-		
-		if (contentions.size() != transmissionRates.size() || contentions.size() != collisionProbabilities.size()) {
-			throw new IllegalArgumentException("List sizes are not equal in collision penalty calculation!");
-		}
-		
-		int size = transmissionRates.size();
+	private double calculateCollisionPenalty(double[] transmissionRates, 
+			double[] contentions, double[] collisionProbabilities) {
+		int size = transmissionRates.length;
 		double penalty = 0.0;
 		double denominator = 0.0;
 		
 		for (int i = 0; i < size; i++) {
-			denominator += transmissionRates.get(i);
+			denominator += transmissionRates[i];
 			
-			if (contentions.get(i) > 0) {
-				penalty += (transmissionRates.get(i) * collisionProbabilities.get(i)) / contentions.get(i);
+			if (contentions[i] > 0) {
+				penalty += (transmissionRates[i] * collisionProbabilities[i]) / contentions[i];
 			}
 		}
 		
@@ -36,6 +36,31 @@ public class ChannelUtility {
 		return Math.max(0.0, 1 - ((backOff + MODE_SWITCH_TIME) / MAX_BACKOFF));
 	}
 	
+	/**
+	 * Calculates the expected probability of a channel capture
+	 * of a CognitiveRadio whose back off time is uniformly 
+	 * distributed on [minBackOff, MAX_BACKOFF), e.g. a radio that
+	 * was beaten by the two smallest back off times of a subslot.
+	 * 
+	 * @param minBackOff - lower boundary of the back off time
+	 * @throws IllegalArgumentException - if minBackOff < 0.0
+	 * @return expected channel capture probability
+	 */
+	public static double calculateExpectedChannelCaptureProbability(double minBackOff) throws IllegalArgumentException {
+		if (minBackOff < 0.0) {
+			throw new IllegalArgumentException("Back off time is less than 0!");
+		}
+		
+		// the capture probability is 0 above MAX_BACKOFF - MODE_SWITCH_TIME
+		double lastCapture = MAX_BACKOFF - MODE_SWITCH_TIME;
+		
+		if (minBackOff >= lastCapture) {
+			return 0.0;
+		}
+		
+		return (lastCapture - minBackOff) * (lastCapture - minBackOff) / (2 * MAX_BACKOFF * (MAX_BACKOFF - minBackOff));
+	}
+	
 	/**
 	 * Calculates the unsuccessful channel captures in time slot t.
 	 * 
@@ -139,5 +164,46 @@ public class ChannelUtility {
 		
 		return (1 - numenator / lnFP);
 	}
-	
+
+	/**
+	 * Calculates the maximum likelihood estimate of competing users
+	 * from flat primitive arrays in a single pass, e.g. from a ContentionBuffer.
+	 *
+	 * @param channelCaptures - bit set that indicates whether the Cognitive Radio captured
+	 * 			the channel in subslot w, where w = 1, 2, ... W
+	 * @param probabilities - the channel capture probability for each subslot
+	 * @param offset - index of the first subslot in both arrays
+	 * @param length - number of subslots, i.e. W
+	 * @return maximum likelihood estimate of competing users
+	 */
+	public static double calculateUserEstimate(final long[] channelCaptures, final double[] probabilities, int offset, int length) {
+		// |I0|
+		int uCC = 0;
+		double failureProbabilities = 0.0;
+
+		// successful ln(ac[w])
+		double sCC = 0.0;
+
+		for (int i = offset; i < offset + length; i++) {
+			if ((channelCaptures[i >>> 6] & (1L << i)) != 0) {
+				sCC += Math.log(probabilities[i]);
+			}
+			else {
+				uCC++;
+				failureProbabilities += probabilities[i];
+			}
+		}
+
+		if (uCC == 0) {
+			return 0;
+		}
+
+		// ln(ac0)
+		double lnFP = Math.log(failureProbabilities / uCC);
+
+		double numenator = Math.log(1 + (uCC * lnFP) / sCC);
+
+		return (1 - numenator / lnFP);
+	}
+
 }
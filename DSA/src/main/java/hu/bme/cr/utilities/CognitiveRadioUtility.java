@@ -1,6 +1,9 @@
 package hu.bme.cr.utilities;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import hu.bme.cr.random.IRandomSource;
+
 import static hu.bme.cr.utilities.UtilityConstants.*;
 
 /**
@@ -23,7 +26,24 @@ public class CognitiveRadioUtility {
 	 * @return back off time used to simulate a CSMA channel attempt
 	 */
 	public static double generateBackOff(double maxBackOff) {
-		return new Random().nextDouble() * maxBackOff;
+		return ThreadLocalRandom.current().nextDouble() * maxBackOff;
+	}
+	
+	/**
+	 * Generates a random back off time on the interval of [0, maxBackOff]
+	 * from the stream of the given random source that belongs to the given draw.
+	 * 
+	 * @param source - random source of the simulation
+	 * @param maxBackOff - top boundary of the back off time
+	 * @param round - index of the round (phase) of the simulation
+	 * @param strategy - index of the strategy slot
+	 * @param channel - index of the channel
+	 * @param subslot - index of the subslot
+	 * @param radio - index of the CognitiveRadio
+	 * @return back off time used to simulate a CSMA channel attempt
+	 */
+	public static double generateBackOff(IRandomSource source, double maxBackOff, long round, int strategy, int channel, int subslot, int radio) {
+		return source.nextDouble(round, strategy, channel, subslot, radio) * maxBackOff;
 	}
 	
 	/**
@@ -0,0 +1,198 @@
+package hu.bme.cr.utilities;
+
+import java.util.Random;
+
+/**
+ * <p>A collection of static methods that rank the indexes
+ * of primitive double arrays without boxing.</p>
+ *
+ * <p>Equal values are ordered randomly: the indexes are shuffled
+ * with the supplied random number generator first, then sorted by
+ * a stable sort, so every order of the ties is equally likely and
+ * a seeded generator reproduces the ranking. Values are compared
+ * by Double.compare, i.e. NaN is the largest value.</p>
+ */
+public class IndexSortUtility {
+
+	private IndexSortUtility() {
+
+	}
+
+	/**
+	 * Ranks every index in O(S log S).
+	 *
+	 * @param values - values to rank
+	 * @param random - breaks the ties
+	 * @return indexes of the values in descending order of the values
+	 */
+	public static int[] getIndexesDescending(double[] values, Random random) {
+		int[] indexes = shuffledIndexes(values.length, random);
+
+		mergeSortDescending(values, indexes, new int[indexes.length], 0, indexes.length);
+
+		return indexes;
+	}
+
+	/**
+	 * Ranks the k leading indexes in O(S log k). The result is the
+	 * same as the first k elements of the full ranking would be
+	 * with the same state of the random number generator.
+	 *
+	 * @param values - values to rank
+	 * @param k - number of leading indexes
+	 * @param random - breaks the ties
+	 * @return indexes of the k largest values in descending order of the values
+	 */
+	public static int[] getTopIndexes(double[] values, int k, Random random) {
+		if (k < 0) {
+			throw new IllegalArgumentException("Number of leading indexes can not be negative!");
+		}
+
+		int[] shuffled = shuffledIndexes(values.length, random);
+		k = Math.min(k, values.length);
+
+		// min-heap of the k best positions of the shuffled order, the root is the worst of them
+		int[] heap = new int[k];
+		int size = 0;
+
+		for (int p = 0; p < shuffled.length && k > 0; p++) {
+			if (size < k) {
+				heap[size] = p;
+				siftUp(values, shuffled, heap, size++);
+			}
+			else if (before(values, shuffled, p, heap[0])) {
+				heap[0] = p;
+				siftDown(values, shuffled, heap, 0, size);
+			}
+		}
+
+		// pop the worst to the end
+		int[] result = new int[k];
+		for (int i = k - 1; i >= 0; i--) {
+			result[i] = shuffled[heap[0]];
+			heap[0] = heap[--size];
+			siftDown(values, shuffled, heap, 0, size);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Moves the given index to the front of the order if
+	 * its value is maximal but an other index is in front,
+	 * so that a radio keeps playing its best strategy.
+	 *
+	 * @param values - ranked values
+	 * @param order - ranked indexes
+	 * @param i - index to keep in front
+	 */
+	public static void swapToMax(double[] values, int[] order, int i) {
+		if (order[0] == i || Double.compare(values[order[0]], values[i]) != 0) {
+			return;
+		}
+
+		for (int p = 1; p < order.length; p++) {
+			if (order[p] == i) {
+				order[p] = order[0];
+				order[0] = i;
+				return;
+			}
+		}
+	}
+
+	private static int[] shuffledIndexes(int n, Random random) {
+		int[] indexes = new int[n];
+		for (int i = 0; i < n; i++) {
+			indexes[i] = i;
+		}
+
+		for (int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int tmp = indexes[i];
+			indexes[i] = indexes[j];
+			indexes[j] = tmp;
+		}
+
+		return indexes;
+	}
+
+	/**
+	 * Stable merge sort of indexes[from, to) by descending values.
+	 */
+	private static void mergeSortDescending(double[] values, int[] indexes, int[] buffer, int from, int to) {
+		if (to - from < 2) {
+			return;
+		}
+
+		int middle = (from + to) >>> 1;
+		mergeSortDescending(values, indexes, buffer, from, middle);
+		mergeSortDescending(values, indexes, buffer, middle, to);
+
+		// already in order
+		if (Double.compare(values[indexes[middle - 1]], values[indexes[middle]]) >= 0) {
+			return;
+		}
+
+		System.arraycopy(indexes, from, buffer, from, to - from);
+
+		int left = from;
+		int right = middle;
+		for (int i = from; i < to; i++) {
+			if (right >= to || (left < middle && Double.compare(values[buffer[left]], values[buffer[right]]) >= 0)) {
+				indexes[i] = buffer[left++];
+			}
+			else {
+				indexes[i] = buffer[right++];
+			}
+		}
+	}
+
+	/**
+	 * @return true if position p of the shuffled order ranks before position q
+	 */
+	private static boolean before(double[] values, int[] shuffled, int p, int q) {
+		int c = Double.compare(values[shuffled[p]], values[shuffled[q]]);
+
+		return c > 0 || (c == 0 && p < q);
+	}
+
+	private static void siftUp(double[] values, int[] shuffled, int[] heap, int i) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+
+			if (!before(values, shuffled, heap[parent], heap[i])) {
+				return;
+			}
+
+			swap(heap, i, parent);
+			i = parent;
+		}
+	}
+
+	private static void siftDown(double[] values, int[] shuffled, int[] heap, int i, int size) {
+		while (true) {
+			int worst = i;
+			int left = 2 * i + 1;
+			int right = left + 1;
+
+			if (left < size && before(values, shuffled, heap[worst], heap[left])) {
+				worst = left;
+			}
+			if (right < size && before(values, shuffled, heap[worst], heap[right])) {
+				worst = right;
+			}
+			if (worst == i) {
+				return;
+			}
+
+			swap(heap, i, worst);
+			i = worst;
+		}
+	}
+
+	private static void swap(int[] array, int i, int j) {
+		int tmp = array[i];
+		array[i] = array[j];
+		array[j] = tmp;
+	}
+}
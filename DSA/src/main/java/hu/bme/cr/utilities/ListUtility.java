@@ -2,9 +2,9 @@ package hu.bme.cr.utilities;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -19,30 +19,65 @@ public class ListUtility {
 	}
 	
 	public static List<Integer> getIndexesDescending(List<Double> doubles) {
-		Set<Double> copySet = new HashSet<>(doubles);
-		List<Double> copy = new ArrayList<>(copySet);
-		Collections.sort(copy);
-		Collections.reverse(copy);
+		return getIndexesDescending(doubles, ThreadLocalRandom.current());
+	}
+	
+	/**
+	 * Boxed variant of IndexSortUtility.getIndexesDescending.
+	 * 
+	 * @param doubles - values to rank
+	 * @param random - breaks the ties
+	 * @return indexes of the values in descending order of the values
+	 */
+	public static List<Integer> getIndexesDescending(List<Double> doubles, Random random) {
+		return toList(IndexSortUtility.getIndexesDescending(toArray(doubles), random));
+	}
+	
+	public static double[] toArray(List<Double> doubles) {
+		double[] result = new double[doubles.size()];
 		
-
-		List<Integer> indexes = new ArrayList<>();
-		for (Double d : copy) {
-			if (Collections.frequency(doubles, d) > 1) {
-				List<Integer> tmp = new ArrayList<>();
-				for (int i = 0; i < doubles.size(); i++) {
-					if (doubles.get(i).equals(d)) {
-						tmp.add(i);
-					}
-				}
-				Collections.shuffle(tmp);
-				indexes.addAll(tmp);
-			}
-			else {
-				indexes.add(doubles.indexOf(d));
-			}
+		for (int i = 0; i < result.length; i++) {
+			result[i] = doubles.get(i);
+		}
+		
+		return result;
+	}
+	
+	public static boolean[] toBooleanArray(List<Boolean> booleans) {
+		boolean[] result = new boolean[booleans.size()];
+		
+		for (int i = 0; i < result.length; i++) {
+			result[i] = booleans.get(i);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Copies the array, e.g. to persist the values of the
+	 * current round while the array is updated in place.
+	 * 
+	 * @param doubles - values to copy
+	 * @return list of the values
+	 */
+	public static List<Double> toList(double[] doubles) {
+		List<Double> result = new ArrayList<>(doubles.length);
+		
+		for (double d : doubles) {
+			result.add(d);
+		}
+		
+		return result;
+	}
+	
+	public static List<Integer> toList(int[] ints) {
+		List<Integer> result = new ArrayList<>(ints.length);
+		
+		for (int i : ints) {
+			result.add(i);
 		}
 		
-		return indexes;
+		return result;
 	}
 	
 	public static <T> List<List<T>> getInitial2DList(Class<T> cls, int x, int y) {
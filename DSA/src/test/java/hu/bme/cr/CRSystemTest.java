@@ -1,66 +1,190 @@
 package hu.bme.cr;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import hu.bme.cr.engine.ChannelOccupancyIndex;
+import hu.bme.cr.engine.CollisionResolver;
 import hu.bme.cr.entity.CognitiveRadio;
+import hu.bme.cr.scenario.RadioConfig.RadioConfigBuilder;
+import hu.bme.cr.scenario.RadioConfig.StrategyType;
+import hu.bme.cr.scenario.ScenarioConfig;
+import hu.bme.cr.scenario.ScenarioConfig.ScenarioConfigBuilder;
 import hu.bme.cr.strategies.StrategySpace;
 
 /**
  * 
  * @author Zoltn Koleszr
  *
- * In case of testing findMinIndex the method 
- * modifier in CRSystem class must be changed
- * to public.
+ * The collision detection of CRSystem is done by
+ * the CollisionResolver kernel.
  */
 public class CRSystemTest {
 	
 	@Test
 	public void testFindMinIndexSuccess() {
-		List<Double> backoffTimes = Arrays.asList(Double.NaN, 0.35, Double.NaN, 0.401, 0.670);
-		CRSystem system = new CRSystem();
+		double[] backoffTimes = {Double.NaN, 0.35, Double.NaN, 0.401, 0.670};
 		
-//		 Assert.assertEquals(1, system.findMinIndex(backoffTimes));
+		Assert.assertEquals(1, CollisionResolver.resolve(backoffTimes, 0, backoffTimes.length));
+		
+		backoffTimes = new double[] {Double.NaN, 0.35, Double.NaN, Double.NaN, Double.NaN};
+		
+		Assert.assertEquals(1, CollisionResolver.resolve(backoffTimes, 0, backoffTimes.length));
 	}
 	
 	@Test
 	public void testFindMinIndexFailure() {
-		List<Double> backoffTimes = Arrays.asList(Double.NaN, 0.35, Double.NaN, 0.398, 0.670);
+		double[] backoffTimes = {Double.NaN, 0.35, Double.NaN, 0.398, 0.670};
 		
-		CRSystem system = new CRSystem();
+		Assert.assertEquals(CollisionResolver.COLLISION, CollisionResolver.resolve(backoffTimes, 0, backoffTimes.length));
 		
-//		Assert.assertEquals(-1, system.findMinIndex(backoffTimes));
+		backoffTimes = new double[] {Double.NaN, 0.35, Double.NaN, 0.35, 0.670};
 		
-		backoffTimes = Arrays.asList(Double.NaN, 0.35, Double.NaN, 0.35, 0.670);
+		Assert.assertEquals(CollisionResolver.COLLISION, CollisionResolver.resolve(backoffTimes, 0, backoffTimes.length));
 		
-//		Assert.assertEquals(-1, system.findMinIndex(backoffTimes));
+		backoffTimes = new double[] {Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN};
 		
-		backoffTimes = Arrays.asList(Double.NaN, 0.35, Double.NaN, Double.NaN, Double.NaN);
+		Assert.assertEquals(CollisionResolver.IDLE, CollisionResolver.resolve(backoffTimes, 0, backoffTimes.length));
+	}
+	
+	@Test
+	public void testResolveAllChannels() {
+		// 3 radios, 3 channels: winner, collision, idle
+		double[] backoffTimes = {
+				0.10, Double.NaN, 0.30,
+				0.20, 0.22, Double.NaN,
+				Double.NaN, Double.NaN, Double.NaN};
+		int[] outcomes = new int[3];
+		double[] first = new double[3];
+		double[] second = new double[3];
 		
-//		Assert.assertEquals(-2, system.findMinIndex(backoffTimes));
+		CollisionResolver.resolveAll(backoffTimes, 3, 3, outcomes, first, second);
 		
-		backoffTimes = Arrays.asList(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+		Assert.assertArrayEquals(new int[] {0, CollisionResolver.COLLISION, CollisionResolver.IDLE}, outcomes);
+		Assert.assertEquals(0.10, first[0], 0.0);
+		Assert.assertEquals(0.30, second[0], 0.0);
+		Assert.assertEquals(0.22, second[1], 0.0);
+	}
+	
+	/**
+	 * Test case for the incremental evaluation mode: a strategy slot whose
+	 * radios play the same strategies as in the previous round is not played
+	 * again, the radios keep their utilities and the slot its collisions.
+	 */
+	@Test
+	public void testIncrementalEvaluation() {
+		ScenarioConfig scenario = new ScenarioConfigBuilder()
+				.addChannels(3, 1.0)
+				.setMaxChannels(2)
+				.addRadios(3, new RadioConfigBuilder().setDemand(5.0).setStrategy(StrategyType.MAX_UTILITY).build())
+				.setProperty("SEED", "42")
+				.setProperty("ROUNDS", "20")
+				.setProperty("EVALUATION_MODE", "INCREMENTAL")
+				.build();
+		CRSystem system = new CRSystem(scenario, null);
+		List<int[][]> decisions = new ArrayList<>();
+		List<double[][]> utilities = new ArrayList<>();
 		
-//		Assert.assertEquals(-2, system.findMinIndex(backoffTimes));
+		system.setRoundListener((s, round, collisionNumber) -> {
+			int[][] decisionsOfRound = new int[s.getRadios().size()][];
+			double[][] utilitiesOfRound = new double[s.getRadios().size()][];
+			
+			for (int k = 0; k < decisionsOfRound.length; k++) {
+				CognitiveRadio r = s.getRadios().get(k);
+				decisionsOfRound[k] = r.getAccessDecisions().stream().mapToInt(Integer::intValue).toArray();
+				utilitiesOfRound[k] = r.getUtilities().clone();
+			}
+			
+			decisions.add(decisionsOfRound);
+			utilities.add(utilitiesOfRound);
+		});
+		
+		try {
+			system.init();
+			system.playInitPhase();
+			system.playSetPhase();
+			for (int r = 0; r < 20; r++) {
+				system.playDecidePhase(r);
+			}
+			system.endGame();
+		} finally {
+			system.close();
+		}
+		
+		int reused = 0;
+		int played = 0;
+		
+		// normal phases, the collisions of round t are stored with the key of normal phase t - 2
+		for (int t = 3; t < decisions.size(); t++) {
+			for (int j = 0; j < system.getStrategySpace().size(); j++) {
+				boolean unchanged = true;
+				for (int k = 0; k < decisions.get(t).length; k++) {
+					unchanged &= decisions.get(t)[k][j] == decisions.get(t - 1)[k][j];
+				}
+				
+				if (!unchanged) {
+					played++;
+					continue;
+				}
+				
+				reused++;
+				Assert.assertEquals(system.collisions.get(String.format("%s_%03d_%d", CRSystem.NORMAL_PHASE, t - 3, j)), 
+						system.collisions.get(String.format("%s_%03d_%d", CRSystem.NORMAL_PHASE, t - 2, j)));
+				
+				for (int k = 0; k < decisions.get(t).length; k++) {
+					int strategy = decisions.get(t)[k][j];
+					Assert.assertEquals(utilities.get(t - 1)[k][strategy], utilities.get(t)[k][strategy], 0.0);
+				}
+			}
+		}
+		
+		Assert.assertTrue(reused > 0);
+		Assert.assertTrue(played > 0);
 	}
 	
+	/**
+	 * Test case for the competing users of the channel occupancy index
+	 * after the init phase, compared to a count of the played strategies.
+	 */
 	@Test
 	public void testSetCompetingUserNumber() {
-		CRContentionSimulation system = new CRContentionSimulation();
+		ScenarioConfig scenario = new ScenarioConfigBuilder()
+				.addChannels(5, 1.0)
+				.setMaxChannels(2)
+				.addRadios(4, new RadioConfigBuilder().setDemand(0.5).build())
+				.setProperty("SEED", "42")
+				.build();
+		CRContentionSimulation system = new CRContentionSimulation(scenario, null);
 		
-		for (int i = 1; i <= 2; i++) {
-			List<Boolean> strategies = new ArrayList<>(Collections.nCopies(i, true));
-			strategies.addAll(new ArrayList<>(Collections.nCopies(5 - i, false)));
-			CognitiveRadio.getStrategySpace().addAll(StrategySpace.getStrategySpace(strategies));
+		try {
+			system.init();
+			system.playInitPhase();
+			
+			StrategySpace strategySpace = system.getStrategySpace();
+			List<CognitiveRadio> radios = system.getRadios();
+			ChannelOccupancyIndex occupancy = system.getOccupancy();
+			
+			for (int j = 0; j < strategySpace.size(); j++) {
+				for (int c = 0; c < 5; c++) {
+					int count = 0;
+					for (CognitiveRadio r : radios) {
+						if (strategySpace.uses(r.getAccessDecisions().get(j), c)) {
+							count++;
+						}
+					}
+					
+					for (int k = 0; k < radios.size(); k++) {
+						int expected = strategySpace.uses(radios.get(k).getAccessDecisions().get(j), c) ? count - 1 : 0;
+						Assert.assertEquals(expected, occupancy.getCompetingUsers(k, j, c));
+					}
+				}
+			}
+		} finally {
+			system.close();
 		}
-		
-		system.setCompetingUserNumber();
 	}
  
 }
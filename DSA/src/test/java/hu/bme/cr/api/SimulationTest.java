@@ -0,0 +1,176 @@
+package hu.bme.cr.api;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.bson.Document;
+import org.junit.Test;
+
+import hu.bme.cr.dsl.IResultSink;
+import hu.bme.cr.dsl.MemoryResultSink;
+import hu.bme.cr.scenario.RadioConfig.RadioConfigBuilder;
+import hu.bme.cr.scenario.ScenarioConfig;
+import hu.bme.cr.scenario.ScenarioConfig.ScenarioConfigBuilder;
+
+public class SimulationTest {
+
+	private static ScenarioConfig scenario(String mode) {
+		return scenario(mode, "SEQUENTIAL");
+	}
+
+	private static ScenarioConfig scenario(String mode, String playMode) {
+		return new ScenarioConfigBuilder()
+				.addChannels(3, 1.0)
+				.setMaxChannels(2)
+				.addRadios(4, new RadioConfigBuilder().setDemand(0.5).build())
+				.setProperty("SEED", "42")
+				.setProperty("ROUNDS", "3")
+				.setProperty("SIMULATION_MODE", mode)
+				.setProperty("PLAY_MODE", playMode)
+				.setProperty("PARALLELISM", "4")
+				.build();
+	}
+
+	/**
+	 * Test case for the size and the consistency of the recorded rounds.
+	 */
+	@Test
+	public void testRun() {
+		SimulationResult result = Simulation.run(scenario("NORMAL"));
+
+		assertEquals(42, result.getSeed());
+		assertEquals(5, result.getRoundNumber());
+		assertEquals(4, result.getRadioNumber());
+		assertEquals(6, result.getStrategySpaceSize());
+		assertEquals(3, result.getChannelNumber());
+		assertEquals(5 * 4, result.getStrategies().length);
+		assertEquals(5 * 4 * 6, result.getUtilities().length);
+		assertEquals(5 * 4 * 6, result.getRegrets().length);
+		assertEquals(5, result.getCollisions().length);
+		assertEquals(5 * 4 * 3, result.getCompetingUsers().length);
+
+		// the radios have no regrets before the set phase
+		assertTrue(Double.isNaN(result.getRegret(0, 0, 0)));
+		assertFalse(Double.isNaN(result.getRegret(4, 0, 0)));
+
+		for (int r = 0; r < result.getRoundNumber(); r++) {
+			assertTrue(result.getCollisions(r) >= 0);
+
+			for (int k = 0; k < result.getRadioNumber(); k++) {
+				assertEquals(result.getUtility(r, k, result.getStrategy(r, k)), result.getUtility(r, k), 0.0);
+
+				for (int c = 0; c < result.getChannelNumber(); c++) {
+					int competing = result.getCompetingUsers(r, k, c);
+					assertTrue(competing >= 0 && competing < result.getRadioNumber());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test case for the same results of the same seed, in both simulation modes.
+	 */
+	@Test
+	public void testDeterministic() {
+		SimulationResult first = Simulation.run(scenario("NORMAL"));
+		SimulationResult second = Simulation.run(scenario("CONTENTION"));
+
+		assertArrayEquals(first.getStrategies(), second.getStrategies());
+		assertArrayEquals(first.getUtilities(), second.getUtilities(), 0.0);
+		assertArrayEquals(first.getCollisions(), second.getCollisions());
+		assertArrayEquals(first.getCompetingUsers(), second.getCompetingUsers());
+	}
+
+	/**
+	 * Test case for the same results of the same seed, when
+	 * the strategy slots are played in parallel.
+	 */
+	@Test
+	public void testDeterministicParallel() {
+		SimulationResult sequential = Simulation.run(scenario("NORMAL", "SEQUENTIAL"));
+		SimulationResult parallel = Simulation.run(scenario("NORMAL", "PARALLEL"));
+
+		assertArrayEquals(sequential.getStrategies(), parallel.getStrategies());
+		assertArrayEquals(sequential.getUtilities(), parallel.getUtilities(), 0.0);
+		assertArrayEquals(sequential.getRegrets(), parallel.getRegrets(), 0.0);
+		assertArrayEquals(sequential.getCollisions(), parallel.getCollisions());
+		assertArrayEquals(sequential.getCompetingUsers(), parallel.getCompetingUsers());
+	}
+
+	/**
+	 * Test case for a simulation that fails in a phase,
+	 * the sink has to be closed anyway.
+	 */
+	@Test
+	public void testCloseOnFailure() {
+		boolean[] closed = new boolean[1];
+		IResultSink sink = new IResultSink() {
+
+			@Override
+			public void write(Document document) {
+				throw new IllegalStateException("Sink is full!");
+			}
+
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+
+		try {
+			Simulation.run(scenario("NORMAL"), sink);
+			fail("The simulation has to fail!");
+		} catch (IllegalStateException e) {
+			assertTrue(closed[0]);
+		}
+	}
+
+	/**
+	 * Test case for a sink that can not persist the documents, which
+	 * only reports it when it is closed, e.g. a failed bulk insert.
+	 */
+	@Test(expected = UncheckedIOException.class)
+	public void testThrowsUncheckedIOExceptionOnSinkFailure() {
+		Simulation.run(scenario("NORMAL"), new IResultSink() {
+
+			@Override
+			public void write(Document document) {
+			}
+
+			@Override
+			public void close() throws IOException {
+				throw new IOException("Could not insert the documents!");
+			}
+		});
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testThrowsIllegalArgumentExceptionOnMode() {
+		Simulation.run(scenario("FAST"));
+	}
+
+	/**
+	 * Test case for results that do not fit in Java arrays, which
+	 * would overflow the int products of the dimensions.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testThrowsIllegalArgumentExceptionOnSize() {
+		new SimulationResult(0, 1002, 1000, 65536, 16);
+	}
+
+	@Test
+	public void testSink() {
+		MemoryResultSink sink = new MemoryResultSink();
+
+		Simulation.run(scenario("CONTENTION"), sink);
+
+		// a document per phase: init, set and the 3 normal phases
+		assertEquals(5, sink.getDocuments().size());
+	}
+}
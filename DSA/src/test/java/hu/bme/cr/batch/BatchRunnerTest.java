@@ -0,0 +1,62 @@
+package hu.bme.cr.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import hu.bme.cr.batch.BatchRunner.FailurePolicy;
+import hu.bme.cr.batch.BatchRunner.Ordering;
+
+public class BatchRunnerTest {
+
+	/**
+	 * Scenarios that finish in reverse order, with the
+	 * params being the sleep time in milliseconds.
+	 */
+	private static final List<String> SCENARIOS = Arrays.asList("200", "150", "100", "50", "0");
+
+	private static final IScenarioRunner SLEEPING_RUNNER = (index, params) -> Thread.sleep(Long.valueOf(params));
+
+	/**
+	 * Test case for reporting the results in the order of the scenario file.
+	 */
+	@Test
+	public void testSubmissionOrdering() throws InterruptedException {
+		List<Integer> indexes = new ArrayList<>();
+
+		List<BatchResult> results = new BatchRunner(SCENARIOS.size(), Ordering.SUBMISSION, FailurePolicy.CONTINUE)
+				.run(SCENARIOS, SLEEPING_RUNNER, r -> indexes.add(r.getIndex()));
+
+		assertEquals(Arrays.asList(0, 1, 2, 3, 4), indexes);
+		assertEquals(SCENARIOS.size(), results.size());
+		assertTrue(results.stream().allMatch(BatchResult::isSuccess));
+	}
+
+	/**
+	 * Test case for aborting the batch at the first failed scenario,
+	 * the scenarios still running at that time are not reported.
+	 */
+	@Test
+	public void testAbortOnFailure() throws InterruptedException {
+		IScenarioRunner runner = (index, params) -> {
+			if (index == 4) {
+				throw new IllegalArgumentException("Wrong strategy!");
+			}
+
+			SLEEPING_RUNNER.run(index, params);
+		};
+
+		List<BatchResult> results = new BatchRunner(SCENARIOS.size(), Ordering.COMPLETION, FailurePolicy.ABORT)
+				.run(SCENARIOS, runner, r -> { });
+
+		assertEquals(1, results.size());
+		assertEquals(4, results.get(0).getIndex());
+		assertFalse(results.get(0).isSuccess());
+	}
+}
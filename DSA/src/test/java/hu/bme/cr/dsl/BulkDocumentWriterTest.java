@@ -0,0 +1,52 @@
+package hu.bme.cr.dsl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.Test;
+
+public class BulkDocumentWriterTest {
+
+	/**
+	 * Test case for the batches, which are full except the last one,
+	 * and for the drain of the queue on close.
+	 */
+	@Test
+	public void testBatches() throws IOException {
+		List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+		List<Object> phases = Collections.synchronizedList(new ArrayList<>());
+
+		BulkDocumentWriter writer = new BulkDocumentWriter(batch -> {
+			sizes.add(batch.size());
+			batch.forEach(d -> phases.add(d.get("phase")));
+		}, 4, 60000, 2);
+
+		for (int i = 0; i < 10; i++) {
+			writer.write(new Document("phase", i));
+		}
+		writer.close();
+
+		assertEquals(10, phases.size());
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, phases.get(i));
+		}
+		assertTrue(sizes.stream().allMatch(n -> n <= 4));
+		assertEquals(Integer.valueOf(2), sizes.get(sizes.size() - 1));
+	}
+
+	@Test(expected = IOException.class)
+	public void testFailure() throws IOException {
+		BulkDocumentWriter writer = new BulkDocumentWriter(batch -> {
+			throw new IllegalStateException("Database is down!");
+		}, 1, 0, 1);
+
+		writer.write(new Document("phase", 0));
+		writer.close();
+	}
+}
@@ -0,0 +1,57 @@
+package hu.bme.cr.dsl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import hu.bme.cr.engine.SimulationState;
+import hu.bme.cr.strategies.StrategySpace;
+
+public class ColumnarResultTest {
+
+	/**
+	 * Test case for reading back two phases of two radios, one
+	 * of them without regrets, with 3 strategies and 2 channels.
+	 */
+	@Test
+	public void testWriteAndRead() throws IOException {
+		File file = File.createTempFile("simulation", ".columns");
+		file.deleteOnExit();
+
+		SimulationState state = new SimulationState(2, StrategySpace.of(2, 2));
+		state.setContentions(1, 2, new double[] {0.0, 1.5}, new boolean[] {true, true});
+		List<double[]> utilities = Arrays.asList(new double[] {0.1, 0.2, 0.3}, new double[] {0.4, 0.5, 0.6});
+		List<double[]> regrets = Arrays.asList(new double[] {-0.2, -0.1, 0.0}, new double[0]);
+		List<List<Integer>> decisions = Arrays.asList(Arrays.asList(2, 0, 1), Collections.singletonList(1));
+
+		try (ColumnarResultWriter writer = new ColumnarResultWriter(file.toPath(), "simulation", 2, 3, 2)) {
+			writer.writePhase("INIT_PHASE", utilities, regrets, decisions, state);
+			utilities.get(1)[0] = 0.9;
+			writer.writePhase("SET_PHASE", utilities, regrets, decisions, state);
+		}
+
+		try (ColumnarResultReader reader = new ColumnarResultReader(file.toPath())) {
+			assertEquals("simulation", reader.getSimulation());
+			assertEquals(Arrays.asList("INIT_PHASE", "SET_PHASE"), reader.getPhases());
+
+			int set = reader.indexOf("SET_PHASE");
+			assertEquals(0.4, reader.getUtility(0, 1, 0), 0.0);
+			assertEquals(0.9, reader.getUtility(set, 1, 0), 0.0);
+			assertEquals(0.3, reader.getUtility(set, 0, 2), 0.0);
+			assertEquals(-0.1, reader.getRegret(set, 0, 1), 0.0);
+			assertTrue(Double.isNaN(reader.getRegret(set, 1, 1)));
+			assertEquals(1.5, reader.getContention(set, 1, 2, 1), 0.0);
+			assertEquals(0.0, reader.getContention(set, 0, 2, 1), 0.0);
+			assertEquals(2, reader.getAccessDecisions(0, 0).get(0));
+			assertEquals(1, reader.getAccessDecisions(0, 1).get(0));
+			assertEquals(-1, reader.getAccessDecisions(0, 1).get(1));
+		}
+	}
+}
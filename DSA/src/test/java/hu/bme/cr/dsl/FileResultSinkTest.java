@@ -0,0 +1,38 @@
+package hu.bme.cr.dsl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.Test;
+
+public class FileResultSinkTest {
+
+	/**
+	 * Test case for two sinks appending to the same file.
+	 */
+	@Test
+	public void testAppend() throws IOException {
+		File file = File.createTempFile("results", ".jsonl");
+		file.deleteOnExit();
+
+		FileResultSink first = new FileResultSink(file.getPath());
+		FileResultSink second = new FileResultSink(file.getPath());
+
+		first.write(new Document("phase", "INIT_PHASE"));
+		second.write(new Document("phase", "INIT_PHASE"));
+		first.write(new Document("phase", "SET_PHASE"));
+		first.close();
+		second.close();
+
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+
+		assertEquals(3, lines.size());
+		assertEquals(new Document("phase", "SET_PHASE").toJson(), lines.get(2));
+	}
+}
@@ -0,0 +1,64 @@
+package hu.bme.cr.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hu.bme.cr.strategies.StrategySpace;
+
+public class ChannelOccupancyIndexTest {
+
+	/**
+	 * Test case for the competing users of the index compared
+	 * to counting every other radio on every channel of the radio.
+	 */
+	@Test
+	public void testCompetingUsers() {
+		StrategySpace space = StrategySpace.of(5, 2);
+		Random random = new Random(42);
+		List<List<Integer>> accessDecisions = new ArrayList<>();
+
+		for (int k = 0; k < 6; k++) {
+			List<Integer> decisions = new ArrayList<>();
+			for (int s = 0; s < space.size(); s++) {
+				decisions.add(s);
+			}
+
+			Collections.shuffle(decisions, random);
+			accessDecisions.add(decisions);
+		}
+
+		ChannelOccupancyIndex index = new ChannelOccupancyIndex(space, accessDecisions);
+
+		for (int i = 0; i < accessDecisions.size(); i++) {
+			List<List<Integer>> competingUsers = index.getCompetingUsers(i);
+
+			for (int j = 0; j < space.size(); j++) {
+				int strategy = accessDecisions.get(i).get(j);
+
+				for (int c = 0; c < space.getChannels(); c++) {
+					int expected = 0;
+
+					for (int k = 0; k < accessDecisions.size(); k++) {
+						if (k != i && space.uses(strategy, c) && space.uses(accessDecisions.get(k).get(j), c)) {
+							expected++;
+						}
+					}
+
+					assertEquals(expected, index.getCompetingUsers(i, j, c));
+					assertEquals(expected, competingUsers.get(strategy).get(c).intValue());
+				}
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testThrowsIllegalArgumentExceptionOnSize() {
+		new ChannelOccupancyIndex(StrategySpace.of(5, 2), Collections.nCopies(50000, Collections.nCopies(50000, 0)));
+	}
+}
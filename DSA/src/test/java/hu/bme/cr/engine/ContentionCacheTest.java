@@ -0,0 +1,56 @@
+package hu.bme.cr.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import hu.bme.cr.strategies.StrategySpace;
+
+public class ContentionCacheTest {
+
+	/**
+	 * Test case for the cached results of a slot, where radio 0 and 1
+	 * compete on channel 0 and radio 2 accesses channel 2 only.
+	 */
+	@Test
+	public void testUpdate() {
+		StrategySpace space = StrategySpace.of(5, 2);
+		int single0 = space.indexOf(0b00001L);
+		int single2 = space.indexOf(0b00100L);
+		int double01 = space.indexOf(0b00011L);
+		int double23 = space.indexOf(0b01100L);
+		ContentionCache cache = new ContentionCache(space, 3);
+
+		// every result is missing in the first round
+		assertTrue(cache.update(4, new int[] {single0, double01, single2}));
+		assertTrue(cache.isChanged(4, 2));
+		cache.countCollision(4, 0);
+		cache.countCollision(4, 0);
+		assertEquals(2, cache.getCollisions(4));
+
+		// nothing changes
+		assertFalse(cache.update(4, new int[] {single0, double01, single2}));
+		assertEquals(2, cache.getCollisions(4));
+
+		// the same contender sets in an other slot reuse the utilities,
+		// but the collisions on channel 0 are not known in that slot
+		assertTrue(cache.update(3, new int[] {single0, double01, single2}));
+		assertFalse(cache.isChanged(3, 0));
+		assertFalse(cache.isChanged(3, 1));
+		assertFalse(cache.isChanged(3, 2));
+
+		// radio 2 gets new channels, radio 0 and 1 keep their contenders
+		assertTrue(cache.update(4, new int[] {single0, double01, double23}));
+		assertFalse(cache.isChanged(4, 0));
+		assertFalse(cache.isChanged(4, 1));
+		assertTrue(cache.isChanged(4, 2));
+		assertEquals(0, cache.getCollisions(4));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testThrowsIllegalArgumentExceptionOnSize() {
+		new ContentionCache(StrategySpace.of(40, 6), 1000);
+	}
+}
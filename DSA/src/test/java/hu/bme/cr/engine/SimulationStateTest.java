@@ -0,0 +1,75 @@
+package hu.bme.cr.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import hu.bme.cr.strategies.StrategySpace;
+
+public class SimulationStateTest {
+
+	/**
+	 * Test case for the importance-weighted running utility estimates
+	 * of a radio that plays strategy 0 and evaluates strategy 2 with
+	 * probability 0.5, then plays strategy 1 and evaluates strategy 3.
+	 */
+	@Test
+	public void testEstimateUtilities() {
+		SimulationState state = new SimulationState(2, StrategySpace.of(4, 1), true);
+		double[] utilities = {0.4, 0.0, 0.2, 0.0};
+
+		state.estimateUtilities(1, utilities, Arrays.asList(0, 2), 0.5);
+
+		assertArrayEquals(new double[] {0.4, 0.0, 0.4, 0.0}, utilities, 1e-12);
+
+		utilities[1] = 0.6;
+		utilities[3] = 0.1;
+		state.estimateUtilities(1, utilities, Arrays.asList(1, 3), 0.5);
+
+		assertArrayEquals(new double[] {0.2, 0.3, 0.2, 0.1}, utilities, 1e-12);
+	}
+
+	/**
+	 * Test case for the contention estimates, which are only
+	 * stored on the channels of the strategies.
+	 */
+	@Test
+	public void testContentions() {
+		StrategySpace strategySpace = StrategySpace.of(5, 2);
+		SimulationState state = new SimulationState(3, strategySpace);
+		double[] contentions = {0.5, 1.5, 2.5, 3.5, 4.5};
+
+		for (int s = 0; s < strategySpace.size(); s++) {
+			boolean[] access = new boolean[5];
+			for (int c = 0; c < 5; c++) {
+				access[c] = strategySpace.uses(s, c);
+			}
+			state.setContentions(2, s, contentions, access);
+		}
+
+		for (int s = 0; s < strategySpace.size(); s++) {
+			double[] channelContentions = new double[5];
+			state.getContentions(2, s, channelContentions);
+
+			for (int c = 0; c < 5; c++) {
+				double expected = strategySpace.uses(s, c) ? contentions[c] : 0.0;
+				assertEquals(expected, state.getContention(2, s, c), 0.0);
+				assertEquals(expected, channelContentions[c], 0.0);
+				assertEquals(0.0, state.getContention(1, s, c), 0.0);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testThrowsIllegalArgumentExceptionOnSize() {
+		new SimulationState(1000, StrategySpace.of(40, 6));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testExhaustiveState() {
+		new SimulationState(2, StrategySpace.of(4, 1)).estimateUtilities(0, new double[4], Arrays.asList(0), 0.5);
+	}
+}
@@ -0,0 +1,54 @@
+package hu.bme.cr.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.bson.Document;
+import org.junit.Test;
+
+import hu.bme.cr.metrics.MetricsSnapshot.StageStatistics;
+
+public class MetricsRegistryTest {
+
+	/**
+	 * Test case for the counter and the histogram of a stage: 
+	 * 3 ns is in bucket 2, 100 ns in bucket 7 and 1000 ns in bucket 10.
+	 */
+	@Test
+	public void testSnapshot() {
+		MetricsRegistry metrics = new MetricsRegistry();
+
+		metrics.record(Stage.UTILITY, 3);
+		metrics.record(Stage.UTILITY, 100);
+		metrics.record(Stage.UTILITY, 100);
+		metrics.record(Stage.UTILITY, 1000);
+
+		StageStatistics utility = metrics.snapshot().get(Stage.UTILITY);
+
+		assertEquals(4, utility.getCount());
+		assertEquals(1203, utility.getTotalNanos());
+		assertEquals(1000, utility.getMaxNanos());
+		assertEquals(1, utility.getBucket(2));
+		assertEquals(2, utility.getBucket(7));
+		assertEquals(1, utility.getBucket(10));
+		assertEquals(127, utility.getPercentileNanos(0.5));
+		assertEquals(1000, utility.getPercentileNanos(0.99));
+		assertEquals(0, metrics.snapshot().get(Stage.BACKOFF).getCount());
+
+		Document doc = metrics.snapshot().toDocument();
+		assertEquals(4L, ((Document) doc.get(Stage.UTILITY.name())).get("count"));
+	}
+
+	@Test
+	public void testDisabled() {
+		MetricsRegistry metrics = MetricsRegistry.disabled();
+
+		long start = metrics.start();
+		metrics.stop(Stage.PERSISTENCE, start);
+		metrics.record(Stage.PERSISTENCE, 10);
+
+		assertFalse(metrics.isEnabled());
+		assertEquals(0, start);
+		assertEquals(0, metrics.snapshot().get(Stage.PERSISTENCE).getCount());
+	}
+}
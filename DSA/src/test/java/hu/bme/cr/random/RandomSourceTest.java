@@ -0,0 +1,60 @@
+package hu.bme.cr.random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RandomSourceTest {
+
+	/**
+	 * Known answer tests of the Philox4x32-10 block function
+	 * published with the Random123 library (first two output words).
+	 */
+	@Test
+	public void testPhiloxKnownAnswers() {
+		assertEquals(0x6627e8d5e169c58dL, PhiloxRandomSource.block(0, 0, 0, 0, 0, 0));
+		assertEquals(0x408f276d41c83b0eL, PhiloxRandomSource.block(-1, -1, -1, -1, -1, -1));
+		assertEquals(0xd16cfe0994fdccebL, PhiloxRandomSource.block(0x243f6a88, 0x85a308d3, 0x13198a2e, 0x03707344, 0xa4093822, 0x299f31d0));
+	}
+
+	/**
+	 * The same position and seed has to give the same number,
+	 * neighbouring positions different numbers on [0, 1).
+	 */
+	@Test
+	public void testKeyedStreams() {
+		IRandomSource[] sources = {new PhiloxRandomSource(42), new SplitMixRandomSource(42)};
+
+		for (IRandomSource source : sources) {
+			double u = source.nextDouble(3, 2, 1, 4, 7);
+
+			assertEquals(u, source.nextDouble(3, 2, 1, 4, 7), 0.0);
+			assertNotEquals(u, source.nextDouble(3, 2, 1, 4, 8), 0.0);
+			assertNotEquals(u, source.nextDouble(3, 2, 1, 5, 7), 0.0);
+			assertNotEquals(u, source.nextDouble(4, 2, 1, 4, 7), 0.0);
+
+			double sum = 0.0;
+			for (int i = 0; i < 10000; i++) {
+				double v = source.nextDouble(0, 0, 0, i, i % 13);
+				assertTrue(v >= 0.0 && v < 1.0);
+				sum += v;
+			}
+
+			assertEquals(source.toString(), 0.5, sum / 10000, 0.02);
+		}
+	}
+
+	/**
+	 * The streams of neighbouring seeds must not be shifted
+	 * copies of each other in the radio index.
+	 */
+	@Test
+	public void testIndependentSeeds() {
+		for (int radio = -4; radio < 8; radio++) {
+			assertNotEquals(new PhiloxRandomSource(42).nextDouble(3, 2, 1, 4, radio + 1), 
+					new PhiloxRandomSource(43).nextDouble(3, 2, 1, 4, radio), 0.0);
+		}
+	}
+}
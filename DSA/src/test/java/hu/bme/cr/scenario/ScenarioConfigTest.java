@@ -0,0 +1,92 @@
+package hu.bme.cr.scenario;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.bson.Document;
+import org.junit.Test;
+
+import hu.bme.cr.scenario.RadioConfig.RadioConfigBuilder;
+import hu.bme.cr.scenario.RadioConfig.StepSize;
+import hu.bme.cr.scenario.RadioConfig.StrategyType;
+import hu.bme.cr.scenario.RadioConfig.UtilityFunctionType;
+import hu.bme.cr.scenario.ScenarioConfig.LogTarget;
+import hu.bme.cr.scenario.ScenarioConfig.ScenarioConfigBuilder;
+import hu.bme.cr.strategies.RegretTrackingStrategy;
+import hu.bme.cr.uf.MixedUtilityFunction;
+
+public class ScenarioConfigTest {
+
+	/**
+	 * Test case for the defaults of the builders.
+	 */
+	@Test
+	public void testBuild() {
+		ScenarioConfig scenario = new ScenarioConfigBuilder()
+				.addChannels(3, 1.0)
+				.addChannel(2.0)
+				.setMaxChannels(2)
+				.addRadios(5, new RadioConfigBuilder().setDemand(0.5).build())
+				.build();
+
+		assertNull(scenario.getName());
+		assertEquals(LogTarget.NONE, scenario.getLogTarget());
+		assertEquals(Arrays.asList(1.0, 1.0, 1.0, 2.0), scenario.getTransmissionRates());
+		assertEquals(4, scenario.getChannelNumber());
+		assertEquals(5, scenario.getRadioNumber());
+		assertTrue(scenario.getProperties().isEmpty());
+
+		RadioConfig radio = scenario.getRadios().get(0);
+		assertEquals(StrategyType.REGRET_TRACKING, radio.getStrategy());
+		assertEquals(StepSize.FIX, radio.getStepSize());
+		assertEquals(UtilityFunctionType.COMPETITIVE, radio.getUtilityFunction());
+		assertTrue(radio.createStrategy() instanceof RegretTrackingStrategy);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testThrowsIllegalArgumentExceptionOnMaxChannels() {
+		new ScenarioConfigBuilder()
+				.addChannels(2, 1.0)
+				.setMaxChannels(3)
+				.addRadio(new RadioConfigBuilder().setDemand(0.5).build())
+				.build();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testThrowsIllegalArgumentExceptionWithoutRadios() {
+		new ScenarioConfigBuilder()
+				.addChannels(2, 1.0)
+				.setMaxChannels(1)
+				.build();
+	}
+
+	/**
+	 * Test case for a scenario with grouped channels and radios.
+	 */
+	@Test
+	public void testFromDocument() {
+		Document doc = new Document("name", "sweep_1")
+				.append("log", "FILE")
+				.append("channels", Arrays.asList(new Document("count", 2).append("transmissionRate", 1.0),
+						new Document("transmissionRate", 2.0)))
+				.append("maxChannels", 2)
+				.append("radios", Arrays.asList(new Document("count", 3).append("demand", 0.5).append("stepSize", "DECREASING"),
+						new Document("demand", 0.8).append("strategy", "MAX_UTILITY").append("rates", Arrays.asList(0.6, 0.2, 0.2))))
+				.append("properties", new Document("SEED", 42));
+
+		ScenarioConfig scenario = ScenarioReader.fromDocument(doc);
+
+		assertEquals("sweep_1", scenario.getName());
+		assertEquals(LogTarget.FILE, scenario.getLogTarget());
+		assertEquals(Arrays.asList(1.0, 1.0, 2.0), scenario.getTransmissionRates());
+		assertEquals(2, scenario.getMaxChannels());
+		assertEquals(4, scenario.getRadioNumber());
+		assertEquals(StepSize.DECREASING, scenario.getRadios().get(2).getStepSize());
+		assertEquals(StrategyType.MAX_UTILITY, scenario.getRadios().get(3).getStrategy());
+		assertTrue(scenario.getRadios().get(3).createUtilityFunction() instanceof MixedUtilityFunction);
+		assertEquals("42", scenario.getProperties().get("SEED"));
+	}
+}
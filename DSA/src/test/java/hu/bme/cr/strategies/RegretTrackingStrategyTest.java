@@ -0,0 +1,38 @@
+package hu.bme.cr.strategies;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RegretTrackingStrategyTest {
+
+	/**
+	 * Test case for the regret update, which happens in place,
+	 * and the order of the switching probabilities:
+	 * 1 - (0.75 + 0.25) / 1.2, 0.75 / 1.2 and 0.25 / 1.2.
+	 */
+	@Test
+	public void testDecide() {
+		double[] utilities = {0.2, 0.8, 0.5};
+		double[] regrets = {0.0, 0.9, 0.2};
+		RegretTrackingStrategy strategy = new RegretTrackingStrategy(0.5, false);
+
+		StrategyParameters output = strategy.decide(new StrategyParameters(utilities, regrets, 3, 0, 2, new Random(1)));
+
+		assertSame(regrets, output.getRegrets());
+		assertArrayEquals(new double[] {0.0, 0.75, 0.25}, regrets, 1e-12);
+		assertEquals(Arrays.asList(1, 2, 0), output.getStrategyIndexes());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotEqualSizes() {
+		RegretTrackingStrategy strategy = new RegretTrackingStrategy(0.5, false);
+
+		strategy.decide(new StrategyParameters(new double[3], new double[2], 3, 0, 2, new Random(1)));
+	}
+}
@@ -1,14 +1,12 @@
 package hu.bme.cr.strategies;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 import org.junit.Test;
 
-import hu.bme.cr.entity.CognitiveRadio;
-
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class StrategySpaceTest {
@@ -20,12 +18,76 @@ public class StrategySpaceTest {
 
 	@Test
 	public void printStrategySpace() {
-		for (int i = 1; i <= 2; i++) {
-			List<Boolean> strategies = new ArrayList<>(Collections.nCopies(i, true));
-			strategies.addAll(new ArrayList<>(Collections.nCopies(5 - i, false)));
-			CognitiveRadio.getStrategySpace().addAll(StrategySpace.getStrategySpace(strategies));
-		}	
+		StrategySpace.of(5, 2).getStrategies().stream().forEach(System.out::println);
+	}
+	
+	@Test
+	public void testInternedStrategySpace() {
+		StrategySpace space = StrategySpace.of(5, 2);
+		
+		assertEquals(15, space.size());
+		assertSame(space, StrategySpace.of(5, 2));
+		assertEquals(Arrays.asList(true, false, false, false, false), space.get(0));
+		assertEquals(Arrays.asList(true, true, false, false, false), space.get(5));
+	}
+	
+	@Test(expected = UnsupportedOperationException.class)
+	public void testImmutableStrategySpace() {
+		StrategySpace.of(5, 2).get(0).set(0, false);
+	}
+	
+	@Test
+	public void testBitmaskStrategySpace() {
+		StrategySpace space = StrategySpace.of(12, 12);
+		
+		assertEquals(4095, space.size());
+		assertEquals(0b1L, space.getMask(0));
+		assertEquals(0b11L, space.getMask(12));
+		assertEquals(0b101L, space.getMask(13));
+		assertEquals(0xFFFL, space.getMask(4094));
+		
+		// the long masks and the BitSets are enumerated in the same order
+		List<List<Boolean>> subsets = StrategySpace.getStrategySpace(Arrays.asList(true, true, true, false, false, false, false, false, false, false, false, false));
+		assertEquals(220, subsets.size());
+		for (int i = 0; i < subsets.size(); i++) {
+			assertEquals(subsets.get(i), space.get(12 + 66 + i));
+		}
+	}
+	
+	@Test
+	public void testBitSetStrategySpace() {
+		StrategySpace space = StrategySpace.of(70, 2);
+		
+		assertEquals(70 + 2415, space.size());
+		assertTrue(space.uses(69, 69));
+		assertEquals(2, space.getUsedChannels(70));
+		assertTrue(space.uses(70, 0) && space.uses(70, 1));
+		assertTrue(space.uses(space.size() - 1, 68) && space.uses(space.size() - 1, 69));
+	}
+	
+	@Test
+	public void testLazyStrategySpace() {
+		StrategySpace space = StrategySpace.of(40, 5);
+		
+		assertEquals(40 + 780 + 9880 + 91390 + 658008, space.size());
+		assertEquals(0x1FL << 35, space.getMask(space.size() - 1));
+		
+		for (int i = 0; i < space.size(); i += 997) {
+			assertEquals(i, space.indexOf(space.getMask(i)));
+			assertEquals(Long.bitCount(space.getMask(i)), space.getUsedChannels(i));
+		}
+		
+		// unranking gives the same masks as the table of a small space
+		StrategySpace small = StrategySpace.of(12, 12);
+		for (int i = 0; i < small.size(); i++) {
+			assertEquals(small.getMask(i), small.unrankMask(i));
+		}
+		
+		StrategySpace wide = StrategySpace.of(100, 3);
+		for (int i = 0; i < wide.size(); i += 101) {
+			assertEquals(i, wide.indexOf(wide.getBitSet(i)));
+		}
 		
-		CognitiveRadio.getStrategySpace().stream().forEach(System.out::println);
+		assertEquals(-1, space.indexOf(0x3FL));
 	}
 }
@@ -0,0 +1,127 @@
+package hu.bme.cr.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import hu.bme.cr.engine.CollisionResolver;
+
+public class TraceWriterTest {
+
+	/**
+	 * Test case for the level gates of the writers.
+	 */
+	@Test
+	public void testLevels() throws IOException {
+		for (TraceLevel level : TraceLevel.values()) {
+			assertFalse(TraceWriter.disabled().isEnabled(level));
+		}
+
+		try (TraceWriter trace = new TraceWriter(TraceLevel.STRATEGY, new ByteArrayOutputStream(), 64)) {
+			assertTrue(trace.isEnabled(TraceLevel.SUMMARY));
+			assertTrue(trace.isEnabled(TraceLevel.STRATEGY));
+			assertFalse(trace.isEnabled(TraceLevel.SUBSLOT));
+		}
+	}
+
+	/**
+	 * Test case for writing records through a ring buffer that is
+	 * much smaller than the trace and rendering them to text.
+	 */
+	@Test
+	public void testRenderWrittenTrace() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (TraceWriter trace = new TraceWriter(TraceLevel.SUBSLOT, bytes, 64)) {
+			trace.phase(0, "INIT_PHASE");
+			for (int i = 0; i < 100; i++) {
+				trace.subslot(0, 0, 0, i, CollisionResolver.COLLISION, 0.1, 0.12);
+			}
+			trace.subslot(0, 0, 1, 0, CollisionResolver.IDLE, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+			trace.strategy(0, 0, 100);
+			trace.utilities(0, 0, new double[] {0.5, 0.25});
+		}
+
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+		new TraceRenderer(new PrintStream(text, true)).render(new ByteArrayInputStream(bytes.toByteArray()));
+
+		String[] lines = text.toString().split("\\r?\\n");
+		assertEquals("** INIT_PHASE **", lines[2]);
+		assertEquals("Subslot 1:", lines[5]);
+		assertEquals(String.format("Channel 100: COLLISION - 1st backoff: %.3f, 2nd backoff: %.3f", 0.1, 0.12), lines[105]);
+		assertEquals("Subslot 2:", lines[107]);
+		assertEquals("Channel 1: NO COLLISION - No radios attempt to access the channel!", lines[108]);
+		assertEquals("Number of collisions in INIT_PHASE_0 phase: 100", lines[109]);
+		assertTrue(lines[110].startsWith("Utilities: "));
+	}
+
+	/**
+	 * Test case for records larger than the ring buffer, written
+	 * by several threads at the same time.
+	 */
+	@Test
+	public void testRecordLargerThanBuffer() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		double[] utilities = new double[1000];
+		Arrays.fill(utilities, 0.5);
+
+		try (TraceWriter trace = new TraceWriter(TraceLevel.SUMMARY, bytes, 64)) {
+			Thread[] threads = new Thread[4];
+			for (int t = 0; t < threads.length; t++) {
+				int radio = t;
+				threads[t] = new Thread(() -> trace.utilities(0, radio, utilities));
+				threads[t].start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+		}
+
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+		new TraceRenderer(new PrintStream(text, true)).render(new ByteArrayInputStream(bytes.toByteArray()));
+
+		String[] lines = text.toString().split("\\r?\\n");
+		assertEquals(4, lines.length);
+		for (String line : lines) {
+			assertEquals(1000, line.split(", ").length);
+		}
+	}
+
+	/**
+	 * Test case for the records of strategy slots played at the same time,
+	 * which are rendered in slot order.
+	 */
+	@Test
+	public void testRenderInterleavedSlots() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (TraceWriter trace = new TraceWriter(TraceLevel.SUBSLOT, bytes, 64)) {
+			trace.phase(0, "INIT_PHASE");
+			trace.subslot(0, 1, 0, 0, CollisionResolver.IDLE, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+			trace.subslot(0, 0, 0, 0, CollisionResolver.IDLE, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+			trace.strategy(0, 1, 1);
+			trace.subslot(0, 0, 1, 0, CollisionResolver.IDLE, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+			trace.strategy(0, 0, 0);
+			trace.utilities(0, 0, new double[] {0.5, 0.25});
+		}
+
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+		new TraceRenderer(new PrintStream(text, true)).render(new ByteArrayInputStream(bytes.toByteArray()));
+
+		String[] lines = text.toString().split("\\r?\\n");
+		assertEquals("Subslot 1:", lines[5]);
+		assertEquals("Subslot 2:", lines[8]);
+		assertEquals("Number of collisions in INIT_PHASE_0 phase: 0", lines[10]);
+		assertEquals("Subslot 1:", lines[12]);
+		assertEquals("Number of collisions in INIT_PHASE_1 phase: 1", lines[14]);
+		assertTrue(lines[15].startsWith("Utilities: "));
+	}
+}
@@ -41,6 +41,20 @@ public class ChannelUtilityTest {
 		assertEquals(2.9432, ChannelUtility.calculateUserEstimate(channelCaptures, probabilities), 0.1);
 	}
 	
+	/**
+	 * Test case for competing user number estimate calculated
+	 * from flat primitive arrays, using the same subslots as
+	 * testUserNumberEstimate at an offset of 3.
+	 */
+	@Test
+	public void testUserNumberEstimateOnPrimitiveArrays() {
+		double[] probabilities = {0.0, 0.0, 0.0, 0.9, 0.3, 0.3, 0.2, 0.8};
+		long[] channelCaptures = {(1L << 3) | (1L << 7)};
+
+		assertEquals(2.9432, ChannelUtility.calculateUserEstimate(channelCaptures, probabilities, 3, 5), 0.1);
+		assertEquals(0.0, ChannelUtility.calculateUserEstimate(new long[] {-1L}, probabilities, 3, 5), 0.0);
+	}
+
 	/**
 	 * Test case for different sized arguments.
 	 * 
@@ -68,6 +82,18 @@ public class ChannelUtilityTest {
 		assertEquals(0.81, ChannelUtility.calculateChannelCaptureProbability(0.14), 0.01);
 	}
 	
+	/**
+	 * Test case for the expected channel capture probability of a
+	 * back off time that is uniform on [minBackOff, MAX_BACKOFF).
+	 */
+	@Test
+	public void testExpectedChannelCaptureProbability() {
+		// mean of 1 - (b + 0.05) on [0, 0.95]
+		assertEquals(0.45125, ChannelUtility.calculateExpectedChannelCaptureProbability(0.0), 0.00001);
+		assertEquals(0.2025, ChannelUtility.calculateExpectedChannelCaptureProbability(0.5), 0.00001);
+		assertEquals(0.0, ChannelUtility.calculateExpectedChannelCaptureProbability(0.97), 0.0);
+	}
+
 	/**
 	 * Test case to check whether IllegalArgumentException
 	 * is thrown in case of a negative back off.
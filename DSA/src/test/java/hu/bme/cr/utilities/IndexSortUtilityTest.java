@@ -0,0 +1,73 @@
+package hu.bme.cr.utilities;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class IndexSortUtilityTest {
+
+	/**
+	 * Test case for ranking with ties: the tied indexes 1 and 3
+	 * lead in either order, the rest follow in descending order.
+	 */
+	@Test
+	public void testGetIndexesDescending() {
+		double[] values = {0.345, 1.0, 0.346, 1.0, 0.344};
+		Set<Integer> leaders = new HashSet<>();
+
+		for (long seed = 0; seed < 20; seed++) {
+			int[] indexes = IndexSortUtility.getIndexesDescending(values, new Random(seed));
+
+			leaders.add(indexes[0]);
+			assertEquals(new HashSet<>(Arrays.asList(1, 3)), new HashSet<>(Arrays.asList(indexes[0], indexes[1])));
+			assertArrayEquals(new int[] {2, 0, 4}, Arrays.copyOfRange(indexes, 2, 5));
+		}
+
+		// both orders of the tie are played
+		assertEquals(2, leaders.size());
+	}
+
+	/**
+	 * Test case for the top-k ranking, which is the prefix
+	 * of the full ranking with the same random state.
+	 */
+	@Test
+	public void testGetTopIndexes() {
+		Random values = new Random(7);
+		double[] utilities = new double[5000];
+		for (int i = 0; i < utilities.length; i++) {
+			// many ties
+			utilities[i] = values.nextInt(100) / 100.0;
+		}
+
+		int[] all = IndexSortUtility.getIndexesDescending(utilities, new Random(11));
+		int[] top = IndexSortUtility.getTopIndexes(utilities, 64, new Random(11));
+
+		assertArrayEquals(Arrays.copyOf(all, 64), top);
+		for (int i = 1; i < all.length; i++) {
+			assertTrue(utilities[all[i - 1]] >= utilities[all[i]]);
+		}
+	}
+
+	@Test
+	public void testSwapToMax() {
+		double[] utilities = {0.5, 0.5, 0.1, 0.2, 0.1};
+		int[] order = {0, 1, 3, 2, 4};
+
+		IndexSortUtility.swapToMax(utilities, order, 1);
+
+		assertArrayEquals(new int[] {1, 0, 3, 2, 4}, order);
+
+		// not maximal
+		IndexSortUtility.swapToMax(utilities, order, 3);
+
+		assertArrayEquals(new int[] {1, 0, 3, 2, 4}, order);
+	}
+}
@@ -0,0 +1,87 @@
+package hu.bme.cr.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+import hu.bme.cr.utilities.ChannelUtility;
+
+/**
+ * Benchmarks ChannelUtility.calculateUserEstimate for every radio and
+ * channel of a strategy slot, on the flat arrays of the ContentionBuffer 
+ * and on the boxed lists.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChannelUtilityBenchmark extends SimulationSize {
+
+	private long[] captures;
+
+	private double[] probabilities;
+
+	private List<List<Boolean>> boxedCaptures;
+
+	private List<List<Double>> boxedProbabilities;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = random();
+		int n = radios * channels * subslots;
+
+		captures = new long[(n + 63) >>> 6];
+		probabilities = new double[n];
+		boxedCaptures = new ArrayList<>(radios * channels);
+		boxedProbabilities = new ArrayList<>(radios * channels);
+
+		for (int i = 0; i < radios * channels; i++) {
+			List<Boolean> c = new ArrayList<>(subslots);
+			List<Double> p = new ArrayList<>(subslots);
+
+			for (int w = 0; w < subslots; w++) {
+				int index = i * subslots + w;
+				boolean captured = random.nextBoolean();
+				
+				probabilities[index] = 0.05 + 0.9 * random.nextDouble();
+				if (captured) {
+					captures[index >>> 6] |= 1L << index;
+				}
+
+				c.add(captured);
+				p.add(probabilities[index]);
+			}
+
+			boxedCaptures.add(c);
+			boxedProbabilities.add(p);
+		}
+	}
+
+	@Benchmark
+	public double userEstimate() {
+		double sum = 0.0;
+
+		for (int i = 0; i < radios * channels; i++) {
+			sum += ChannelUtility.calculateUserEstimate(captures, probabilities, i * subslots, subslots);
+		}
+
+		return sum;
+	}
+
+	@Benchmark
+	public double boxedUserEstimate() {
+		double sum = 0.0;
+
+		for (int i = 0; i < radios * channels; i++) {
+			sum += ChannelUtility.calculateUserEstimate(boxedCaptures.get(i), boxedProbabilities.get(i));
+		}
+
+		return sum;
+	}
+}
@@ -0,0 +1,55 @@
+package hu.bme.cr.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.bme.cr.utilities.ListUtility;
+
+/**
+ * Benchmarks ListUtility.getIndexesDescending, i.e. ranking the
+ * utilities of every strategy, for every radio.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ListUtilityBenchmark extends SimulationSize {
+
+	private Random random;
+
+	private List<List<Double>> utilities;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		int strategySpaceSize = strategySpace().size();
+
+		random = random();
+		utilities = new ArrayList<>(radios);
+
+		for (int k = 0; k < radios; k++) {
+			List<Double> u = new ArrayList<>(strategySpaceSize);
+
+			for (int s = 0; s < strategySpaceSize; s++) {
+				// ties are broken at random, so some of them are kept
+				u.add(Math.floor(10 * random.nextDouble()) / 10);
+			}
+
+			utilities.add(u);
+		}
+	}
+
+	@Benchmark
+	public void indexesDescending(Blackhole blackhole) {
+		for (List<Double> u : utilities) {
+			blackhole.consume(ListUtility.getIndexesDescending(u, random));
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package hu.bme.cr.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import hu.bme.cr.CRSystem;
+
+/**
+ * Benchmarks CRSystem.play, i.e. one round of contention experiments:
+ * every strategy slot with every subslot, user estimate and utility,
+ * after the init and set phases decided the strategies to play.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlayBenchmark extends SimulationSize {
+
+	private Path savePath;
+
+	private RoundSystem system;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		savePath = Files.createTempDirectory("benchmarks");
+		system = new RoundSystem(SimulationScenarios.params(radios, channels, maxChannels), 
+				SimulationScenarios.properties(subslots, savePath));
+		system.init();
+		system.playInitPhase();
+		system.playSetPhase();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		system.endGame();
+		SimulationScenarios.delete(savePath);
+	}
+
+	@Benchmark
+	public void play() {
+		system.playRound();
+	}
+
+	/**
+	 * Exposes a single round of play, without the decisions
+	 * and the persistence of the decide phase.
+	 */
+	static class RoundSystem extends CRSystem {
+
+		RoundSystem(String simulationParams, Properties overrides) {
+			super(simulationParams, overrides);
+		}
+
+		void playRound() {
+			// a new round draws new back off times
+			round++;
+			play(NORMAL_PHASE);
+		}
+	}
+}
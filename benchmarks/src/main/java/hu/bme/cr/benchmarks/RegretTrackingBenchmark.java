@@ -0,0 +1,68 @@
+package hu.bme.cr.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+import hu.bme.cr.strategies.RegretTrackingStrategy;
+import hu.bme.cr.strategies.StrategyParameters;
+
+/**
+ * Benchmarks RegretTrackingStrategy.decide for every radio, i.e. 
+ * the decision of a normal phase. The regrets are updated in place, 
+ * so every invocation decides on the regrets of the previous one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RegretTrackingBenchmark extends SimulationSize {
+
+	private final RegretTrackingStrategy strategy = new RegretTrackingStrategy(0.1, false);
+
+	private Random random;
+
+	private int strategySpaceSize;
+
+	private double[][] utilities;
+
+	private double[][] regrets;
+
+	private int[] strategyIndexes;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		random = random();
+		strategySpaceSize = strategySpace().size();
+		utilities = new double[radios][strategySpaceSize];
+		regrets = new double[radios][strategySpaceSize];
+		strategyIndexes = new int[radios];
+
+		for (int k = 0; k < radios; k++) {
+			for (int s = 0; s < strategySpaceSize; s++) {
+				utilities[k][s] = random.nextDouble();
+			}
+
+			strategyIndexes[k] = random.nextInt(strategySpaceSize);
+		}
+	}
+
+	@Benchmark
+	public int decide() {
+		int sum = 0;
+
+		for (int k = 0; k < radios; k++) {
+			StrategyParameters output = strategy.decide(
+					new StrategyParameters(utilities[k], regrets[k], strategySpaceSize, strategyIndexes[k], 2, random));
+
+			strategyIndexes[k] = output.getStrategyIndexes().get(0);
+			sum += strategyIndexes[k];
+		}
+
+		return sum;
+	}
+}
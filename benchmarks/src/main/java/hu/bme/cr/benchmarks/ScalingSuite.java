@@ -0,0 +1,325 @@
+package hu.bme.cr.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+
+import hu.bme.cr.CRContentionSimulation;
+import hu.bme.cr.CRSystem;
+
+/**
+ * <p>Plays whole simulations, from init to endGame, over a grid of problem
+ * sizes and reports how the throughput and the memory use of the simulation
+ * grow with the number of radios and the size of the strategy space.</p>
+ *
+ * <p>For every simulation mode (NORMAL - CRSystem, CONTENTION - CRContentionSimulation)
+ * and every combination of radios, channels, maxChannels and subslots it reports as JSON:</p>
+ * <ul>
+ * <li>roundsPerSecond: played rounds, i.e. the init and set phase and ROUNDS normal phases, per second</li>
+ * <li>subslotDrawsPerSecond: back off draws of a subslot, i.e.
+ * rounds * strategySpaceSize * subslots, per second</li>
+ * <li>peakHeapBytes: sum of the peak usage of the heap memory pools</li>
+ * <li>allocatedBytesPerSecond: allocation rate of the simulation thread</li>
+ * </ul>
+ *
+ * <p>With a baseline, i.e. the report of an earlier run, every result that has a
+ * pair in the baseline also gets the baseline values, the speedup and whether it
+ * is a regression, i.e. slower than the baseline by more than the tolerance.</p>
+ *
+ * <p>Options (default): --modes (NORMAL,CONTENTION), --radios (5,10,20,40), --channels (4,8),
+ * --maxChannels (1,2,4), --subslots (5), --rounds (25), --warmup (1), --iterations (1),
+ * --output (standard output), --baseline (none), --tolerance (0.1), e.g.</p>
+ *
+ * <pre>java -cp target/benchmarks.jar hu.bme.cr.benchmarks.ScalingSuite --radios 10,20 --output scaling.json</pre>
+ */
+public class ScalingSuite {
+
+	private static final String CONTENTION_MODE = "CONTENTION";
+
+	private static final String ROUNDS_PER_SECOND = "roundsPerSecond";
+
+	private static final String SUBSLOT_DRAWS_PER_SECOND = "subslotDrawsPerSecond";
+
+	private static final String PEAK_HEAP_BYTES = "peakHeapBytes";
+
+	private static final String ALLOCATED_BYTES_PER_SECOND = "allocatedBytesPerSecond";
+
+	/**
+	 * Swallows the prompts and messages that the simulations print to the console.
+	 */
+	private static final PrintStream QUIET = new PrintStream(new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	});
+
+	public static void main(String[] args) throws IOException {
+		Map<String, String> options = parseOptions(args);
+
+		List<String> modes = Arrays.asList(options.getOrDefault("modes", "NORMAL,CONTENTION").split(","));
+		List<Integer> radios = parseList(options.getOrDefault("radios", "5,10,20,40"));
+		List<Integer> channels = parseList(options.getOrDefault("channels", "4,8"));
+		List<Integer> maxChannels = parseList(options.getOrDefault("maxChannels", "1,2,4"));
+		List<Integer> subslots = parseList(options.getOrDefault("subslots", "5"));
+		int rounds = Integer.valueOf(options.getOrDefault("rounds", "25"));
+		int warmup = Integer.valueOf(options.getOrDefault("warmup", "1"));
+		int iterations = Integer.valueOf(options.getOrDefault("iterations", "1"));
+
+		if (rounds < 1 || warmup < 0 || iterations < 1) {
+			throw new IllegalArgumentException("Wrong scaling suite parameters!");
+		}
+
+		List<Document> results = new ArrayList<>();
+
+		for (String mode : modes) {
+			for (int c : channels) {
+				for (int m : maxChannels) {
+					// not a valid strategy space
+					if (m > c) {
+						continue;
+					}
+
+					for (int r : radios) {
+						for (int w : subslots) {
+							for (int i = 0; i < warmup; i++) {
+								play(mode, r, c, m, w, rounds);
+							}
+
+							Measurement measurement = new Measurement();
+							for (int i = 0; i < iterations; i++) {
+								measurement.add(play(mode, r, c, m, w, rounds));
+							}
+
+							Document result = measurement.toDocument(mode, r, c, m, w, rounds);
+							results.add(result);
+							System.err.println(result.toJson());
+						}
+					}
+				}
+			}
+		}
+
+		if (options.containsKey("baseline")) {
+			String baseline = new String(Files.readAllBytes(Paths.get(options.get("baseline"))), StandardCharsets.UTF_8);
+			compare(results, Document.parse(baseline), Double.valueOf(options.getOrDefault("tolerance", "0.1")));
+		}
+
+		Document report = new Document("javaVersion", System.getProperty("java.version"))
+				.append("processors", Runtime.getRuntime().availableProcessors())
+				.append("maxHeapBytes", Runtime.getRuntime().maxMemory())
+				.append("seed", SimulationScenarios.SEED)
+				.append("warmup", warmup)
+				.append("iterations", iterations)
+				.append("results", results);
+
+		String json = report.toJson(JsonWriterSettings.builder().outputMode(JsonMode.RELAXED).indent(true).build());
+
+		if (options.containsKey("output")) {
+			Files.write(Paths.get(options.get("output")), json.getBytes(StandardCharsets.UTF_8));
+		}
+		else {
+			System.out.println(json);
+		}
+	}
+
+	/**
+	 * Plays a whole simulation of the given size and measures it from init to endGame.
+	 */
+	private static Measurement play(String mode, int radios, int channels, int maxChannels, int subslots, int rounds) throws IOException {
+		Path savePath = Files.createTempDirectory("scaling");
+		Properties overrides = SimulationScenarios.properties(subslots, savePath);
+		overrides.setProperty("ROUNDS", String.valueOf(rounds));
+		String params = SimulationScenarios.params(radios, channels, maxChannels);
+
+		PrintStream console = System.out;
+		System.setOut(QUIET);
+
+		try {
+			CRSystem system = CONTENTION_MODE.equals(mode)
+					? new CRContentionSimulation(params, overrides) : new CRSystem(params, overrides);
+
+			System.gc();
+			resetPeakHeap();
+
+			long allocated = allocatedBytes();
+			long start = System.nanoTime();
+
+			system.init();
+			system.playInitPhase();
+			system.playSetPhase();
+			for (int r = 0; r < rounds; r++) {
+				system.playDecidePhase(r);
+			}
+			system.endGame();
+
+			Measurement measurement = new Measurement();
+			measurement.nanos = System.nanoTime() - start;
+			measurement.allocatedBytes = allocatedBytes() - allocated;
+			measurement.peakHeapBytes = peakHeap();
+			measurement.rounds = rounds + 2;
+			measurement.subslotDraws = (long) measurement.rounds * system.getStrategySpace().size() * subslots;
+			measurement.strategySpaceSize = system.getStrategySpace().size();
+			return measurement;
+		} finally {
+			System.setOut(console);
+			SimulationScenarios.delete(savePath);
+		}
+	}
+
+	/**
+	 * Adds the values of the baseline to the results of the same mode and size.
+	 *
+	 * @param results - results of this run
+	 * @param baseline - report of an earlier run
+	 * @param tolerance - relative slowdown that is not a regression yet
+	 */
+	@SuppressWarnings("unchecked")
+	static void compare(List<Document> results, Document baseline, double tolerance) {
+		Map<String, Document> previous = new HashMap<>();
+		for (Document result : (List<Document>) baseline.get("results")) {
+			previous.put(key(result), result);
+		}
+
+		for (Document result : results) {
+			Document b = previous.get(key(result));
+
+			if (b == null) {
+				continue;
+			}
+
+			double speedup = number(result, ROUNDS_PER_SECOND) / number(b, ROUNDS_PER_SECOND);
+
+			result.append("baseline", new Document(ROUNDS_PER_SECOND, number(b, ROUNDS_PER_SECOND))
+					.append(SUBSLOT_DRAWS_PER_SECOND, number(b, SUBSLOT_DRAWS_PER_SECOND))
+					.append(PEAK_HEAP_BYTES, number(b, PEAK_HEAP_BYTES))
+					.append(ALLOCATED_BYTES_PER_SECOND, number(b, ALLOCATED_BYTES_PER_SECOND))
+					.append("speedup", speedup)
+					.append("regression", speedup < 1 - tolerance));
+		}
+	}
+
+	private static String key(Document result) {
+		return result.get("mode") + "_" + number(result, "radios") + "_" + number(result, "channels")
+				+ "_" + number(result, "maxChannels") + "_" + number(result, "subslots");
+	}
+
+	/**
+	 * JSON numbers may be parsed as int, long or double.
+	 */
+	private static double number(Document document, String key) {
+		return ((Number) document.get(key)).doubleValue();
+	}
+
+	private static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	private static long peakHeap() {
+		return ManagementFactory.getMemoryPoolMXBeans().stream()
+				.filter(pool -> pool.getType() == MemoryType.HEAP)
+				.mapToLong(pool -> pool.getPeakUsage().getUsed())
+				.sum();
+	}
+
+	/**
+	 * @return bytes allocated by the current thread, -1 if the JVM does not tell
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+
+		return -1;
+	}
+
+	private static Map<String, String> parseOptions(String[] args) {
+		Map<String, String> options = new HashMap<>();
+
+		for (int i = 0; i < args.length; i += 2) {
+			if (!args[i].startsWith("--") || i + 1 == args.length) {
+				throw new IllegalArgumentException("Wrong option: " + args[i] + "!");
+			}
+
+			options.put(args[i].substring(2), args[i + 1]);
+		}
+
+		return options;
+	}
+
+	private static List<Integer> parseList(String values) {
+		return Arrays.stream(values.split(",")).map(Integer::valueOf).collect(Collectors.toList());
+	}
+
+	/**
+	 * Sum of the measured iterations of a simulation size.
+	 */
+	private static class Measurement {
+
+		private long nanos;
+
+		private long allocatedBytes;
+
+		private long peakHeapBytes;
+
+		private int rounds;
+
+		private long subslotDraws;
+
+		private int strategySpaceSize;
+
+		private void add(Measurement other) {
+			nanos += other.nanos;
+			allocatedBytes = allocatedBytes < 0 || other.allocatedBytes < 0 ? -1 : allocatedBytes + other.allocatedBytes;
+			peakHeapBytes = Math.max(peakHeapBytes, other.peakHeapBytes);
+			rounds += other.rounds;
+			subslotDraws += other.subslotDraws;
+			strategySpaceSize = other.strategySpaceSize;
+		}
+
+		private Document toDocument(String mode, int radios, int channels, int maxChannels, int subslots, int roundNumber) {
+			double seconds = nanos / 1e9;
+
+			return new Document("mode", mode)
+					.append("radios", radios)
+					.append("channels", channels)
+					.append("maxChannels", maxChannels)
+					.append("strategySpaceSize", strategySpaceSize)
+					.append("subslots", subslots)
+					.append("rounds", roundNumber)
+					.append("seconds", seconds)
+					.append(ROUNDS_PER_SECOND, rounds / seconds)
+					.append(SUBSLOT_DRAWS_PER_SECOND, subslotDraws / seconds)
+					.append(PEAK_HEAP_BYTES, peakHeapBytes)
+					.append(ALLOCATED_BYTES_PER_SECOND, allocatedBytes < 0 ? -1.0 : allocatedBytes / seconds);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package hu.bme.cr.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Settings of the simulations played by the benchmarks.
+ */
+public final class SimulationScenarios {
+
+	/**
+	 * Seed of every random number generator of the benchmarks.
+	 */
+	public static final long SEED = 20240101L;
+
+	private SimulationScenarios() {
+	}
+
+	/**
+	 * Answers to the init questions of a simulation of the given size: text 
+	 * file log, same parameters on every channel and radio, regret tracking 
+	 * with fix step size and competitive utility function.
+	 *
+	 * @param radios - number of CognitiveRadios
+	 * @param channels - number of channels
+	 * @param maxChannels - maximum number of channels that a radio can use
+	 * @return init params of CRSystem
+	 */
+	public static String params(int radios, int channels, int maxChannels) {
+		return "2\ny\n" 
+				+ channels + "\ny\n1.0\n" 
+				+ maxChannels + "\n" 
+				+ radios + "\ny\n0.5\n1\n1\n1\n";
+	}
+
+	/**
+	 * Properties that keep the simulation off the database and the
+	 * console and make it reproducible.
+	 *
+	 * @param subslots - number of subslots
+	 * @param savePath - directory of the log
+	 * @return properties to override
+	 */
+	public static Properties properties(int subslots, Path savePath) {
+		Properties overrides = new Properties();
+		overrides.setProperty("SUBSLOTS", String.valueOf(subslots));
+		overrides.setProperty("SEED", String.valueOf(SEED));
+		overrides.setProperty("SAVE_PATH", savePath.toString() + File.separator);
+		overrides.setProperty("RESULT_SINK", "MEMORY");
+		overrides.setProperty("PERSISTENCE_MODE", "DOCUMENT");
+		overrides.setProperty("COLUMNAR_RESULTS", "false");
+		overrides.setProperty("TRACE_LEVEL", "OFF");
+		overrides.setProperty("PLAY_MODE", "SEQUENTIAL");
+		overrides.setProperty("EVALUATION_MODE", "EXHAUSTIVE");
+		return overrides;
+	}
+
+	/**
+	 * Deletes the directory of the logs with its content.
+	 *
+	 * @param directory - directory to delete
+	 * @throws IOException - if the directory can not be listed
+	 */
+	public static void delete(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package hu.bme.cr.benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import hu.bme.cr.strategies.StrategySpace;
+
+/**
+ * <p>Size of the simulated problem, shared by every benchmark so the
+ * results of the different hot paths can be compared with each other.</p>
+ *
+ * <p>The defaults are small and large variants of every dimension,
+ * override them with e.g. -p radios=50 -p subslots=10.
+ * Benchmarks that do not depend on a dimension simply ignore it.</p>
+ */
+@State(Scope.Benchmark)
+public abstract class SimulationSize {
+
+	@Param({"5", "20"})
+	public int radios;
+
+	@Param({"4", "8"})
+	public int channels;
+
+	@Param({"2", "4"})
+	public int maxChannels;
+
+	@Param({"5", "20"})
+	public int subslots;
+
+	protected StrategySpace strategySpace() {
+		return StrategySpace.of(channels, maxChannels);
+	}
+
+	protected Random random() {
+		return new Random(SimulationScenarios.SEED);
+	}
+}
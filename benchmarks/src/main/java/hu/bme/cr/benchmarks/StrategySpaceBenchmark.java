@@ -0,0 +1,39 @@
+package hu.bme.cr.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+import hu.bme.cr.strategies.StrategySpace;
+
+/**
+ * Benchmarks StrategySpace.getStrategySpace, i.e. listing every 
+ * strategy that uses maxChannels of the channels.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StrategySpaceBenchmark extends SimulationSize {
+
+	private List<Boolean> strategy;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		strategy = new ArrayList<>(channels);
+
+		for (int i = 0; i < channels; i++) {
+			strategy.add(i < maxChannels);
+		}
+	}
+
+	@Benchmark
+	public List<List<Boolean>> getStrategySpace() {
+		return StrategySpace.getStrategySpace(strategy);
+	}
+}
@@ -0,0 +1,89 @@
+package hu.bme.cr.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+import hu.bme.cr.strategies.StrategySpace;
+import hu.bme.cr.uf.CompetitiveUtilityFunction;
+import hu.bme.cr.uf.IUtilityFunction;
+import hu.bme.cr.uf.MixedUtilityFunction;
+import hu.bme.cr.utilities.CognitiveRadioUtility;
+import hu.bme.cr.utilities.ListUtility;
+
+/**
+ * Benchmarks the calculateUtility method of the utility functions 
+ * for every radio of a strategy slot, each playing a random strategy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UtilityFunctionBenchmark extends SimulationSize {
+
+	private final IUtilityFunction competitive = new CompetitiveUtilityFunction();
+
+	private final IUtilityFunction mixed = new MixedUtilityFunction(0.6, 0.2, 0.2);
+
+	private double[] transmissionRates;
+
+	private boolean[][] access;
+
+	private double[][] contentions;
+
+	private double[][] captures;
+
+	private double[][] collisions;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = random();
+		StrategySpace strategySpace = strategySpace();
+
+		transmissionRates = new double[channels];
+		Arrays.fill(transmissionRates, 1.0);
+
+		access = new boolean[radios][];
+		contentions = new double[radios][channels];
+		captures = new double[radios][channels];
+		collisions = new double[radios][channels];
+
+		for (int k = 0; k < radios; k++) {
+			access[k] = ListUtility.toBooleanArray(strategySpace.get(random.nextInt(strategySpace.size())));
+
+			for (int i = 0; i < channels; i++) {
+				double contention = radios * random.nextDouble();
+
+				contentions[k][i] = contention;
+				captures[k][i] = CognitiveRadioUtility.calculateCaptureProbability(contention);
+				collisions[k][i] = CognitiveRadioUtility.calculateCollisionProbability(contention);
+			}
+		}
+	}
+
+	@Benchmark
+	public double competitive() {
+		return utilities(competitive);
+	}
+
+	@Benchmark
+	public double mixed() {
+		return utilities(mixed);
+	}
+
+	private double utilities(IUtilityFunction utilityFunction) {
+		double sum = 0.0;
+
+		for (int k = 0; k < radios; k++) {
+			sum += utilityFunction.calculateUtility(0.5, transmissionRates, access[k], 
+					contentions[k], captures[k], collisions[k]);
+		}
+
+		return sum;
+	}
+}